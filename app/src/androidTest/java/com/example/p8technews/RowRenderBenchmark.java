@@ -0,0 +1,247 @@
+package com.example.p8technews;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.RelativeLayout;
+import android.widget.TextView;
+
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.appcompat.widget.AppCompatTextView;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Scroll benchmark of the list row on a device: rows are bound and measured as RecyclerView
+ * does while scrolling, recycling a screenful of row views, once with the former RelativeLayout
+ * row and {@code setText}, once with {@link NewsRowLayout} and text measured ahead by
+ * {@link RowTextLayouts}. The time per row is reported by {@link BenchmarkRule}:
+ *
+ *     ./gradlew connectedAndroidTest -Pandroid.testInstrumentationRunnerArguments.class=com.example.p8technews.RowRenderBenchmark
+ */
+@RunWith(AndroidJUnit4.class)
+public class RowRenderBenchmark {
+    private static final int ROWS = 300;
+    private static final int RECYCLED_VIEWS = 10;
+    private static final int WIDTH = 1080;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private Context context;
+    private List<NewsRow> newsRows;
+
+    @Before
+    public void setUp() {
+        context = new ContextThemeWrapper(InstrumentationRegistry.getInstrumentation().getTargetContext(), R.style.AppTheme);
+        newsRows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            TechNews techNews = new TechNews("Article number " + i + " about phones, chips and the companies making them",
+                    i % 2 == 0 ? "Technology" : "Science", "2019-11-20T10:00:00Z",
+                    "https://www.theguardian.com/technology/" + i, null, Arrays.asList("Author " + i, "Co-author " + i));
+            newsRows.add(new NewsRow(techNews, 1574244000000L - i * 60000L, "Nov 20, 2019", "10:00 AM",
+                    "Author " + i + ", Co-author " + i));
+        }
+    }
+
+    @Test
+    @UiThreadTest
+    public void flatRowPlacesChildrenAsTheFormerLayoutDid() {
+        View former = createFormerRow();
+        bindFormer(former, newsRows.get(0));
+        measureAndLayout(former);
+        View flat = LayoutInflater.from(context).inflate(R.layout.list_content, null, false);
+        flat.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        bindFlat(flat, newsRows.get(0), precompute(flat, newsRows.get(0)));
+        measureAndLayout(flat);
+
+        for (int id : new int[]{R.id.thumbnail_imageView, R.id.title_textView, R.id.section_textView,
+                R.id.date_textView, R.id.time_textView, R.id.authors_textView}) {
+            View formerChild = former.findViewById(id);
+            View flatChild = flat.findViewById(id);
+            assertEquals(formerChild.getLeft(), flatChild.getLeft());
+            assertEquals(formerChild.getTop(), flatChild.getTop());
+            assertEquals(formerChild.getWidth(), flatChild.getWidth());
+        }
+        assertTrue(flat.findViewById(R.id.authors_textView).getTop() >= flat.findViewById(R.id.time_textView).getBottom());
+    }
+
+    @Test
+    @UiThreadTest
+    public void formerRowBindAndMeasure() {
+        View[] rows = new View[RECYCLED_VIEWS];
+        for (int i = 0; i < RECYCLED_VIEWS; i++) {
+            rows[i] = createFormerRow();
+        }
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            View row = rows[i % RECYCLED_VIEWS];
+            bindFormer(row, newsRows.get(i % ROWS));
+            measureAndLayout(row);
+            i++;
+        }
+    }
+
+    @Test
+    @UiThreadTest
+    public void flatRowBindAndMeasureWithPrecomputedText() throws ExecutionException, InterruptedException {
+        View[] rows = new View[RECYCLED_VIEWS];
+        for (int i = 0; i < RECYCLED_VIEWS; i++) {
+            rows[i] = LayoutInflater.from(context).inflate(R.layout.list_content, null, false);
+            rows[i].setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                    ViewGroup.LayoutParams.WRAP_CONTENT));
+        }
+
+        /**
+         * While scrolling, the layouts of the rows coming into view were computed in the
+         * background while earlier rows were shown; here they are all finished up front.
+         */
+        List<RowLayouts> layouts = new ArrayList<>();
+        RowTextLayouts textLayouts = new RowTextLayouts();
+        AppCompatTextView titleTextView = rows[0].findViewById(R.id.title_textView);
+        AppCompatTextView authorsTextView = rows[0].findViewById(R.id.authors_textView);
+        textLayouts.setTextViews(titleTextView, authorsTextView);
+        for (NewsRow newsRow : newsRows) {
+            layouts.add(new RowLayouts(textLayouts.getTitle(newsRow).get(), textLayouts.getAuthors(newsRow).get()));
+        }
+        for (View row : rows) {
+            textLayouts.setTextViews((TextView) row.findViewById(R.id.title_textView),
+                    (TextView) row.findViewById(R.id.authors_textView));
+        }
+
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            View row = rows[i % RECYCLED_VIEWS];
+            bindFlat(row, newsRows.get(i % ROWS), layouts.get(i % ROWS));
+            measureAndLayout(row);
+            i++;
+        }
+    }
+
+    /**
+     * The row as list_content.xml declared it before {@link NewsRowLayout}.
+     */
+    private View createFormerRow() {
+        float density = context.getResources().getDisplayMetrics().density;
+        RelativeLayout row = new RelativeLayout(context);
+        int padding = Math.round(5 * density);
+        row.setPadding(padding, padding, padding, padding);
+        row.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+
+        ImageView thumbnail = new ImageView(context);
+        thumbnail.setId(R.id.thumbnail_imageView);
+        RelativeLayout.LayoutParams params = new RelativeLayout.LayoutParams(
+                context.getResources().getDimensionPixelSize(R.dimen.thumbnail_width),
+                context.getResources().getDimensionPixelSize(R.dimen.thumbnail_height));
+        params.setMarginEnd(Math.round(5 * density));
+        row.addView(thumbnail, params);
+
+        params = new RelativeLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+        params.addRule(RelativeLayout.END_OF, R.id.thumbnail_imageView);
+        row.addView(createTextView(R.id.title_textView, android.R.style.TextAppearance_Small), params);
+
+        params = wrapContent();
+        params.addRule(RelativeLayout.BELOW, R.id.title_textView);
+        params.addRule(RelativeLayout.END_OF, R.id.thumbnail_imageView);
+        row.addView(createTextView(R.id.section_textView, 0), params);
+
+        params = wrapContent();
+        params.addRule(RelativeLayout.BELOW, R.id.title_textView);
+        params.addRule(RelativeLayout.ALIGN_PARENT_END);
+        params.setMarginStart(Math.round(7 * density));
+        row.addView(createTextView(R.id.time_textView, 0), params);
+
+        params = wrapContent();
+        params.addRule(RelativeLayout.BELOW, R.id.title_textView);
+        params.addRule(RelativeLayout.START_OF, R.id.time_textView);
+        row.addView(createTextView(R.id.date_textView, 0), params);
+
+        params = wrapContent();
+        params.addRule(RelativeLayout.BELOW, R.id.time_textView);
+        params.addRule(RelativeLayout.ALIGN_PARENT_END);
+        row.addView(createTextView(R.id.authors_textView, 0), params);
+        return row;
+    }
+
+    private TextView createTextView(int id, int textAppearance) {
+        TextView textView = new TextView(context);
+        textView.setId(id);
+        if (textAppearance != 0) {
+            textView.setTextAppearance(textAppearance);
+        }
+        return textView;
+    }
+
+    private static RelativeLayout.LayoutParams wrapContent() {
+        return new RelativeLayout.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+    }
+
+    private static void bindFormer(View row, NewsRow newsRow) {
+        ((TextView) row.findViewById(R.id.title_textView)).setText(newsRow.getTechNews().getTitle());
+        bindCommon(row, newsRow);
+        ((TextView) row.findViewById(R.id.authors_textView)).setText(newsRow.getAuthors());
+    }
+
+    private static void bindFlat(View row, NewsRow newsRow, RowLayouts layouts) {
+        TextViewCompat.setPrecomputedText((TextView) row.findViewById(R.id.title_textView), layouts.title);
+        bindCommon(row, newsRow);
+        TextViewCompat.setPrecomputedText((TextView) row.findViewById(R.id.authors_textView), layouts.authors);
+    }
+
+    private static void bindCommon(View row, NewsRow newsRow) {
+        ((TextView) row.findViewById(R.id.section_textView)).setText(newsRow.getTechNews().getNewsSection());
+        ((TextView) row.findViewById(R.id.date_textView)).setText(newsRow.getDate());
+        ((TextView) row.findViewById(R.id.time_textView)).setText(newsRow.getTime());
+    }
+
+    private RowLayouts precompute(View row, NewsRow newsRow) {
+        RowTextLayouts textLayouts = new RowTextLayouts();
+        textLayouts.setTextViews((TextView) row.findViewById(R.id.title_textView), (TextView) row.findViewById(R.id.authors_textView));
+        try {
+            return new RowLayouts(textLayouts.getTitle(newsRow).get(), textLayouts.getAuthors(newsRow).get());
+        } catch (InterruptedException | ExecutionException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void measureAndLayout(View row) {
+        row.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        row.layout(0, 0, row.getMeasuredWidth(), row.getMeasuredHeight());
+    }
+
+    /**
+     * The finished title and authors layouts of one row, as the text views take them at measure time.
+     */
+    private static class RowLayouts {
+        final PrecomputedTextCompat title;
+        final PrecomputedTextCompat authors;
+
+        RowLayouts(PrecomputedTextCompat title, PrecomputedTextCompat authors) {
+            this.title = title;
+            this.authors = authors;
+        }
+    }
+}
@@ -1,32 +1,108 @@
 package com.example.p8technews;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
-import android.widget.RelativeLayout;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.appcompat.widget.AppCompatTextView;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.squareup.picasso.Picasso;
-
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.TimeZone;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class Adapter extends RecyclerView.Adapter<Adapter.ViewHolder> {
     private static final String LOG_TAG = Adapter.class.getSimpleName();
+
     private Context context;
-    private List<TechNews> techNewsList;
+
+    /**
+     * Every loaded row, and the rows displayed. Without a search query the timeline itself is
+     * displayed, and each merge dispatches its inserted ranges and changed rows directly. With a
+     * query the matching rows are displayed, by sort key and id in the timeline, swapped in once
+     * the diff against the displayed rows has been computed on a background thread; a diff that
+     * was overtaken by a later merge or query, i.e. whose generation is no longer the current
+     * one, is dropped. The same goes for the diff back to the timeline once the query is cleared.
+     */
+    private final NewsTimeline timeline;
+    private long[] displayedKeys;
+    private long[] displayedIds;
+    private int displayGeneration;
+    private int appliedGeneration;
+    private final SearchIndex searchIndex = new SearchIndex();
+    /**
+     * Ids of the rows changed by merges since the filter last ran.
+     */
+    private final LongHashSet changedIds = new LongHashSet(16);
+    private String searchQuery = "";
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final Executor DIFF_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    /**
+     * Only the rows on screen and a few pages on either side of them are kept in memory, within
+     * a fixed budget however far the list is scrolled; the timeline pages the others out to
+     * files, read and written one at a time on PAGE_EXECUTOR. A row bound while paged out shows
+     * empty until it has been read back.
+     */
+    private static final Executor PAGE_EXECUTOR = createPageExecutor();
+    private static final String PAGES_DIRECTORY = "timeline_pages";
+    private static RowPageStore rowPageStore;
+    private final int windowRows;
+    private int[] windowPositions = new int[0];
+    private int firstVisiblePosition;
+    private int lastVisiblePosition;
+    private final Thumbnails thumbnails;
+    private final RowTextLayouts textLayouts = new RowTextLayouts();
+
+    /**
+     * In reader mode a tap opens {@link ReaderActivity}, and the bodies of the rows being bound,
+     * and of those just past them, are downloaded ahead.
+     */
+    private final ArticleBodies articleBodies;
+    private boolean readerMode;
+
+    /**
+     * Thumbnails of this many rows past the one being bound are fetched ahead, and
+     * the last row whose thumbnail was requested that way.
+     */
+    private final int thumbnailPrefetchRows;
+    private int lastPrefetchedPosition = -1;
+
+    /**
+     * Articles are identified by the hash of their web address; a row is only rebound when
+     * something it displays has changed. A row that was paged out when the diff was taken is
+     * rebound; one that is paged out now has not changed since it was last displayed, as a
+     * changed row is merged into memory.
+     */
+    private static boolean areContentsTheSame(NewsRow oldItem, NewsRow newItem) {
+        if (oldItem == null || newItem == null) {
+            return newItem == null;
+        }
+        TechNews oldTechNews = oldItem.getTechNews();
+        TechNews newTechNews = newItem.getTechNews();
+        return TextUtils.equals(oldTechNews.getTitle(), newTechNews.getTitle())
+                && TextUtils.equals(oldTechNews.getNewsSection(), newTechNews.getNewsSection())
+                && oldTechNews.hasSameThumbnail(newTechNews)
+                && TextUtils.equals(oldItem.getDate(), newItem.getDate())
+                && TextUtils.equals(oldItem.getTime(), newItem.getTime())
+                && TextUtils.equals(oldItem.getAuthors(), newItem.getAuthors());
+    }
 
     /**
      * Constant Strings resource IDs required to setup each item's intent listener.
@@ -41,11 +117,55 @@ public class Adapter extends RecyclerView.Adapter<Adapter.ViewHolder> {
     /**
      * Constructs a new {@link Adapter} object.
      */
-    public Adapter(List<TechNews> techNewsList, Context context) {
+    public Adapter(List<NewsRow> newsRows, Context context) {
         super();
 
-        this.techNewsList = techNewsList;
         this.context = context;
+        this.thumbnails = Thumbnails.getInstance(context);
+        this.articleBodies = ArticleBodies.getInstance(context);
+        this.thumbnailPrefetchRows = context.getResources().getInteger(R.integer.thumbnail_prefetch_rows);
+        this.windowRows = context.getResources().getInteger(R.integer.window_pages)
+                * context.getResources().getInteger(R.integer.page_size);
+        this.timeline = new NewsTimeline(getRowPageStore(context), PAGE_EXECUTOR, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                mainHandler.post(command);
+            }
+        }, context.getResources().getInteger(R.integer.row_memory_budget_kb) * 1024L);
+        timeline.setOnRowLoadedListener(rowLoadedListener);
+        if (newsRows != null) {
+            mergeTechNews(newsRows);
+        }
+    }
+
+    private static ThreadPoolExecutor createPageExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Delete the pages an earlier process left; see {@link TechNewsApplication}. It runs on
+     * PAGE_EXECUTOR, so it is done before any adapter of this process writes a page.
+     */
+    static void deleteStalePages(Context context) {
+        final File directory = new File(context.getCacheDir(), PAGES_DIRECTORY);
+        PAGE_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                RowPageStore.deleteStalePages(directory);
+            }
+        });
+    }
+
+    /**
+     * The pages of every adapter go to one directory, emptied once at process start.
+     */
+    private static synchronized RowPageStore getRowPageStore(Context context) {
+        if (rowPageStore == null) {
+            rowPageStore = new RowPageStore(new File(context.getCacheDir(), PAGES_DIRECTORY));
+        }
+        return rowPageStore;
     }
 
     /**
@@ -56,90 +176,131 @@ public class Adapter extends RecyclerView.Adapter<Adapter.ViewHolder> {
     public Adapter.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
 
         View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.list_content, parent, false);
-        return new Adapter.ViewHolder(view);
+        Adapter.ViewHolder holder = new Adapter.ViewHolder(view);
+        textLayouts.setTextViews(holder.titleTextView, holder.authorsTextView);
+        return holder;
     }
 
     /**
-     * Here we bind the data to the View Objects.
+     * Here we bind the data to the View Objects. Everything was parsed and formatted
+     * by {@link NewsRowFormatter} off the main thread, and the title and authors were measured
+     * by {@link RowTextLayouts} off the main thread too, so this only assigns fields.
      */
     @Override
-    public void onBindViewHolder(@NonNull Adapter.ViewHolder holder, final int position) {
-        final TechNews techNews = techNewsList.get(position);
-        String title = techNews.getTitle();
-        String newsSection = techNews.getNewsSection();
-        String currentDateAndTime = techNews.getContentDateAndTime();
-        String imageUrl = techNews.getThumbnail();
-
-        holder.titleTextView.setText(title);
-        holder.sectionTextView.setText(newsSection);
-        if (currentDateAndTime != null) {
-            try {
-                String date = getNewsPublicationDate(currentDateAndTime);
-                String time = getNewsPublicationTime(currentDateAndTime);
-                holder.dateTextView.setText(date);
-                holder.timeTextView.setText(time);
-                holder.dateTextView.setVisibility(View.VISIBLE);
-                holder.timeTextView.setVisibility(View.VISIBLE);
-            } catch (ParseException e) {
-                Log.e(LOG_TAG, context.getString(R.string.parsing_dataOrTime_problem), e);
-            }
-        }
-        Picasso.with(context).load(imageUrl).into(holder.articleImageView);
-        TextView authorsTextView = holder.authorsTextView.findViewById(R.id.authors_textView);
-        ArrayList<String> authorsArray = techNews.getAuthors();
-        if (authorsArray == null) {
-            authorsTextView.setText(context.getString(R.string.no_author_found));
+    public void onBindViewHolder(@NonNull Adapter.ViewHolder holder, int position) {
+        long bindStart = PipelineMetrics.start();
+        int timelinePosition = toTimelinePosition(position);
+        NewsRow newsRow = timelinePosition < 0 ? null : timeline.get(timelinePosition);
+        holder.newsRow = newsRow;
+        if (newsRow == null) {
+            bindPlaceholder(holder);
+            if (timelinePosition >= 0) {
+                timeline.load(timelinePosition);
+            }
+            return;
+        }
+        TechNews techNews = newsRow.getTechNews();
+
+        holder.titleTextView.setTextFuture(textLayouts.getTitle(newsRow));
+        holder.sectionTextView.setText(techNews.getNewsSection());
+        if (newsRow.getDate() != null) {
+            holder.dateTextView.setText(newsRow.getDate());
+            holder.timeTextView.setText(newsRow.getTime());
+            holder.dateTextView.setVisibility(View.VISIBLE);
+            holder.timeTextView.setVisibility(View.VISIBLE);
         } else {
-            StringBuilder authorString = new StringBuilder();
-            for (int i = 0; i < authorsArray.size(); i++) {
-                authorString.append(authorsArray.get(i));
-                if ((i + 1) < authorsArray.size()) {
-                    authorString.append(", ");
-                }
+            holder.dateTextView.setVisibility(View.GONE);
+            holder.timeTextView.setVisibility(View.GONE);
+        }
+        if (holder.thumbnailNews != techNews) {
+            holder.thumbnailNews = techNews;
+            holder.thumbnailUrl = techNews.getThumbnail();
+        }
+        thumbnails.load(holder.thumbnailUrl, holder.articleImageView);
+        holder.authorsTextView.setTextFuture(textLayouts.getAuthors(newsRow));
+        if (readerMode) {
+            articleBodies.prefetch(techNews.getWebUrl(), ArticleBodyQueue.Priority.VISIBLE);
+        }
+        prefetchThumbnails(position);
+        PipelineMetrics.record(PipelineMetrics.Stage.BIND, bindStart, 0, 1);
+    }
+
+    /**
+     * A row still being read back from disk shows empty, and is rebound once it is back.
+     */
+    private void bindPlaceholder(Adapter.ViewHolder holder) {
+        holder.titleTextView.setTextFuture(null);
+        holder.titleTextView.setText(null);
+        holder.sectionTextView.setText(null);
+        holder.dateTextView.setVisibility(View.GONE);
+        holder.timeTextView.setVisibility(View.GONE);
+        holder.thumbnailNews = null;
+        holder.thumbnailUrl = null;
+        thumbnails.load(null, holder.articleImageView);
+        holder.authorsTextView.setTextFuture(null);
+        holder.authorsTextView.setText(null);
+    }
+
+    /**
+     * Rows are bound as they scroll into view, so the rows just past the bound one are
+     * the next to appear: their thumbnails, text layouts and, in reader mode, bodies are
+     * fetched ahead, each one only once. Rows not read back from disk yet are skipped.
+     */
+    private void prefetchThumbnails(int position) {
+        int last = Math.min(position + thumbnailPrefetchRows, getItemCount() - 1);
+        for (int i = Math.max(position + 1, lastPrefetchedPosition + 1); i <= last; i++) {
+            int timelinePosition = toTimelinePosition(i);
+            NewsRow newsRow = timelinePosition < 0 ? null : timeline.get(timelinePosition);
+            if (newsRow == null) {
+                continue;
+            }
+            TechNews techNews = newsRow.getTechNews();
+            thumbnails.prefetch(techNews.getThumbnail());
+            textLayouts.prefetch(newsRow);
+            if (readerMode) {
+                articleBodies.prefetch(techNews.getWebUrl(), ArticleBodyQueue.Priority.AHEAD);
             }
-            holder.authorsTextView.setText(authorString.toString());
-            holder.authorsTextView.setVisibility(View.VISIBLE);
-
-            /**
-             * We handle the click events by setting a click listener, parsing the url
-             * and adding extra intents for each content item.
-             */
-            holder.relativeLayout.setOnClickListener(new View.OnClickListener() {
-                @Override
-                public void onClick(View view) {
-                    TechNews techNews1 = techNewsList.get(position);
-                    Uri techNewsUri = Uri.parse(techNews1.getWebUrl());
-                    Intent webIntent = new Intent(Intent.ACTION_VIEW, techNewsUri);
-
-                    webIntent.putExtra(EXTRA_TITLE, techNews1.getTitle());
-                    webIntent.putExtra(EXTRA_SECTION, techNews1.getNewsSection());
-                    webIntent.putExtra(EXTRA_DATEANDTIME, techNews1.getContentDateAndTime());
-                    webIntent.putExtra(EXTRA_URL, techNews1.getWebUrl());
-                    webIntent.putExtra(EXTRA_THUMBNAIL, techNews1.getThumbnail());
-                    webIntent.putExtra(EXTRA_AUTHORS, techNews1.getAuthors());
-
-                    view.getContext().startActivity(webIntent);
-                }
-            });
         }
+        lastPrefetchedPosition = Math.max(lastPrefetchedPosition, last);
     }
 
     /**
-     * We return the techNewsList size to ensure that the number of items in List equals the one in the RecyclerView.
+     * We return the displayed list size to ensure that the number of items in List equals the one in the RecyclerView.
      */
     @Override
     public int getItemCount() {
-        return techNewsList.size();
+        return displayedIds == null ? timeline.size() : displayedIds.length;
     }
 
-    public class ViewHolder extends RecyclerView.ViewHolder {
+    /**
+     * Return the timeline position of a displayed row, or -1 if it is no longer in the timeline.
+     */
+    private int toTimelinePosition(int position) {
+        if (displayedIds == null) {
+            return position;
+        }
+        return timeline.indexOf(displayedKeys[position], displayedIds[position]);
+    }
+
+    /**
+     * The click listener is set once per holder, not once per bind, and
+     * opens whichever row is currently bound.
+     */
+    public class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
         public ImageView articleImageView;
-        public TextView titleTextView;
+        public AppCompatTextView titleTextView;
         public TextView sectionTextView;
         public TextView timeTextView;
         public TextView dateTextView;
-        public TextView authorsTextView;
-        public RelativeLayout relativeLayout;
+        public AppCompatTextView authorsTextView;
+        public NewsRowLayout rowLayout;
+        private NewsRow newsRow;
+        /**
+         * The thumbnail url of the article last bound, which the article itself does not keep
+         * whole; rebinding the same article reuses it.
+         */
+        private TechNews thumbnailNews;
+        private String thumbnailUrl;
 
         public ViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -149,33 +310,314 @@ public class Adapter extends RecyclerView.Adapter<Adapter.ViewHolder> {
             timeTextView = itemView.findViewById(R.id.time_textView);
             dateTextView = itemView.findViewById(R.id.date_textView);
             authorsTextView = itemView.findViewById(R.id.authors_textView);
-            relativeLayout = itemView.findViewById(R.id.relative_layout);
+            rowLayout = itemView.findViewById(R.id.row_layout);
+            rowLayout.setOnClickListener(this);
+        }
+
+        /**
+         * We handle the click events by parsing the url
+         * and adding extra intents for each content item.
+         * In reader mode the article opens in {@link ReaderActivity} instead of the browser.
+         */
+        @Override
+        public void onClick(View view) {
+            if (newsRow == null) {
+                return;
+            }
+            TechNews techNews = newsRow.getTechNews();
+            Intent webIntent;
+            if (readerMode) {
+                webIntent = new Intent(view.getContext(), ReaderActivity.class);
+            } else {
+                webIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(techNews.getWebUrl()));
+            }
+
+            webIntent.putExtra(EXTRA_TITLE, techNews.getTitle());
+            webIntent.putExtra(EXTRA_SECTION, techNews.getNewsSection());
+            webIntent.putExtra(EXTRA_DATEANDTIME, techNews.getContentDateAndTime());
+            webIntent.putExtra(EXTRA_URL, techNews.getWebUrl());
+            webIntent.putExtra(EXTRA_THUMBNAIL, techNews.getThumbnail());
+            List<String> authors = techNews.getAuthors();
+            webIntent.putExtra(EXTRA_AUTHORS, authors == null ? null : new ArrayList<>(authors));
+
+            view.getContext().startActivity(webIntent);
+        }
+    }
+
+    /**
+     * Merge loaded rows, of a first page, a reload or a further page, into the timeline.
+     * Articles already in it are only rebound when something they display has changed, and
+     * new ones are inserted at their place by publication time.
+     */
+    public void mergeTechNews(List<NewsRow> newsRows) {
+        if (displayedIds == null) {
+            timeline.merge(newsRows, timelineListener);
+        } else {
+            timeline.merge(newsRows, filteredMergeListener);
+        }
+        searchIndex.addAll(newsRows);
+        updateWindow();
+        if (displayedIds != null || appliedGeneration != displayGeneration) {
+            submitFiltered();
         }
     }
 
     /**
-     * Implementing article's date getter method.
+     * Remove the rows of articles that are gone, given the merged result of a complete reload
+     * of the first page; see {@link NewsTimeline#removeMissing}. As after a merge, a diff still
+     * on its way was computed against the rows before the removal, so the filter runs again.
      */
-    private String getNewsPublicationDate(String currentDateAndTime) throws ParseException {
-        @SuppressLint("SimpleDateFormat") SimpleDateFormat sdf = new SimpleDateFormat(context.getString(R.string.received_date_and_time_format));
-        @SuppressLint("SimpleDateFormat") SimpleDateFormat sdfDate = new SimpleDateFormat(context.getString(R.string.displayed_date_format));
-        return sdfDate.format(sdf.parse(currentDateAndTime));
+    public void removeMissingTechNews(List<NewsRow> firstPage) {
+        int removed = timeline.removeMissing(firstPage, displayedIds == null ? timelineListener : null);
+        if (removed > 0) {
+            updateWindow();
+            if (displayedIds != null || appliedGeneration != displayGeneration) {
+                submitFiltered();
+            }
+        }
+    }
+
+    /**
+     * Set the displayed rows on screen, as the list scrolls; the rows kept in memory follow them.
+     */
+    public void setVisibleRange(int first, int last) {
+        if (first < 0 || last < first || (first == firstVisiblePosition && last == lastVisiblePosition)) {
+            return;
+        }
+        firstVisiblePosition = first;
+        lastVisiblePosition = last;
+        updateWindow();
     }
 
     /**
-     * Implementing article's time getter method.
+     * Keep the rows on screen in memory, then those nearest to them, alternately below and
+     * above, up to windowRows on either side.
+     */
+    private void updateWindow() {
+        int count = getItemCount();
+        if (count == 0) {
+            return;
+        }
+        int first = Math.min(firstVisiblePosition, count - 1);
+        int last = Math.min(Math.max(lastVisiblePosition, first), count - 1);
+        int capacity = last - first + 1 + 2 * windowRows;
+        if (windowPositions.length < capacity) {
+            windowPositions = new int[capacity];
+        }
+        int size = 0;
+        for (int position = first; position <= last; position++) {
+            windowPositions[size++] = toTimelinePosition(position);
+        }
+        for (int distance = 1; distance <= windowRows; distance++) {
+            if (last + distance < count) {
+                windowPositions[size++] = toTimelinePosition(last + distance);
+            }
+            if (first - distance >= 0) {
+                windowPositions[size++] = toTimelinePosition(first - distance);
+            }
+        }
+        timeline.setWindow(windowPositions, size);
+    }
+
+    /**
+     * Delete the rows paged out to disk; the adapter is not used afterwards.
+     */
+    public void release() {
+        timeline.clear();
+    }
+
+    public void logStats() {
+        Log.i(LOG_TAG, "timeline: " + timeline.getLoadedCount() + " of " + timeline.size() + " rows in memory, "
+                + timeline.getLoadedBytes() / 1024 + " KB, " + rowPageStore.getWriteCount() + " pages written, "
+                + rowPageStore.getReadCount() + " read back, " + rowPageStore.getStoredBytes() / 1024
+                + " KB on disk, " + timeline.getPageFailureCount() + " failures");
+    }
+
+    /**
+     * Switch reader mode on or off; see {@link ReaderActivity}.
+     */
+    public void setReaderMode(boolean readerMode) {
+        this.readerMode = readerMode;
+        lastPrefetchedPosition = -1;
+    }
+
+    /**
+     * Show only the rows whose title, section or authors have words starting with every word
+     * of the query. The query runs against {@link SearchIndex}, not against the rows' text.
+     */
+    public void setSearchQuery(String query) {
+        searchQuery = query == null ? "" : query;
+        submitFiltered();
+    }
+
+    /**
+     * Dispatches the changes of a merge into the displayed timeline, with the positions
+     * the timeline reports.
+     */
+    private final NewsTimeline.OnMergedListener timelineListener = new NewsTimeline.OnMergedListener() {
+        @Override
+        public void onRemoved(int position, int count) {
+            if (position + count <= lastPrefetchedPosition) {
+                lastPrefetchedPosition -= count;
+            } else if (position <= lastPrefetchedPosition) {
+                lastPrefetchedPosition = position - 1;
+            }
+            notifyItemRangeRemoved(position, count);
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            if (position <= lastPrefetchedPosition) {
+                lastPrefetchedPosition += count;
+            }
+            notifyItemRangeInserted(position, count);
+        }
+
+        @Override
+        public void onChanged(int position) {
+            notifyItemChanged(position);
+        }
+    };
+
+    /**
+     * While a query is active, only notes which rows a merge changed; whether they are
+     * displayed is up to the filter.
+     */
+    private final NewsTimeline.OnMergedListener filteredMergeListener = new NewsTimeline.OnMergedListener() {
+        @Override
+        public void onRemoved(int position, int count) {
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+        }
+
+        @Override
+        public void onChanged(int position) {
+            changedIds.add(timeline.getId(position));
+        }
+    };
+
+    /**
+     * Rows read back from disk are rebound, wherever they are displayed.
      */
-    private String getNewsPublicationTime(String currentDateAndTime) throws ParseException {
-        @SuppressLint("SimpleDateFormat") SimpleDateFormat sdf = new SimpleDateFormat(context.getString(R.string.received_date_and_time_format));
-        @SuppressLint("SimpleDateFormat") SimpleDateFormat sdfTime = new SimpleDateFormat(context.getString(R.string.displayed_time_format));
-        sdfTime.setTimeZone(TimeZone.getTimeZone("UTC"));
-        return sdfTime.format(sdf.parse(currentDateAndTime));
+    private final NewsTimeline.OnRowLoadedListener rowLoadedListener = new NewsTimeline.OnRowLoadedListener() {
+        @Override
+        public void onRowLoaded(int position) {
+            if (displayedIds == null) {
+                notifyItemChanged(position);
+                return;
+            }
+            long id = timeline.getId(position);
+            int last = Math.min(displayedIds.length - 1, lastVisiblePosition + windowRows);
+            for (int i = Math.max(0, firstVisiblePosition - windowRows); i <= last; i++) {
+                if (displayedIds[i] == id) {
+                    notifyItemChanged(i);
+                }
+            }
+        }
+    };
+
+    /**
+     * Diff the displayed rows against the rows matching the query on a background thread.
+     * Both sides are copied first, since the timeline keeps changing on the main thread; rows
+     * are copied as they are in memory, and paged out ones as null.
+     * <p>
+     * When the same rows still match, as after most merges while a query is active, nothing
+     * is copied or diffed: the displayed rows a merge changed are rebound in place.
+     */
+    private void submitFiltered() {
+        final int[] filtered = searchIndex.filter(timeline, searchQuery);
+        if (filtered != null && displayedIds != null && appliedGeneration == displayGeneration
+                && isDisplayed(filtered)) {
+            if (changedIds.size() > 0) {
+                for (int i = 0; i < displayedIds.length; i++) {
+                    if (changedIds.contains(displayedIds[i])) {
+                        notifyItemChanged(i);
+                    }
+                }
+                changedIds.clear();
+            }
+            return;
+        }
+        changedIds.clear();
+        final int generation = ++displayGeneration;
+        final int oldCount = getItemCount();
+        final long[] oldIds = new long[oldCount];
+        final NewsRow[] oldRows = new NewsRow[oldCount];
+        for (int i = 0; i < oldCount; i++) {
+            int timelinePosition = toTimelinePosition(i);
+            oldIds[i] = displayedIds == null ? timeline.getId(i) : displayedIds[i];
+            oldRows[i] = timelinePosition < 0 ? null : timeline.get(timelinePosition);
+        }
+        final int newCount = filtered == null ? timeline.size() : filtered.length;
+        final long[] newKeys = new long[newCount];
+        final long[] newIds = new long[newCount];
+        final NewsRow[] newRows = new NewsRow[newCount];
+        for (int i = 0; i < newCount; i++) {
+            int timelinePosition = filtered == null ? i : filtered[i];
+            newKeys[i] = timeline.getSortKey(timelinePosition);
+            newIds[i] = timeline.getId(timelinePosition);
+            newRows[i] = timeline.get(timelinePosition);
+        }
+        DIFF_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+                    @Override
+                    public int getOldListSize() {
+                        return oldCount;
+                    }
+
+                    @Override
+                    public int getNewListSize() {
+                        return newCount;
+                    }
+
+                    @Override
+                    public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                        return oldIds[oldItemPosition] == newIds[newItemPosition];
+                    }
+
+                    @Override
+                    public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                        return Adapter.areContentsTheSame(oldRows[oldItemPosition], newRows[newItemPosition]);
+                    }
+                });
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != displayGeneration) {
+                            return;
+                        }
+                        /**
+                         * Every merge since the filter ran started a new generation, so the
+                         * timeline still holds exactly the rows that were diffed.
+                         */
+                        appliedGeneration = generation;
+                        displayedKeys = filtered == null ? null : newKeys;
+                        displayedIds = filtered == null ? null : newIds;
+                        lastPrefetchedPosition = -1;
+                        diffResult.dispatchUpdatesTo(Adapter.this);
+                        updateWindow();
+                    }
+                });
+            }
+        });
     }
 
     /**
-     * Return the list of TechNews, which will be used into TechActivity's onLoadFinished method.
+     * Return whether the rows at the timeline positions are the displayed rows, in order.
      */
-    public void setTechNewsArrayList(List<TechNews> techNewsList) {
-        this.techNewsList = techNewsList;
+    private boolean isDisplayed(int[] positions) {
+        if (positions.length != displayedIds.length) {
+            return false;
+        }
+        for (int i = 0; i < positions.length; i++) {
+            if (timeline.getId(positions[i]) != displayedIds[i] || timeline.getSortKey(positions[i]) != displayedKeys[i]) {
+                return false;
+            }
+        }
+        return true;
     }
-}
\ No newline at end of file
+}
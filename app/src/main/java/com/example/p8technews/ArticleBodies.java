@@ -0,0 +1,142 @@
+package com.example.p8technews;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Article bodies of the reader mode. Bodies of the rows being shown are downloaded ahead through
+ * an {@link ArticleBodyQueue} into an {@link ArticleBodyStore} in the app's files, so an article
+ * opens from disk, also offline, instead of as a browser page load.
+ */
+public class ArticleBodies {
+    private static final String LOG_TAG = ArticleBodies.class.getSimpleName();
+
+    private static final long STORE_BYTES = 8 * 1024 * 1024;
+    private static final String STORE_DIRECTORY = "article_bodies";
+
+    /**
+     * Requests past this many are pushed out: by then the user has scrolled past those rows.
+     */
+    private static final int QUEUE_CAPACITY = 32;
+    private static final int MAX_RUNNING_DOWNLOADS = 2;
+
+    private static ArticleBodies instance;
+
+    private final Context context;
+    private final String requestUrl;
+    private final ArticleBodyStore store;
+    private final ArticleBodyQueue queue;
+
+    /**
+     * Reads a stored body for the reader, without waiting behind running downloads.
+     */
+    private final ExecutorService readExecutor = createExecutor(1);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Told on the main thread about the body of an opened article.
+     */
+    public interface OnBodyLoadedListener {
+        /**
+         * @param bodyText the body, or null if it is neither stored nor could be downloaded
+         */
+        void onBodyLoaded(String bodyText);
+    }
+
+    public static synchronized ArticleBodies getInstance(Context context) {
+        if (instance == null) {
+            instance = new ArticleBodies(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ArticleBodies(Context context) {
+        this.context = context;
+        requestUrl = GuardianSectionSource.getRequestUrl(context);
+        store = new ArticleBodyStore(new File(context.getFilesDir(), STORE_DIRECTORY), STORE_BYTES);
+        queue = new ArticleBodyQueue(store, new ArticleBodyQueue.Downloader() {
+            @Override
+            public String download(String webUrl, ArticleBodyQueue.Priority priority) throws IOException {
+                /**
+                 * Only an opened article is waited for; the others are read ahead.
+                 */
+                NetworkScheduler.Priority networkPriority = priority == ArticleBodyQueue.Priority.OPEN
+                        ? NetworkScheduler.Priority.VISIBLE : NetworkScheduler.Priority.PREFETCH;
+                try {
+                    return QueryUtils.fetchArticleBody(GuardianSectionSource.buildBodyUrl(requestUrl, webUrl),
+                            ArticleBodies.this.context, networkPriority);
+                } catch (IOException e) {
+                    Log.e(LOG_TAG, ArticleBodies.this.context.getString(R.string.article_body_problem), e);
+                    throw e;
+                }
+            }
+        }, createExecutor(MAX_RUNNING_DOWNLOADS), QUEUE_CAPACITY, MAX_RUNNING_DOWNLOADS);
+    }
+
+    private static ExecutorService createExecutor(int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Download the body of an article shown in the list, unless it is stored already.
+     */
+    public void prefetch(String webUrl, ArticleBodyQueue.Priority priority) {
+        if (webUrl != null) {
+            queue.request(webUrl, priority, null);
+        }
+    }
+
+    /**
+     * Load the body of an article the user opened: from the store, or else downloaded
+     * ahead of every prefetch.
+     */
+    public void open(final String webUrl, final OnBodyLoadedListener listener) {
+        readExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                String bodyText = store.get(webUrl);
+                if (bodyText != null) {
+                    deliver(listener, bodyText);
+                    return;
+                }
+                queue.request(webUrl, ArticleBodyQueue.Priority.OPEN, new ArticleBodyQueue.OnBodyListener() {
+                    @Override
+                    public void onBody(String webUrl, String bodyText) {
+                        deliver(listener, bodyText);
+                    }
+                });
+            }
+        });
+    }
+
+    private void deliver(final OnBodyLoadedListener listener, final String bodyText) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onBodyLoaded(bodyText);
+            }
+        });
+    }
+
+    /**
+     * Log how the store and the queue did.
+     */
+    public void logStats() {
+        Log.i(LOG_TAG, "bodies: " + store.getHitCount() + " opened from disk, " + store.getMissCount()
+                + " misses, " + queue.getDownloadCount() + " downloads, " + queue.getFailureCount()
+                + " failures, " + queue.getDroppedCount() + " dropped, " + store.getStoredBytes() / 1024
+                + " KB stored at a compression ratio of " + store.getCompressionRatio());
+    }
+}
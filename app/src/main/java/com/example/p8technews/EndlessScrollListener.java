@@ -0,0 +1,44 @@
+package com.example.p8technews;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Scroll listener asking for the next page once the last visible row
+ * gets within a configurable distance of the end of the list.
+ */
+public abstract class EndlessScrollListener extends RecyclerView.OnScrollListener {
+    private final LinearLayoutManager layoutManager;
+    private final int prefetchDistance;
+
+    /**
+     * @param layoutManager    of the RecyclerView being scrolled
+     * @param prefetchDistance number of rows before the end at which the next page is requested
+     */
+    public EndlessScrollListener(LinearLayoutManager layoutManager, int prefetchDistance) {
+        this.layoutManager = layoutManager;
+        this.prefetchDistance = prefetchDistance;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        /**
+         * Only scrolling down can bring the end of the list closer.
+         */
+        if (dy <= 0) {
+            return;
+        }
+        int itemCount = layoutManager.getItemCount();
+        int lastVisiblePosition = layoutManager.findLastVisibleItemPosition();
+        if (itemCount > 0 && lastVisiblePosition + prefetchDistance >= itemCount - 1) {
+            onLoadMore();
+        }
+    }
+
+    /**
+     * Called on the main thread, possibly several times for the same end of list;
+     * implementations must ignore requests for a page that is already loading.
+     */
+    public abstract void onLoadMore();
+}
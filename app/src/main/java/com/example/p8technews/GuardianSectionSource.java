@@ -0,0 +1,177 @@
+package com.example.p8technews;
+
+import android.content.Context;
+import android.net.Uri;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link NewsSource} reading one section of the Guardian search endpoint.
+ */
+public class GuardianSectionSource implements NewsSource {
+    /**
+     * Longest a section may take before the merged feed is shown without it.
+     */
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    /**
+     * A delta is read in pages of DELTA_PAGE_SIZE, and never beyond MAX_DELTA_PAGES: after
+     * a long time offline the newest articles are enough, older ones are left out.
+     */
+    private static final int DELTA_PAGE_SIZE = 50;
+    private static final int MAX_DELTA_PAGES = 4;
+
+    private final Context context;
+    private final String baseUrl;
+    private final String section;
+    private final int pageSize;
+    private final NetworkScheduler.Priority priority;
+
+    /**
+     * A source whose fetches something on screen waits for.
+     *
+     * @param context  used for resource lookups while fetching
+     * @param baseUrl  of the Guardian search endpoint, including the api-key
+     * @param section  id of the Guardian section, e.g. "technology"
+     * @param pageSize number of articles per page
+     */
+    public GuardianSectionSource(Context context, String baseUrl, String section, int pageSize) {
+        this(context, baseUrl, section, pageSize, NetworkScheduler.Priority.VISIBLE);
+    }
+
+    /**
+     * @param priority of the source's fetches in the {@link NetworkScheduler}
+     */
+    public GuardianSectionSource(Context context, String baseUrl, String section, int pageSize,
+                                 NetworkScheduler.Priority priority) {
+        this.context = context.getApplicationContext();
+        this.baseUrl = baseUrl;
+        this.section = section;
+        this.pageSize = pageSize;
+        this.priority = priority;
+    }
+
+    /**
+     * Return the base URL of the search endpoint the app reads, {@code R.string.guardian_request_url}.
+     * It is the Guardian's unless a debug build was pointed at another one, e.g. a local stand-in.
+     */
+    public static String getRequestUrl(Context context) {
+        return context.getString(R.string.guardian_request_url);
+    }
+
+    /**
+     * Create one source per section configured in {@code R.array.feed_sections}, whose fetches
+     * something on screen waits for.
+     */
+    public static List<NewsSource> createConfiguredSources(Context context, String baseUrl) {
+        return createConfiguredSources(context, baseUrl, NetworkScheduler.Priority.VISIBLE);
+    }
+
+    /**
+     * Create one source per section configured in {@code R.array.feed_sections}.
+     *
+     * @param priority of the sources' fetches in the {@link NetworkScheduler}
+     */
+    public static List<NewsSource> createConfiguredSources(Context context, String baseUrl,
+                                                           NetworkScheduler.Priority priority) {
+        int pageSize = context.getResources().getInteger(R.integer.page_size);
+        List<NewsSource> sources = new ArrayList<>();
+        for (String section : context.getResources().getStringArray(R.array.feed_sections)) {
+            sources.add(new GuardianSectionSource(context, baseUrl, section, pageSize, priority));
+        }
+        return sources;
+    }
+
+    @Override
+    public String getName() {
+        return section;
+    }
+
+    @Override
+    public long getTimeoutMillis() {
+        return TIMEOUT_MILLIS;
+    }
+
+    @Override
+    public List<TechNews> fetch(int page, GuardianJsonParser.OnArticleParsedListener listener) {
+        return QueryUtils.fetchTechNewsData(buildRequestUrl(page), context, priority, listener);
+    }
+
+    /**
+     * The search endpoint filters by day only, so the delta is read newest first and cut
+     * at the first article that is not newer than the given date.
+     */
+    @Override
+    public List<TechNews> fetchNewerThan(String publicationDate) {
+        List<TechNews> newer = new ArrayList<>();
+        for (int page = 1; page <= MAX_DELTA_PAGES; page++) {
+            List<TechNews> techNews = QueryUtils.fetchTechNewsData(buildDeltaUrl(publicationDate, page), context, priority, null);
+            if (techNews == null) {
+                return page == 1 ? null : newer;
+            }
+            for (TechNews article : techNews) {
+                String date = article.getContentDateAndTime();
+                if (date == null || date.compareTo(publicationDate) <= 0) {
+                    return newer;
+                }
+                newer.add(article);
+            }
+            if (techNews.size() < DELTA_PAGE_SIZE) {
+                break;
+            }
+        }
+        return newer;
+    }
+
+    /**
+     * Build the search url of one page of this section, e.g.
+     * http://content.guardianapis.com/search?section=technology&show-tags=contributor&format=json&lang=en&order-by=newest&show-fields=thumbnail&page-size=15&page=1&api-key=test
+     */
+    public String buildRequestUrl(int page) {
+        Uri.Builder builder = newSearchBuilder();
+        builder.appendQueryParameter("page-size", String.valueOf(pageSize));
+        builder.appendQueryParameter("page", String.valueOf(page));
+        return builder.toString();
+    }
+
+    /**
+     * Build the search url of one page of the articles published since the day of the given
+     * date, e.g. ...&from-date=2019-11-10&page-size=50&page=1&api-key=test
+     */
+    public String buildDeltaUrl(String publicationDate, int page) {
+        Uri.Builder builder = newSearchBuilder();
+        builder.appendQueryParameter("from-date", publicationDate.length() > 10
+                ? publicationDate.substring(0, 10) : publicationDate);
+        builder.appendQueryParameter("page-size", String.valueOf(DELTA_PAGE_SIZE));
+        builder.appendQueryParameter("page", String.valueOf(page));
+        return builder.toString();
+    }
+
+    /**
+     * Build the single-item url of an article's plain-text body from its web address: the
+     * content API serves an article under the path of its web address, e.g.
+     * https://content.guardianapis.com/technology/2019/nov/20/some-article?api-key=test&show-fields=bodyText
+     */
+    public static String buildBodyUrl(String baseUrl, String webUrl) {
+        Uri.Builder builder = Uri.parse(baseUrl).buildUpon();
+        builder.path(Uri.parse(webUrl).getPath());
+        builder.appendQueryParameter("show-fields", "bodyText");
+        return builder.toString();
+    }
+
+    private Uri.Builder newSearchBuilder() {
+        /**
+         * parse breaks apart the URI string that's passed into its parameter,
+         * buildUpon prepares it so we can add query parameters to it.
+         */
+        Uri.Builder builder = Uri.parse(baseUrl).buildUpon();
+        builder.appendQueryParameter("section", section);
+        builder.appendQueryParameter("show-tags", "contributor");
+        builder.appendQueryParameter("format", "json");
+        builder.appendQueryParameter("lang", "en");
+        builder.appendQueryParameter("order-by", "newest");
+        builder.appendQueryParameter("show-fields", "thumbnail");
+        return builder;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.p8technews;
+
+/**
+ * Schema of the on-device article store used by {@link NewsStore}.
+ */
+public final class NewsContract {
+
+    /**
+     * The contract only holds constants, so it must never be instantiated.
+     */
+    private NewsContract() {
+    }
+
+    /**
+     * Table holding one row per {@link TechNews}, keyed by the article's web address.
+     */
+    public static final class ArticleEntry {
+        public static final String TABLE_NAME = "articles";
+
+        public static final String COLUMN_WEB_URL = "web_url";
+        public static final String COLUMN_TITLE = "title";
+        public static final String COLUMN_SECTION = "section";
+        public static final String COLUMN_PUBLICATION_DATE = "publication_date";
+        public static final String COLUMN_THUMBNAIL = "thumbnail";
+        public static final String COLUMN_AUTHORS = "authors";
+        public static final String COLUMN_FETCHED_AT = "fetched_at";
+
+        public static final String INDEX_SECTION = "idx_articles_section";
+        public static final String INDEX_PUBLICATION_DATE = "idx_articles_publication_date";
+
+        /**
+         * Authors are stored as a single column, joined with the ASCII unit separator.
+         */
+        public static final String AUTHORS_SEPARATOR = "\u001F";
+
+        private ArticleEntry() {
+        }
+    }
+}
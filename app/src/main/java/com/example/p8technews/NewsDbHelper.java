@@ -0,0 +1,50 @@
+package com.example.p8technews;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import com.example.p8technews.NewsContract.ArticleEntry;
+
+/**
+ * Creates and upgrades the SQLite database behind {@link NewsStore}.
+ */
+public class NewsDbHelper extends SQLiteOpenHelper {
+    private static final String DATABASE_NAME = "technews.db";
+    private static final int DATABASE_VERSION = 1;
+
+    public NewsDbHelper(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + ArticleEntry.TABLE_NAME + " ("
+                + ArticleEntry.COLUMN_WEB_URL + " TEXT PRIMARY KEY NOT NULL, "
+                + ArticleEntry.COLUMN_TITLE + " TEXT, "
+                + ArticleEntry.COLUMN_SECTION + " TEXT, "
+                + ArticleEntry.COLUMN_PUBLICATION_DATE + " TEXT, "
+                + ArticleEntry.COLUMN_THUMBNAIL + " TEXT, "
+                + ArticleEntry.COLUMN_AUTHORS + " TEXT, "
+                + ArticleEntry.COLUMN_FETCHED_AT + " INTEGER NOT NULL);");
+
+        /**
+         * Loads filter by section and always order by publication date, so both get an index.
+         * The Guardian's ISO-8601 UTC timestamps sort correctly as plain text.
+         */
+        db.execSQL("CREATE INDEX " + ArticleEntry.INDEX_SECTION + " ON "
+                + ArticleEntry.TABLE_NAME + " (" + ArticleEntry.COLUMN_SECTION + ", "
+                + ArticleEntry.COLUMN_PUBLICATION_DATE + ");");
+        db.execSQL("CREATE INDEX " + ArticleEntry.INDEX_PUBLICATION_DATE + " ON "
+                + ArticleEntry.TABLE_NAME + " (" + ArticleEntry.COLUMN_PUBLICATION_DATE + ");");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        /**
+         * The store is only a cache of the Guardian API, so it is simply rebuilt.
+         */
+        db.execSQL("DROP TABLE IF EXISTS " + ArticleEntry.TABLE_NAME);
+        onCreate(db);
+    }
+}
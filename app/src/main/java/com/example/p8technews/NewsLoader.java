@@ -1,49 +1,244 @@
 package com.example.p8technews;
 
 import android.content.Context;
+import android.text.TextUtils;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.loader.content.AsyncTaskLoader;
+import androidx.annotation.WorkerThread;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
-public class NewsLoader extends AsyncTaskLoader<List<TechNews>> {
-    private String Url;
+/**
+ * One unit of loading work run by {@link NewsRepository}: serve stored articles, fetch and merge
+ * the sources, persist the result and turn it into ready-to-bind rows.
+ */
+public class NewsLoader {
+    private static final String LOG_TAG = NewsLoader.class.getSimpleName();
+
+    /**
+     * Number of freshly parsed articles collected before a partial list is handed to the UI.
+     */
+    private static final int PARTIAL_BATCH_SIZE = 10;
+
+    /**
+     * Number of stored articles shown while the network request is still in flight.
+     */
+    private static final int STORED_ARTICLES_LIMIT = 50;
+
+    private final Context context;
+    private final List<NewsSource> sources;
+    private final int page;
+
+    /**
+     * Receives snapshots of what has been loaded so far, on the loading thread.
+     */
+    public interface OnPartialResultListener {
+        void onPartialResult(List<NewsRow> newsRows);
+    }
 
     /**
      * Constructs a new {@link NewsLoader}.
      *
      * @param context of the activity
-     * @param url     to load data from
+     * @param sources to load data from, merged into one feed ordered by publication date
+     * @param page    of each source to load, starting at 1
+     */
+    public NewsLoader(@NonNull Context context, List<NewsSource> sources, int page) {
+        this.context = context.getApplicationContext();
+        this.sources = sources;
+        this.page = page;
+    }
+
+    /**
+     * Return the page of search results this loader fetches.
      */
-    public NewsLoader(@NonNull Context context, String url) {
-        super(context);
-        Url = url;
+    public int getPage() {
+        return page;
     }
 
     /**
-     * This will take care of loading the data.
+     * Identifies what this loader fetches, so concurrent requests for the same
+     * sources and page can share one load.
      */
-    @Override
-    protected void onStartLoading() {
-        forceLoad();
+    public String getKey() {
+        List<String> names = new ArrayList<>(sources.size());
+        for (NewsSource source : sources) {
+            names.add(source.getName());
+        }
+        return TextUtils.join(",", names) + "#" + page;
     }
 
     /**
-     * This is on a background thread.
+     * This is on a background thread. Besides fetching and parsing, it also turns every
+     * article into a ready-to-bind {@link NewsRow}, so binding a row does no parsing or formatting.
+     * An interrupt stops partial results from being handed out; the result is then discarded.
      */
     @Nullable
-    @Override
-    public List<TechNews> loadInBackground() {
-        if (Url == null) {
+    @WorkerThread
+    public List<NewsRow> load(OnPartialResultListener listener) {
+        long loadStart = PipelineMetrics.start();
+        List<NewsRow> newsRows = loadRows(listener);
+        PipelineMetrics.record(PipelineMetrics.Stage.LOAD, loadStart, 0, newsRows == null ? 0 : newsRows.size());
+        if (page == 1 && newsRows != null && !newsRows.isEmpty() && !Thread.currentThread().isInterrupted()) {
+            writeSnapshot(newsRows);
+        }
+        return newsRows;
+    }
+
+    /**
+     * Return the file holding the snapshot of the first page last loaded.
+     */
+    public static File getSnapshotFile(Context context) {
+        return new File(context.getCacheDir(), NewsSnapshot.FILE_NAME);
+    }
+
+    /**
+     * Keep the first screen of what is about to be displayed, for the next cold start.
+     */
+    private void writeSnapshot(List<NewsRow> newsRows) {
+        try {
+            NewsSnapshot.write(getSnapshotFile(context), newsRows, context.getResources().getInteger(R.integer.page_size));
+        } catch (IOException e) {
+            Log.e(LOG_TAG, context.getString(R.string.snapshot_problem), e);
+        }
+    }
+
+    private List<NewsRow> loadRows(final OnPartialResultListener listener) {
+        if (sources == null || sources.isEmpty()) {
             return null;
         }
+        final NewsRowFormatter formatter = FeedConfig.GUARDIAN.newFormatter(
+                context.getString(R.string.displayed_date_format),
+                context.getString(R.string.displayed_time_format),
+                context.getString(R.string.no_author_found));
 
         /**
-         * Perform the network request, parse the response, and extract a list of news articles.
+         * Serve whatever is on disk first, so there is something to show right away
+         * and something left to show when there is no connectivity.
+         * Later pages are appended to what is already displayed, so they skip the store.
          */
-        List<TechNews> techNews = QueryUtils.fetchTechNewsData(Url, getContext());
-        return techNews;
+        NewsStore newsStore = NewsStore.getInstance(context);
+        final boolean firstPage = page == 1;
+        final List<TechNews> stored = firstPage
+                ? newsStore.getLatestArticles(STORED_ARTICLES_LIMIT) : new ArrayList<TechNews>();
+        final List<NewsRow> storedRows = formatter.format(stored);
+        if (!storedRows.isEmpty()) {
+            deliverPartialResult(listener, storedRows);
+        }
+        if (!QueryUtils.isNetworkAvailable(context)) {
+            return storedRows;
+        }
+
+        /**
+         * When the store already holds what every source returned last time, only the
+         * articles published since then are fetched and merged into the stored ones.
+         */
+        NewsSync newsSync = new NewsSync(context);
+        if (firstPage && !stored.isEmpty() && newsSync.hasNewestPublicationDates(sources)) {
+            return applyDelta(newsSync.syncDelta(sources), stored, storedRows, formatter);
+        }
+
+        /**
+         * Fetch all sources in parallel and parse the responses as they stream in. Partial batches
+         * are only handed to the UI for the first page of a single source and when there was nothing
+         * on disk: they would otherwise replace a longer stored list with a shorter one, or show
+         * several sources out of order until the merge.
+         */
+        final boolean deliverPartials = firstPage && stored.isEmpty() && sources.size() == 1;
+        final List<NewsRow> parsedRows = new ArrayList<>();
+        final GuardianJsonParser.OnArticleParsedListener parsedListener = new GuardianJsonParser.OnArticleParsedListener() {
+            @Override
+            public void onArticleParsed(TechNews techNews) {
+                /**
+                 * Sources parse on separate threads, and the formatter is not thread-safe.
+                 */
+                synchronized (parsedRows) {
+                    parsedRows.add(formatter.format(techNews));
+                    if (deliverPartials && parsedRows.size() % PARTIAL_BATCH_SIZE == 0) {
+                        deliverPartialResult(listener, new ArrayList<>(parsedRows));
+                    }
+                }
+            }
+        };
+        FeedAggregator.SourceFetch pageFetch = new FeedAggregator.SourceFetch() {
+            @Override
+            public List<TechNews> fetch(NewsSource source) throws Exception {
+                return source.fetch(page, parsedListener);
+            }
+        };
+
+        /**
+         * The first page tells the newest article of every source, which later syncs start from.
+         */
+        List<TechNews> techNews = FeedAggregator.getInstance().fetch(sources,
+                firstPage ? newsSync.recording(pageFetch) : pageFetch);
+
+        /**
+         * Reconcile with the network: a fresh response replaces the stored rows,
+         * a failed one falls back to what was on disk.
+         */
+        if (techNews == null || techNews.isEmpty()) {
+            return storedRows;
+        }
+        newsStore.saveArticles(techNews);
+
+        /**
+         * Rows were formatted while streaming and only need the merged order; articles reused
+         * from a 304 were not parsed again and still need formatting.
+         */
+        Map<TechNews, NewsRow> rowsByArticle = new IdentityHashMap<>();
+        synchronized (parsedRows) {
+            for (NewsRow newsRow : parsedRows) {
+                rowsByArticle.put(newsRow.getTechNews(), newsRow);
+            }
+        }
+        List<NewsRow> newsRows = new ArrayList<>(techNews.size());
+        for (TechNews article : techNews) {
+            NewsRow newsRow = rowsByArticle.get(article);
+            newsRows.add(newsRow != null ? newsRow : formatter.format(article));
+        }
+        return newsRows;
+    }
+
+    /**
+     * Merge a delta, already stored by {@link NewsSync}, into the stored articles shown so far.
+     * Only the new articles need formatting; a failed or empty delta leaves the stored rows as they are.
+     */
+    private static List<NewsRow> applyDelta(List<TechNews> delta, List<TechNews> stored,
+                                            List<NewsRow> storedRows, NewsRowFormatter formatter) {
+        if (delta == null || delta.isEmpty()) {
+            return storedRows;
+        }
+        Map<TechNews, NewsRow> rowsByArticle = new IdentityHashMap<>();
+        for (NewsRow newsRow : storedRows) {
+            rowsByArticle.put(newsRow.getTechNews(), newsRow);
+        }
+        List<TechNews> merged = FeedAggregator.mergeNewestFirst(Arrays.asList(delta, stored));
+        int size = Math.min(merged.size(), STORED_ARTICLES_LIMIT);
+        List<NewsRow> newsRows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TechNews article = merged.get(i);
+            NewsRow newsRow = rowsByArticle.get(article);
+            newsRows.add(newsRow != null ? newsRow : formatter.format(article));
+        }
+        return newsRows;
+    }
+
+    /**
+     * Hand a snapshot of the articles loaded so far to the listener,
+     * unless the load has been cancelled in the meantime.
+     */
+    private static void deliverPartialResult(OnPartialResultListener listener, List<NewsRow> partial) {
+        if (listener != null && !Thread.currentThread().isInterrupted()) {
+            listener.onPartialResult(partial);
+        }
     }
-}
\ No newline at end of file
+}
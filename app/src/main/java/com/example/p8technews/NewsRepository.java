@@ -0,0 +1,261 @@
+package com.example.p8technews;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.MainThread;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns fetching for {@link TechActivity}. It lives for the whole process, so it outlives
+ * configuration changes:
+ * <ul>
+ * <li>concurrent requests for the same {@link NewsLoader#getKey()} share one in-flight load,</li>
+ * <li>a {@link Call} can be detached (the load keeps running for the next activity) or
+ * cancelled (the load is interrupted once nobody else waits for it),</li>
+ * <li>the last result of every key is kept so a recreated activity can show it without refetching.</li>
+ * </ul>
+ * All public methods and callbacks run on the main thread.
+ */
+public class NewsRepository {
+    /**
+     * Number of loads running at the same time; the sources of a load are fetched
+     * in parallel by {@link FeedAggregator} on top of this.
+     */
+    private static final int MAX_PARALLEL_LOADS = 2;
+
+    /**
+     * Number of keys whose last result is kept.
+     */
+    private static final int MAX_CACHED_RESULTS = 10;
+
+    private static NewsRepository instance;
+
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, InFlight> inFlight = new HashMap<>();
+    private final Map<String, List<NewsRow>> lastResults = new LinkedHashMap<String, List<NewsRow>>(MAX_CACHED_RESULTS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<NewsRow>> eldest) {
+            return size() > MAX_CACHED_RESULTS;
+        }
+    };
+
+    /**
+     * Receives the outcome of a {@link Call} on the main thread.
+     */
+    public interface Callback {
+        /**
+         * A snapshot of what has been loaded so far; may be called several times.
+         */
+        void onPartialResult(List<NewsRow> newsRows);
+
+        /**
+         * The final result of the load, or null if it failed.
+         */
+        void onResult(List<NewsRow> newsRows);
+    }
+
+    public static synchronized NewsRepository getInstance() {
+        if (instance == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_PARALLEL_LOADS, MAX_PARALLEL_LOADS,
+                    30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+            executor.allowCoreThreadTimeOut(true);
+            instance = new NewsRepository(executor);
+        }
+        return instance;
+    }
+
+    NewsRepository(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Start a load, or join the one already in flight for the same key.
+     *
+     * @param useCached deliver the last result of the key right away instead of loading,
+     *                  e.g. when the activity is recreated after a configuration change
+     */
+    @MainThread
+    public Call load(final NewsLoader newsLoader, Callback callback, boolean useCached) {
+        final String key = newsLoader.getKey();
+        final Call call = new Call(callback);
+
+        if (useCached && lastResults.containsKey(key)) {
+            final List<NewsRow> cached = lastResults.get(key);
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (call.callback != null) {
+                        call.callback.onResult(cached);
+                    }
+                }
+            });
+            return call;
+        }
+
+        InFlight flight = inFlight.get(key);
+        if (flight == null) {
+            flight = start(key, newsLoader);
+        } else if (flight.latestPartial != null) {
+            final List<NewsRow> partial = flight.latestPartial;
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (call.callback != null) {
+                        call.callback.onPartialResult(partial);
+                    }
+                }
+            });
+        }
+        call.flight = flight;
+        flight.calls.add(call);
+        return call;
+    }
+
+    /**
+     * Return the last result loaded for the key, or null.
+     */
+    @MainThread
+    public List<NewsRow> getLastResult(String key) {
+        return lastResults.get(key);
+    }
+
+    private InFlight start(String key, final NewsLoader newsLoader) {
+        final InFlight flight = new InFlight(key);
+        inFlight.put(key, flight);
+        flight.future = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                List<NewsRow> loaded = null;
+                try {
+                    loaded = newsLoader.load(new NewsLoader.OnPartialResultListener() {
+                        @Override
+                        public void onPartialResult(final List<NewsRow> partial) {
+                            mainHandler.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    flight.deliverPartial(partial);
+                                }
+                            });
+                        }
+                    });
+                } finally {
+                    /**
+                     * A loader that throws still ends its flight, as a failed load, so the key
+                     * is not left in flight for every later call to join.
+                     */
+                    final List<NewsRow> result = loaded;
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            complete(flight, result);
+                        }
+                    });
+                }
+            }
+        });
+        return flight;
+    }
+
+    private void complete(InFlight flight, List<NewsRow> result) {
+        if (flight.cancelled) {
+            return;
+        }
+        if (inFlight.get(flight.key) == flight) {
+            inFlight.remove(flight.key);
+        }
+        if (result != null) {
+            lastResults.put(flight.key, result);
+        }
+        for (Call call : new ArrayList<>(flight.calls)) {
+            call.flight = null;
+            if (call.callback != null) {
+                call.callback.onResult(result);
+            }
+        }
+        flight.calls.clear();
+    }
+
+    /**
+     * One load in progress, shared by every {@link Call} asking for its key.
+     */
+    private class InFlight {
+        final String key;
+        final List<Call> calls = new ArrayList<>();
+        Future<?> future;
+        List<NewsRow> latestPartial;
+        boolean cancelled;
+
+        InFlight(String key) {
+            this.key = key;
+        }
+
+        void deliverPartial(List<NewsRow> partial) {
+            if (cancelled) {
+                return;
+            }
+            latestPartial = partial;
+            for (Call call : new ArrayList<>(calls)) {
+                if (call.callback != null) {
+                    call.callback.onPartialResult(partial);
+                }
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            future.cancel(true);
+            if (inFlight.get(key) == this) {
+                inFlight.remove(key);
+            }
+        }
+    }
+
+    /**
+     * A caller's handle on a load.
+     */
+    public class Call {
+        private Callback callback;
+        private InFlight flight;
+
+        Call(Callback callback) {
+            this.callback = callback;
+        }
+
+        /**
+         * Stop receiving callbacks but let the load finish, so its result is cached
+         * for whoever asks next. Used when the activity is recreated.
+         */
+        @MainThread
+        public void detach() {
+            callback = null;
+            if (flight != null) {
+                flight.calls.remove(this);
+                flight = null;
+            }
+        }
+
+        /**
+         * Stop receiving callbacks and interrupt the load if no other caller waits for it.
+         */
+        @MainThread
+        public void cancel() {
+            InFlight cancelledFlight = flight;
+            detach();
+            if (cancelledFlight != null && cancelledFlight.calls.isEmpty() && !cancelledFlight.cancelled) {
+                cancelledFlight.cancel();
+            }
+        }
+    }
+}
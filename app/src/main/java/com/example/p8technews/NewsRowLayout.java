@@ -0,0 +1,158 @@
+package com.example.p8technews;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * The list row, laid out in a single measure pass. A RelativeLayout measures its children
+ * twice, once per axis, and resolves their rules on every measure; this row's arrangement is
+ * fixed, so every child is measured exactly once and placed by plain arithmetic:
+ * <pre>
+ * [thumbnail] title, over the whole remaining width
+ *             section                 date  time
+ *                                        authors
+ * </pre>
+ * The start and end margins of the children are honoured, and the row is mirrored in
+ * right-to-left layouts, as the start and end rules of the former layout were.
+ */
+public class NewsRowLayout extends ViewGroup {
+    private View thumbnail;
+    private View title;
+    private View section;
+    private View date;
+    private View time;
+    private View authors;
+
+    public NewsRowLayout(Context context) {
+        super(context);
+    }
+
+    public NewsRowLayout(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    @Override
+    protected void onFinishInflate() {
+        super.onFinishInflate();
+        thumbnail = findViewById(R.id.thumbnail_imageView);
+        title = findViewById(R.id.title_textView);
+        section = findViewById(R.id.section_textView);
+        date = findViewById(R.id.date_textView);
+        time = findViewById(R.id.time_textView);
+        authors = findViewById(R.id.authors_textView);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int textWidth = width - getPaddingLeft() - getPaddingRight();
+
+        measureChildWithMargins(thumbnail, widthMeasureSpec, 0, heightMeasureSpec, 0);
+        textWidth -= widthWithMargins(thumbnail);
+
+        int textHeight = measureText(title, textWidth, true);
+        int timeWidth = measureText(time, textWidth, false) == 0 ? 0 : widthWithMargins(time);
+        int dateWidth = measureText(date, textWidth - timeWidth, false) == 0 ? 0 : widthWithMargins(date);
+        measureText(section, textWidth - timeWidth - dateWidth, false);
+        textHeight += Math.max(heightOf(section), Math.max(heightOf(date), heightOf(time)));
+        textHeight += measureText(authors, textWidth, false);
+
+        int height = Math.max(heightOf(thumbnail), textHeight) + getPaddingTop() + getPaddingBottom();
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    /**
+     * Measure a text child within the given width, either filling it or wrapping its content.
+     *
+     * @return its measured height, or 0 when it is gone
+     */
+    private static int measureText(View child, int availableWidth, boolean fill) {
+        if (child.getVisibility() == GONE) {
+            return 0;
+        }
+        MarginLayoutParams params = (MarginLayoutParams) child.getLayoutParams();
+        int width = Math.max(0, availableWidth - params.leftMargin - params.rightMargin);
+        child.measure(MeasureSpec.makeMeasureSpec(width, fill ? MeasureSpec.EXACTLY : MeasureSpec.AT_MOST),
+                MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED));
+        return child.getMeasuredHeight();
+    }
+
+    private static int widthWithMargins(View child) {
+        if (child.getVisibility() == GONE) {
+            return 0;
+        }
+        MarginLayoutParams params = (MarginLayoutParams) child.getLayoutParams();
+        return child.getMeasuredWidth() + params.leftMargin + params.rightMargin;
+    }
+
+    private static int heightOf(View child) {
+        return child.getVisibility() == GONE ? 0 : child.getMeasuredHeight();
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        int width = r - l;
+        int start = getPaddingLeft();
+        int end = width - getPaddingRight();
+        int top = getPaddingTop();
+
+        start = place(thumbnail, start, top, width) + ((MarginLayoutParams) thumbnail.getLayoutParams()).getMarginEnd();
+        int secondLine = top + heightOf(title);
+        place(title, start, top, width);
+        place(section, start, secondLine, width);
+
+        int timeStart = end - widthWithMargins(time);
+        place(time, timeStart, secondLine, width);
+        place(date, timeStart - widthWithMargins(date), secondLine, width);
+
+        int thirdLine = secondLine + Math.max(heightOf(section), Math.max(heightOf(date), heightOf(time)));
+        place(authors, end - widthWithMargins(authors), thirdLine, width);
+    }
+
+    /**
+     * Place a child with its start margin at the given left-to-right position, mirrored in
+     * right-to-left layouts.
+     *
+     * @return the right edge of the child, in left-to-right coordinates
+     */
+    private int place(View child, int left, int top, int width) {
+        if (child.getVisibility() == GONE) {
+            return left;
+        }
+        left += ((MarginLayoutParams) child.getLayoutParams()).getMarginStart();
+        int right = left + child.getMeasuredWidth();
+        if (getLayoutDirection() == LAYOUT_DIRECTION_RTL) {
+            child.layout(width - right, top, width - left, top + child.getMeasuredHeight());
+        } else {
+            child.layout(left, top, right, top + child.getMeasuredHeight());
+        }
+        return right;
+    }
+
+    @Override
+    public LayoutParams generateLayoutParams(AttributeSet attrs) {
+        return new MarginLayoutParams(getContext(), attrs);
+    }
+
+    @Override
+    protected LayoutParams generateDefaultLayoutParams() {
+        return new MarginLayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
+    }
+
+    @Override
+    protected LayoutParams generateLayoutParams(LayoutParams params) {
+        return new MarginLayoutParams(params);
+    }
+
+    @Override
+    protected boolean checkLayoutParams(LayoutParams params) {
+        return params instanceof MarginLayoutParams;
+    }
+
+    @Override
+    public boolean shouldDelayChildPressedState() {
+        return false;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.p8technews;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.p8technews.NewsContract.ArticleEntry;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent on-device store of {@link TechNews} rows, so a load can be served from disk
+ * first and still show something when there is no connectivity.
+ * All methods hit the database and must be called off the main thread.
+ */
+public class NewsStore {
+    private static final String LOG_TAG = NewsStore.class.getSimpleName();
+
+    /**
+     * Retention policy: rows older than MAX_AGE_MILLIS are dropped, and only the newest
+     * MAX_ARTICLES are kept (LOW_STORAGE_MAX_ARTICLES when the device is running out of space).
+     */
+    private static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(7);
+    private static final int MAX_ARTICLES = 500;
+    private static final int LOW_STORAGE_MAX_ARTICLES = 100;
+    private static final long LOW_STORAGE_THRESHOLD_BYTES = 50L * 1024 * 1024;
+
+    private static final String[] PROJECTION = {
+            ArticleEntry.COLUMN_TITLE,
+            ArticleEntry.COLUMN_SECTION,
+            ArticleEntry.COLUMN_PUBLICATION_DATE,
+            ArticleEntry.COLUMN_WEB_URL,
+            ArticleEntry.COLUMN_THUMBNAIL,
+            ArticleEntry.COLUMN_AUTHORS
+    };
+
+    private static NewsStore instance;
+
+    private final Context context;
+    private final NewsDbHelper dbHelper;
+
+    private NewsStore(Context context) {
+        this.context = context;
+        this.dbHelper = new NewsDbHelper(context);
+    }
+
+    /**
+     * Return the process-wide store, bound to the application context.
+     */
+    public static synchronized NewsStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new NewsStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Return the newest stored articles across all sections.
+     */
+    @WorkerThread
+    public List<TechNews> getLatestArticles(int limit) {
+        return queryArticles(null, null, limit);
+    }
+
+    /**
+     * Return the newest stored articles of a single section, served by the section index.
+     */
+    @WorkerThread
+    public List<TechNews> getLatestArticles(String section, int limit) {
+        return queryArticles(ArticleEntry.COLUMN_SECTION + " = ?", new String[]{section}, limit);
+    }
+
+    private List<TechNews> queryArticles(String selection, String[] selectionArgs, int limit) {
+        long readStart = PipelineMetrics.start();
+        List<TechNews> techNews = new ArrayList<>();
+        Cursor cursor = null;
+        try {
+            SQLiteDatabase db = dbHelper.getReadableDatabase();
+            cursor = db.query(ArticleEntry.TABLE_NAME, PROJECTION, selection, selectionArgs,
+                    null, null, ArticleEntry.COLUMN_PUBLICATION_DATE + " DESC", String.valueOf(limit));
+            while (cursor.moveToNext()) {
+                String authors = cursor.getString(5);
+                techNews.add(new TechNews(
+                        cursor.getString(0),
+                        cursor.getString(1),
+                        cursor.getString(2),
+                        cursor.getString(3),
+                        cursor.getString(4),
+                        authors == null ? null : Arrays.asList(TextUtils.split(authors, ArticleEntry.AUTHORS_SEPARATOR))));
+            }
+        } catch (SQLiteException e) {
+            Log.e(LOG_TAG, context.getString(R.string.database_problem), e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        PipelineMetrics.record(PipelineMetrics.Stage.STORE_READ, readStart, 0, techNews.size());
+        return techNews;
+    }
+
+    /**
+     * Insert or refresh the given articles in one transaction, then apply the retention policy.
+     */
+    @WorkerThread
+    public void saveArticles(List<TechNews> techNewsList) {
+        if (techNewsList == null || techNewsList.isEmpty()) {
+            return;
+        }
+        long writeStart = PipelineMetrics.start();
+        long now = System.currentTimeMillis();
+        try {
+            SQLiteDatabase db = dbHelper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                ContentValues values = new ContentValues();
+                for (TechNews techNews : techNewsList) {
+                    if (techNews.getWebUrl() == null) {
+                        continue;
+                    }
+                    values.clear();
+                    values.put(ArticleEntry.COLUMN_WEB_URL, techNews.getWebUrl());
+                    values.put(ArticleEntry.COLUMN_TITLE, techNews.getTitle());
+                    values.put(ArticleEntry.COLUMN_SECTION, techNews.getNewsSection());
+                    values.put(ArticleEntry.COLUMN_PUBLICATION_DATE, techNews.getContentDateAndTime());
+                    values.put(ArticleEntry.COLUMN_THUMBNAIL, techNews.getThumbnail());
+                    values.put(ArticleEntry.COLUMN_AUTHORS, techNews.getAuthors() == null
+                            ? null : TextUtils.join(ArticleEntry.AUTHORS_SEPARATOR, techNews.getAuthors()));
+                    values.put(ArticleEntry.COLUMN_FETCHED_AT, now);
+                    db.insertWithOnConflict(ArticleEntry.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            applyRetentionPolicy(db, now);
+        } catch (SQLiteException e) {
+            Log.e(LOG_TAG, context.getString(R.string.database_problem), e);
+        }
+        PipelineMetrics.record(PipelineMetrics.Stage.STORE_WRITE, writeStart, 0, techNewsList.size());
+    }
+
+    /**
+     * Keep the store bounded: drop rows fetched too long ago, then everything
+     * past the newest maxArticles by publication date.
+     */
+    private void applyRetentionPolicy(SQLiteDatabase db, long now) {
+        db.delete(ArticleEntry.TABLE_NAME, ArticleEntry.COLUMN_FETCHED_AT + " < ?",
+                new String[]{String.valueOf(now - MAX_AGE_MILLIS)});
+
+        int maxArticles = isLowOnStorage() ? LOW_STORAGE_MAX_ARTICLES : MAX_ARTICLES;
+        db.delete(ArticleEntry.TABLE_NAME, ArticleEntry.COLUMN_WEB_URL + " NOT IN (SELECT "
+                        + ArticleEntry.COLUMN_WEB_URL + " FROM " + ArticleEntry.TABLE_NAME
+                        + " ORDER BY " + ArticleEntry.COLUMN_PUBLICATION_DATE + " DESC LIMIT ?)",
+                new String[]{String.valueOf(maxArticles)});
+    }
+
+    private boolean isLowOnStorage() {
+        File databaseDir = context.getDatabasePath(dbHelper.getDatabaseName()).getParentFile();
+        return databaseDir != null && databaseDir.getUsableSpace() < LOW_STORAGE_THRESHOLD_BYTES;
+    }
+}
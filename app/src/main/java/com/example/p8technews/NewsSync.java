@@ -0,0 +1,110 @@
+package com.example.p8technews;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.util.List;
+
+/**
+ * Incremental sync of the article store. For every source it remembers the publication date
+ * of the newest article seen so far, so later syncs only ask the source for newer articles
+ * and apply a small delta instead of downloading and parsing a full page again.
+ */
+public class NewsSync {
+    private static final String PREFERENCES_NAME = "news_sync";
+    private static final String KEY_NEWEST_PREFIX = "newest_publication_date_";
+
+    /**
+     * Guards the read-compare-write of a watermark, which the sync job and a foreground
+     * load may do at the same time.
+     */
+    private static final Object WATERMARK_LOCK = new Object();
+
+    private final Context context;
+    private final SharedPreferences preferences;
+
+    public NewsSync(Context context) {
+        this.context = context.getApplicationContext();
+        this.preferences = this.context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Return the publication date of the newest article seen from the source,
+     * or null when it has never been fetched.
+     */
+    @Nullable
+    public String getNewestPublicationDate(NewsSource source) {
+        return preferences.getString(KEY_NEWEST_PREFIX + source.getName(), null);
+    }
+
+    /**
+     * Whether every source has been fetched before, so a delta is all that is missing.
+     */
+    public boolean hasNewestPublicationDates(List<NewsSource> sources) {
+        for (NewsSource source : sources) {
+            if (getNewestPublicationDate(source) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Wrap a fetch so the newest article of every source is remembered as soon as it answers.
+     */
+    public FeedAggregator.SourceFetch recording(final FeedAggregator.SourceFetch sourceFetch) {
+        return new FeedAggregator.SourceFetch() {
+            @Override
+            public List<TechNews> fetch(NewsSource source) throws Exception {
+                List<TechNews> techNews = sourceFetch.fetch(source);
+                if (techNews != null && !techNews.isEmpty()) {
+                    recordNewestPublicationDate(source, techNews.get(0).getContentDateAndTime());
+                }
+                return techNews;
+            }
+        };
+    }
+
+    /**
+     * Fetch every source in parallel, only asking for the articles newer than the last ones seen
+     * (a source never fetched before gets its first page), then store the merged delta.
+     *
+     * @return the new articles newest first without duplicates, possibly none,
+     * or null when no source answered
+     */
+    @Nullable
+    @WorkerThread
+    public List<TechNews> syncDelta(List<NewsSource> sources) {
+        List<TechNews> delta = FeedAggregator.getInstance().fetch(sources, recording(new FeedAggregator.SourceFetch() {
+            @Override
+            public List<TechNews> fetch(NewsSource source) throws Exception {
+                String newestPublicationDate = getNewestPublicationDate(source);
+                return newestPublicationDate == null
+                        ? source.fetch(1, null) : source.fetchNewerThan(newestPublicationDate);
+            }
+        }));
+        if (delta != null) {
+            NewsStore.getInstance(context).saveArticles(delta);
+        }
+        return delta;
+    }
+
+    /**
+     * Move the source's watermark forward; an older date never moves it back.
+     * The Guardian's ISO-8601 UTC timestamps order correctly as plain strings.
+     */
+    private void recordNewestPublicationDate(NewsSource source, String publicationDate) {
+        if (publicationDate == null) {
+            return;
+        }
+        synchronized (WATERMARK_LOCK) {
+            String newest = getNewestPublicationDate(source);
+            if (newest == null || publicationDate.compareTo(newest) > 0) {
+                preferences.edit().putString(KEY_NEWEST_PREFIX + source.getName(), publicationDate).apply();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.p8technews;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodic background sync of the configured sections on unmetered networks. Every run only
+ * fetches the delta since the last one into {@link NewsStore}, so opening the app mostly finds
+ * the newest articles on disk already.
+ */
+public class NewsSyncJobService extends JobService {
+    private static final int JOB_ID = 1;
+    private static final long SYNC_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private Future<?> sync;
+
+    /**
+     * Schedule the periodic sync, unless it is already scheduled.
+     */
+    public static void schedule(Context context) {
+        JobScheduler jobScheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (jobScheduler == null) {
+            return;
+        }
+        for (JobInfo jobInfo : jobScheduler.getAllPendingJobs()) {
+            if (jobInfo.getId() == JOB_ID) {
+                return;
+            }
+        }
+        JobInfo jobInfo = new JobInfo.Builder(JOB_ID, new ComponentName(context, NewsSyncJobService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_UNMETERED)
+                .setPeriodic(SYNC_INTERVAL_MILLIS)
+                .build();
+        jobScheduler.schedule(jobInfo);
+    }
+
+    @Override
+    public boolean onStartJob(final JobParameters params) {
+        final Context context = getApplicationContext();
+        sync = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                List<NewsSource> sources = GuardianSectionSource.createConfiguredSources(
+                        context, GuardianSectionSource.getRequestUrl(context), NetworkScheduler.Priority.BACKGROUND);
+                List<TechNews> delta = new NewsSync(context).syncDelta(sources);
+                if (!Thread.currentThread().isInterrupted()) {
+                    jobFinished(params, delta == null);
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * The network went metered or away: interrupt the sync and have it run again later.
+     */
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        if (sync != null) {
+            sync.cancel(true);
+        }
+        return true;
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        executor.shutdownNow();
+    }
+}
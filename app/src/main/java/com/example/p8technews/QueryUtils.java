@@ -1,27 +1,54 @@
 package com.example.p8technews;
 
 import android.content.Context;
-import android.text.TextUtils;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
 import android.util.Log;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class QueryUtils {
     private static final String LOG_TAG = QueryUtils.class.getSimpleName();
 
+    /**
+     * JSON keys and charset of the Guardian search response, resolved once
+     * instead of looked up from resources on every parse.
+     */
+    private static final FeedConfig FEED_CONFIG = FeedConfig.GUARDIAN;
+
+    /**
+     * Revalidates stale entries of the {@link ParsedListCache}, one at a time.
+     */
+    private static final ExecutorService REVALIDATION_EXECUTOR = createRevalidationExecutor();
+
+    private static ExecutorService createRevalidationExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Return whether there is a network connection to fetch data over.
+     */
+    public static boolean isNetworkAvailable(Context context) {
+        ConnectivityManager connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo networkInfo = connectivityManager == null ? null : connectivityManager.getActiveNetworkInfo();
+        return networkInfo != null && networkInfo.isConnected();
+    }
+
     /**
      * Returns new URL object from the given string URL.
      */
@@ -36,219 +63,265 @@ public class QueryUtils {
     }
 
     /**
-     * Make an HTTP request to the given URL and return a String as the response.
+     * Send a GET request to the given URL through the shared {@link HttpTransport}. When validators
+     * of an earlier response are known, the request is sent as a conditional request.
      */
-    private static String makeHttpRequest(URL url, Context context) throws IOException {
-        /**
-         * Creating String resource ID for JSON response.
-         */
-        String jsonResponse = "";
-
-        /**
-         * If the URL is null, then return early.
-         */
-        if (url == null) {
-            return jsonResponse;
+    private static HttpTransport.Response openConnection(URL url, ConditionalRequestCache.Entry cached,
+                                                         NetworkScheduler.Ticket ticket) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        if (cached != null) {
+            if (cached.getETag() != null) {
+                headers.put("If-None-Match", cached.getETag());
+            }
+            if (cached.getLastModified() != null) {
+                headers.put("If-Modified-Since", cached.getLastModified());
+            }
         }
-
-        /**
-         * Setting up our connection request.
-         */
-        HttpURLConnection urlConnection = null;
-        InputStream inputStream = null;
+        long connectStart = PipelineMetrics.start();
         try {
-            urlConnection = (HttpURLConnection) url.openConnection();
-            urlConnection.setReadTimeout(10000);
-            urlConnection.setConnectTimeout(15000);
-            urlConnection.setRequestMethod(context.getString(R.string.request_method));
-            urlConnection.connect();
-
-            /**
-             * If the request was successful (response code 200),
-             * then read the input stream and parse the response.
-             */
-            if (urlConnection.getResponseCode() == 200) {
-                inputStream = urlConnection.getInputStream();
-                jsonResponse = readFromStream(inputStream, context);
-            } else {
-                Log.e(LOG_TAG, context.getString(R.string.error_message) + urlConnection.getResponseCode());
-            }
+            HttpTransport.Response response = HttpTransport.getInstance().get(url, headers, ticket);
+            PipelineMetrics.record(PipelineMetrics.Stage.CONNECT, connectStart, 0, 0);
+            return response;
         } catch (IOException e) {
-            Log.e(LOG_TAG, context.getString(R.string.jsonResult_exception), e);
-        } finally {
-            if (urlConnection != null) {
-                urlConnection.disconnect();
-            }
+            PipelineMetrics.record(PipelineMetrics.Stage.CONNECT_FAILED, connectStart, 0, 0);
+            throw e;
+        }
+    }
 
-            /**
-             * Closing the input stream could throw an IOException, as the method signature specifies it.
-             */
-            if (inputStream != null) {
-                inputStream.close();
+    /**
+     * Query the Guardian dataset in streaming mode, served from the {@link ParsedListCache} when
+     * the URL was parsed recently. A fresh list is returned as it is. A stale one is returned as
+     * well, while it is fetched again in the background; the cache's listeners are told if that
+     * changes it. The listener is only notified of articles parsed from the network.
+     *
+     * @param priority of the request in the {@link NetworkScheduler}
+     */
+    public static List<TechNews> fetchTechNewsData(String requestUrl, Context context, NetworkScheduler.Priority priority,
+                                                   GuardianJsonParser.OnArticleParsedListener listener) {
+        ParsedListCache parsedListCache = ParsedListCache.getInstance();
+        ParsedListCache.Entry entry = parsedListCache.get(requestUrl);
+        if (entry != null) {
+            if (!entry.isFresh() && parsedListCache.startRevalidation(requestUrl)) {
+                revalidate(requestUrl, context.getApplicationContext());
             }
+            return entry.getTechNews();
+        }
+        FetchedList fetched = fetchFromNetwork(requestUrl, context, priority, listener);
+        /**
+         * A list served from the conditional cache after the fetch failed is not fresh, and one
+         * cut short by a malformed response is not complete, so neither is cached as such: the
+         * next request tries the network again.
+         */
+        if (fetched.cacheable) {
+            parsedListCache.put(requestUrl, fetched.techNews);
         }
-        return jsonResponse;
+        return fetched.techNews;
     }
 
     /**
-     * Convert the {@link InputStream} into a String which contains the
-     * whole JSON response from the server.
+     * Fetch a stale URL again on the revalidation thread and hand the result to the cache.
+     * Its stale list is shown meanwhile, so nobody waits for it.
      */
-    private static String readFromStream(InputStream inputStream, Context context) throws IOException {
-        StringBuilder output = new StringBuilder();
-        if (inputStream != null) {
-            InputStreamReader inputStreamReader = new InputStreamReader(inputStream, Charset.forName(context.getString(R.string.unicode_format)));
-            BufferedReader bufferedReader = new BufferedReader(inputStreamReader);
-            String line = bufferedReader.readLine();
-            while (line != null) {
-                output.append(line);
-                line = bufferedReader.readLine();
+    private static void revalidate(final String requestUrl, final Context context) {
+        REVALIDATION_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                FetchedList fetched = fetchFromNetwork(requestUrl, context, NetworkScheduler.Priority.BACKGROUND, null);
+                ParsedListCache.getInstance().finishRevalidation(requestUrl, fetched.cacheable ? fetched.techNews : null);
             }
-        }
-        return output.toString();
+        });
     }
 
     /**
-     * Return a list of {@link TechNews} objects that has been built up
-     * from parsing the given JSON response.
+     * Fetch and parse the URL in streaming mode. The response body is never held as a String
+     * and no JSON DOM is built: each {@link TechNews} is handed to the listener as soon as its
+     * object closes, and the complete list is returned once the last byte has been read.
+     * <p>
+     * The request goes through {@link ResilientFetcher}, so it may be hedged or retried; when
+     * the host's circuit is open or every attempt failed, the last list parsed from this URL is
+     * returned instead, if there is one. Every attempt waits for its own slot of the
+     * {@link NetworkScheduler}, and one that is preempted is sent again under the same number.
      */
-    private static List<TechNews> extractArticleFromJson(String techNewsJSON, Context context) {
-        /**
-         * If JSON string is empty or null, then return early.
-         */
-        if (TextUtils.isEmpty(techNewsJSON)) {
-            return null;
+    private static FetchedList fetchFromNetwork(final String requestUrl, final Context context,
+                                                   final NetworkScheduler.Priority priority,
+                                                   GuardianJsonParser.OnArticleParsedListener listener) {
+        final URL url = createUrl(requestUrl, context);
+        if (url == null) {
+            return new FetchedList(null, false);
         }
 
-        /**
-         * Create an empty ArrayList that we can start adding news to.
-         */
-        List<TechNews> techNews = new ArrayList<>();
+        final ConditionalRequestCache.Entry cached = ConditionalRequestCache.getInstance().get(requestUrl);
+        final ListenerClaim listenerClaim = listener == null ? null : new ListenerClaim(listener);
+        FetchedList fetched = ResilientFetcher.getInstance().execute(url.getHost(),
+                new ResilientFetcher.Attempt<FetchedList>() {
+                    @Override
+                    public FetchedList run(int attemptNumber) throws IOException {
+                        final GuardianJsonParser.OnArticleParsedListener attemptListener =
+                                listenerClaim == null ? null : listenerClaim.forAttempt(attemptNumber);
+                        try {
+                            return NetworkScheduler.getInstance().execute(url.getHost(), priority,
+                                    new NetworkScheduler.Fetch<FetchedList>() {
+                                        @Override
+                                        public FetchedList run(NetworkScheduler.Ticket ticket) throws IOException {
+                                            return fetchOnce(url, requestUrl, context, cached, attemptListener, ticket);
+                                        }
+                                    });
+                        } catch (IOException e) {
+                            Log.e(LOG_TAG, context.getString(R.string.jsonResult_exception), e);
+                            throw e;
+                        }
+                    }
+                },
+                new ResilientFetcher.Fallback<FetchedList>() {
+                    @Override
+                    public FetchedList get() {
+                        Log.e(LOG_TAG, context.getString(R.string.request_problem));
+                        return new FetchedList(cached == null ? null : cached.getTechNews(), false);
+                    }
+                });
+        if (listenerClaim != null) {
+            listenerClaim.close();
+        }
+        return fetched;
+    }
 
-        /**
-         * Try to parse the JSON response string. If there's a problem with the way the JSON
-         * is formatted, a JSONException exception object will be thrown.
-         * Catch the exception so the app doesn't crash, and print the error message to the logs.
-         */
+    /**
+     * A list and whether it may be cached as the current one: it came from the network, either
+     * parsed in full or confirmed by a 304, rather than from the conditional cache because the
+     * fetch failed, or cut short by a malformed response.
+     */
+    private static class FetchedList {
+        final List<TechNews> techNews;
+        final boolean cacheable;
+
+        FetchedList(List<TechNews> techNews, boolean cacheable) {
+            this.techNews = techNews;
+            this.cacheable = cacheable;
+        }
+    }
+
+    /**
+     * A single streaming request. Responses other than 200, or 304 with a cached list,
+     * are thrown as {@link HttpStatusException} so the caller can tell whether to retry.
+     * A list cut short by a malformed response is returned, but neither it nor the response's
+     * validators are cached: a 304 would serve it as complete.
+     */
+    private static FetchedList fetchOnce(URL url, String requestUrl, Context context, ConditionalRequestCache.Entry cached,
+                                            GuardianJsonParser.OnArticleParsedListener listener,
+                                            NetworkScheduler.Ticket ticket) throws IOException {
+        ConditionalRequestCache conditionalCache = ConditionalRequestCache.getInstance();
+        HttpTransport.Response response = null;
         try {
-            /**
-             * Create a JSONObject from the JSON string.
-             */
-            JSONObject baseJsonResponse = new JSONObject(techNewsJSON);
-            /**
-             * Extract the JSONObject associated with the key called "response".
-             */
-            JSONObject responseJSONObject = baseJsonResponse.getJSONObject(context.getString(R.string.object_response));
+            response = openConnection(url, cached, ticket);
 
             /**
-             * Extract the JSONArray associated with the key called "results",
-             * which represents a list of news articles.
+             * On a 304 the previously parsed list is still current: no body read, no parse.
              */
-            JSONArray techNewsArray = responseJSONObject.getJSONArray(context.getString(R.string.array_results));
+            int responseCode = response.getResponseCode();
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                conditionalCache.recordHit(cached);
+                return new FetchedList(cached.getTechNews(), true);
+            } else if (responseCode != HttpURLConnection.HTTP_OK) {
+                throw new HttpStatusException(responseCode, context.getString(R.string.error_message) + responseCode);
+            }
+            long parseStart = PipelineMetrics.start();
+            List<TechNews> techNews = new ArrayList<>();
+            boolean complete = extractArticlesFromStream(response.getBody(), context, listener, techNews);
+            PipelineMetrics.record(PipelineMetrics.Stage.PARSE, parseStart, response.getWireBytes(), techNews.size());
+            conditionalCache.recordMiss();
+            if (complete) {
+                conditionalCache.put(requestUrl, response.getHeaderField("ETag"),
+                        response.getHeaderField("Last-Modified"), response.getContentLength(), techNews);
+            }
+            return new FetchedList(techNews, complete);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
 
-            /**
-             * For each article in the techNewsArray, crate an {@link TechNews} object.
-             */
-            for (int i = 0; i < techNewsArray.length(); i++) {
-                /**
-                 * Get a single news article at position i within the list of techNews.
-                 */
-                JSONObject currentTechNews = techNewsArray.getJSONObject(i);
-
-                /**
-                 * Extract the value of the key called "title".
-                 */
-                String title = currentTechNews.getString(context.getString(R.string.title_string));
-
-                /**
-                 * Extract the value of the key called "section".
-                 */
-                String section = currentTechNews.getString(context.getString(R.string.section_name));
-
-                /**
-                 * Extract the value of the key called "webPublicationDate".
-                 */
-                String publicationDateAndTime = currentTechNews.getString(context.getString(R.string.publication_dateAndTime));
-
-                /**
-                 * Extract the value of the key called "webUrl".
-                 */
-                String webUrl = currentTechNews.getString(context.getString(R.string.url_web));
-
-                /**
-                 * Create a JSONObject from the currentTechNews.
-                 */
-                JSONObject fieldsJSONObject = currentTechNews.getJSONObject(context.getString(R.string.object_fields));
-
-                /**
-                 * Extract the value of the key called "thumbnail".
-                 */
-                String thumbnail = fieldsJSONObject.getString(context.getString(R.string.thumbnail_key));
-
-                /**
-                 * Create an ArrayList from the currentTechNews.
-                 */
-                ArrayList<String> authors = new ArrayList<>();
-
-                /**
-                 * Extract the JSONArray associated with the key called "tags",
-                 * which represents a list of authors.
-                 */
-                if (currentTechNews.has(context.getString(R.string.array_tags))) {
-                    JSONArray tagsArray = currentTechNews.getJSONArray(context.getString(R.string.array_tags));
-                    if (tagsArray == null || tagsArray.length() == 0) {
-                        authors = null;
-                    } else {
-                        for (int j = 0; j < tagsArray.length(); j++) {
-                            JSONObject currentObjectInTags = tagsArray.getJSONObject(j);
-                            authors.add(currentObjectInTags.getString(context.getString(R.string.title_string)));
-                        }
+    /**
+     * Fetch the plain-text body of one article for the reader. Bodies are requested one article
+     * at a time, only for reader mode, so search pages stay as small as before.
+     *
+     * @param priority of the request in the {@link NetworkScheduler}
+     * @return the body, or null if the article has none
+     */
+    public static String fetchArticleBody(String requestUrl, final Context context,
+                                          NetworkScheduler.Priority priority) throws IOException {
+        final URL url = new URL(requestUrl);
+        return NetworkScheduler.getInstance().execute(url.getHost(), priority, new NetworkScheduler.Fetch<String>() {
+            @Override
+            public String run(NetworkScheduler.Ticket ticket) throws IOException {
+                HttpTransport.Response response = HttpTransport.getInstance().get(url, null, ticket);
+                try {
+                    int responseCode = response.getResponseCode();
+                    if (responseCode != HttpURLConnection.HTTP_OK) {
+                        throw new HttpStatusException(responseCode, context.getString(R.string.error_message) + responseCode);
                     }
-                } else {
-                    authors = null;
+                    return FEED_CONFIG.newParser().parseBodyText(response.getBody(), FEED_CONFIG.getCharset());
+                } finally {
+                    response.close();
                 }
-                /**
-                 * Create and add a new {@link TechNews} object to the list of techNews.
-                 */
-                techNews.add(new TechNews(title, section, publicationDateAndTime, webUrl, thumbnail, authors));
             }
-
-            /**
-             * Handling the JSONException to prevent app from crashing.
-             */
-        } catch (JSONException e) {
-            Log.e(LOG_TAG, context.getString(R.string.parsing_JSON_problem), e);
-        }
-        return techNews;
+        });
     }
 
     /**
-     * Query the Guardian dataset and return a list of {@link TechNews} objects.
+     * Hands the articles of only one attempt to the listener: hedged attempts parse the same
+     * response at the same time, and the first one to produce an article owns the listener.
+     * Should another attempt win, its articles are returned without having been streamed.
      */
-    public static List<TechNews> fetchTechNewsData(String requestUrl, Context context) {
-        /**
-         * Create URL object.
-         */
-        URL url = createUrl(requestUrl, context);
+    private static class ListenerClaim {
+        private static final int UNCLAIMED = -1;
+        private static final int CLOSED = -2;
 
-        /**
-         * Perform HTTP request to the UTL and receive JASON response back.
-         */
-        String jsonResponse = null;
-        try {
-            jsonResponse = makeHttpRequest(url, context);
-        } catch (IOException e) {
-            Log.e(LOG_TAG, context.getString(R.string.request_problem), e);
+        private final GuardianJsonParser.OnArticleParsedListener listener;
+        private final AtomicInteger owner = new AtomicInteger(UNCLAIMED);
+
+        ListenerClaim(GuardianJsonParser.OnArticleParsedListener listener) {
+            this.listener = listener;
         }
 
-        /**
-         * Extract relevant fields from the JSON response and create a list of {@link TechNews}.
-         */
-        List<TechNews> techNews = extractArticleFromJson(jsonResponse, context);
+        GuardianJsonParser.OnArticleParsedListener forAttempt(final int attemptNumber) {
+            return new GuardianJsonParser.OnArticleParsedListener() {
+                @Override
+                public void onArticleParsed(TechNews techNews) {
+                    if (owner.compareAndSet(UNCLAIMED, attemptNumber) || owner.get() == attemptNumber) {
+                        listener.onArticleParsed(techNews);
+                    }
+                }
+            };
+        }
 
         /**
-         * Return the list of {@link TechNews}.
+         * Drop whatever a cancelled attempt still parses once the request has returned.
          */
-        return techNews;
+        void close() {
+            owner.set(CLOSED);
+        }
+    }
+
+    /**
+     * Pull the "response.results" array token by token and add one {@link TechNews} per
+     * element to the list.
+     *
+     * @return whether the whole response was parsed; if not, the list holds the articles
+     * parsed before the malformed token
+     */
+    private static boolean extractArticlesFromStream(InputStream inputStream, Context context,
+                                                     GuardianJsonParser.OnArticleParsedListener listener,
+                                                     List<TechNews> techNews) throws IOException {
+        try {
+            FEED_CONFIG.newParser().parseStream(inputStream, FEED_CONFIG.getCharset(), techNews, listener);
+            return true;
+        } catch (IllegalStateException | NumberFormatException e) {
+            /**
+             * JsonReader reports unexpected tokens as IllegalStateException.
+             */
+            Log.e(LOG_TAG, context.getString(R.string.parsing_JSON_problem), e);
+            return false;
+        }
     }
-}
\ No newline at end of file
+}
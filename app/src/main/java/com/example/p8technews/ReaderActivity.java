@@ -0,0 +1,80 @@
+package com.example.p8technews;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Bundle;
+import android.text.TextUtils;
+import android.view.View;
+import android.widget.Button;
+import android.widget.TextView;
+
+import java.util.List;
+
+/**
+ * Reader mode: shows an article's title, authors and plain-text body in the app. The body comes
+ * from {@link ArticleBodies}, which usually has it on disk already, so it opens in milliseconds
+ * and also offline; otherwise it is downloaded ahead of every prefetch. The article can always
+ * be opened in the browser instead.
+ */
+public class ReaderActivity extends AppCompatActivity {
+    private TextView bodyTextView;
+    private View loadingBar;
+    private String webUrl;
+    private long openStart;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        openStart = PipelineMetrics.start();
+        setContentView(R.layout.activity_reader);
+
+        Intent intent = getIntent();
+        webUrl = intent.getStringExtra(Adapter.EXTRA_URL);
+        TextView titleTextView = findViewById(R.id.reader_title_textView);
+        titleTextView.setText(intent.getStringExtra(Adapter.EXTRA_TITLE));
+        TextView bylineTextView = findViewById(R.id.reader_byline_textView);
+        List<String> authors = intent.getStringArrayListExtra(Adapter.EXTRA_AUTHORS);
+        if (authors == null || authors.isEmpty()) {
+            bylineTextView.setText(R.string.no_author_found);
+        } else {
+            bylineTextView.setText(TextUtils.join(", ", authors));
+        }
+        bodyTextView = findViewById(R.id.reader_body_textView);
+        loadingBar = findViewById(R.id.reader_loading_bar);
+
+        Button browserButton = findViewById(R.id.reader_browser_button);
+        browserButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                if (webUrl != null) {
+                    startActivity(new Intent(Intent.ACTION_VIEW, Uri.parse(webUrl)));
+                }
+            }
+        });
+
+        if (webUrl == null) {
+            showBody(null);
+            return;
+        }
+        ArticleBodies.getInstance(this).open(webUrl, new ArticleBodies.OnBodyLoadedListener() {
+            @Override
+            public void onBodyLoaded(String bodyText) {
+                if (!isFinishing()) {
+                    showBody(bodyText);
+                }
+            }
+        });
+    }
+
+    private void showBody(String bodyText) {
+        loadingBar.setVisibility(View.GONE);
+        if (TextUtils.isEmpty(bodyText)) {
+            bodyTextView.setText(R.string.article_body_unavailable);
+        } else {
+            bodyTextView.setText(bodyText);
+            PipelineMetrics.record(PipelineMetrics.Stage.BODY_OPEN, openStart, 0, 1);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.p8technews;
+
+import android.util.LruCache;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text layouts of the rows' titles and authors, measured on a background thread.
+ * <p>
+ * Measuring text, i.e. shaping it and finding its line breaks, is most of a row's bind and
+ * measure cost. The layouts are computed ahead with {@link PrecomputedTextCompat} for the text
+ * parameters of the row's text views, as soon as a row is about to scroll into view, and the
+ * text view takes the finished layout at measure time instead of measuring on the main thread.
+ * A layout that is not finished by then is waited for, which is never slower than measuring
+ * it in place. Used on the main thread only.
+ */
+public class RowTextLayouts {
+    /**
+     * Layouts kept per text view kind: a few screens of rows.
+     */
+    private static final int MAX_LAYOUTS = 64;
+
+    private final ExecutorService executor = createExecutor();
+    private final LruCache<String, Future<PrecomputedTextCompat>> titleLayouts = new LruCache<>(MAX_LAYOUTS);
+    private final LruCache<String, Future<PrecomputedTextCompat>> authorsLayouts = new LruCache<>(MAX_LAYOUTS);
+
+    /**
+     * Paint, break strategy, hyphenation and text direction of the text views, or null until
+     * the first row was created. A layout only fits a text view with the same parameters.
+     */
+    private PrecomputedTextCompat.Params titleParams;
+    private PrecomputedTextCompat.Params authorsParams;
+
+    private static ExecutorService createExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Take the text parameters of a newly created row. Layouts computed for other parameters,
+     * e.g. before a font size change, are dropped.
+     * <p>
+     * The row is not attached yet, so a text direction inherited from the layout direction is
+     * not resolved, and would change on attach in a right-to-left locale; from API 29 on, the
+     * text view then refuses the layouts. The text direction is pinned instead: the Guardian's
+     * articles are in English, so it follows the text, left to right by default.
+     */
+    public void setTextViews(TextView titleTextView, TextView authorsTextView) {
+        titleTextView.setTextDirection(View.TEXT_DIRECTION_FIRST_STRONG_LTR);
+        authorsTextView.setTextDirection(View.TEXT_DIRECTION_FIRST_STRONG_LTR);
+        PrecomputedTextCompat.Params title = TextViewCompat.getTextMetricsParams(titleTextView);
+        if (!title.equals(titleParams)) {
+            titleParams = title;
+            titleLayouts.evictAll();
+        }
+        PrecomputedTextCompat.Params authors = TextViewCompat.getTextMetricsParams(authorsTextView);
+        if (!authors.equals(authorsParams)) {
+            authorsParams = authors;
+            authorsLayouts.evictAll();
+        }
+    }
+
+    /**
+     * Start measuring the title and authors of a row about to be bound.
+     */
+    public void prefetch(NewsRow newsRow) {
+        if (titleParams != null) {
+            getTitle(newsRow);
+            getAuthors(newsRow);
+        }
+    }
+
+    /**
+     * Return the title layout of the row, started now if it was not prefetched.
+     * Only valid after {@link #setTextViews}.
+     */
+    public Future<PrecomputedTextCompat> getTitle(NewsRow newsRow) {
+        return get(titleLayouts, newsRow.getTechNews().getTitle(), titleParams);
+    }
+
+    /**
+     * Return the authors layout of the row, started now if it was not prefetched.
+     * Only valid after {@link #setTextViews}.
+     */
+    public Future<PrecomputedTextCompat> getAuthors(NewsRow newsRow) {
+        return get(authorsLayouts, newsRow.getAuthors(), authorsParams);
+    }
+
+    private Future<PrecomputedTextCompat> get(LruCache<String, Future<PrecomputedTextCompat>> layouts, String text,
+                                              PrecomputedTextCompat.Params params) {
+        String key = text == null ? "" : text;
+        Future<PrecomputedTextCompat> layout = layouts.get(key);
+        if (layout == null) {
+            layout = PrecomputedTextCompat.getTextFuture(key, params, executor);
+            layouts.put(key, layout);
+        }
+        return layout;
+    }
+}
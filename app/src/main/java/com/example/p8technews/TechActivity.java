@@ -1,47 +1,161 @@
 package com.example.p8technews;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.loader.app.LoaderManager;
-import androidx.loader.content.Loader;
 import androidx.recyclerview.widget.DividerItemDecoration;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import android.content.Context;
-import android.net.ConnectivityManager;
-import android.net.NetworkInfo;
-import android.net.Uri;
+import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
+import android.os.AsyncTask;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.Log;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
+import android.widget.EditText;
 import android.widget.TextView;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
-public class TechActivity extends AppCompatActivity implements LoaderManager.LoaderCallbacks<List<TechNews>> {
+public class TechActivity extends AppCompatActivity {
+    private static final String LOG_TAG = TechActivity.class.getSimpleName();
+
     private RecyclerView recyclerView;
     private Adapter adapter;
-    private ArrayList<TechNews> techNewsArrayList;
+    private ArrayList<NewsRow> techNewsArrayList;
     private View loadingBar;
     private TextView emptyStateTextView;
     private RecyclerView.ItemDecoration dividerItemDecoration;
 
-    private static final int TECHNEWS_LOADER_ID = 1;
-    private static final String GUARDIAN_REQUEST_URL =
-            "https://content.guardianapis.com/search?api-key=test";
+    /**
+     * Paging state: the last page appended to the adapter, the page currently
+     * being fetched (0 when none) and whether the last page came back full.
+     */
+    private int loadedPages;
+    private int loadingPage;
+    private boolean hasMorePages = true;
+
+    /**
+     * Number of pages shown before a configuration change, re-appended from the
+     * repository's cache once the first page is back.
+     */
+    private int pagesToRestore;
+
+    /**
+     * Handles on the repository loads of the first page and of the next page.
+     */
+    private NewsRepository.Call firstPageCall;
+    private NewsRepository.Call nextPageCall;
+
+    /**
+     * Receives the first page, both on start and when it is reloaded after a revalidation.
+     */
+    private final NewsRepository.Callback firstPageCallback = new NewsRepository.Callback() {
+        @Override
+        public void onPartialResult(List<NewsRow> newsRows) {
+            onFirstPageLoaded(newsRows);
+        }
+
+        @Override
+        public void onResult(List<NewsRow> newsRows) {
+            firstPageCall = null;
+            onFirstPageLoaded(newsRows);
+            /**
+             * The complete first page shows which of the newest rows are gone, such as
+             * deleted articles or stale rows of the snapshot.
+             */
+            if (newsRows != null && !newsRows.isEmpty()) {
+                adapter.removeMissingTechNews(newsRows);
+            }
+            restorePages();
+        }
+    };
+
+    /**
+     * A stale list served from the {@link ParsedListCache} has been fetched again and changed.
+     * Sources revalidate one after another, so the reload waits for a short quiet period.
+     */
+    private final ParsedListCache.OnRevalidatedListener revalidatedListener = new ParsedListCache.OnRevalidatedListener() {
+        @Override
+        public void onRevalidated(String requestUrl) {
+            mainHandler.removeCallbacks(reloadFirstPage);
+            mainHandler.postDelayed(reloadFirstPage, REVALIDATION_RELOAD_DELAY_MILLIS);
+        }
+    };
+
+    /**
+     * Reload the first page, now answered from the fresh cache entries. Waits for a first page
+     * load still in flight.
+     */
+    private final Runnable reloadFirstPage = new Runnable() {
+        @Override
+        public void run() {
+            if (firstPageCall != null) {
+                mainHandler.postDelayed(this, REVALIDATION_RELOAD_DELAY_MILLIS);
+                return;
+            }
+            firstPageCall = NewsRepository.getInstance().load(createNewsLoader(1), reloadCallback, false);
+        }
+    };
+
+    /**
+     * Receives a reloaded first page. Partial results are skipped; the complete page is merged
+     * into the adapter's timeline, which keeps the further pages shown, so a reload never
+     * shortens the list under the user's scroll position.
+     */
+    private final NewsRepository.Callback reloadCallback = new NewsRepository.Callback() {
+        @Override
+        public void onPartialResult(List<NewsRow> newsRows) {
+        }
+
+        @Override
+        public void onResult(List<NewsRow> newsRows) {
+            firstPageCall = null;
+            if (newsRows == null || newsRows.isEmpty()) {
+                return;
+            }
+            adapter.mergeTechNews(newsRows);
+        }
+    };
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private static final long REVALIDATION_RELOAD_DELAY_MILLIS = 300;
+    private static final String STATE_LOADED_PAGES = "loaded_pages";
+    private static final String METRICS_FILE_NAME = "load-metrics.tsv";
+    private static final String PREFERENCES_NAME = "settings";
+    private static final String PREFERENCE_READER_MODE = "reader_mode";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_technology);
 
+        /**
+         * Debuggable builds, i.e. test devices, record per-stage metrics of the load pipeline
+         * and dump them to a file that can be pulled with adb.
+         */
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0 && !PipelineMetrics.isEnabled()) {
+            File metricsDir = getExternalFilesDir(null);
+            PipelineMetrics.enable(new FileMetricsExporter(
+                    new File(metricsDir != null ? metricsDir : getFilesDir(), METRICS_FILE_NAME)));
+        }
+
         emptyStateTextView = findViewById(R.id.empty_view);
         techNewsArrayList = new ArrayList<>();
         recyclerView = findViewById(R.id.recycler_grid);
         recyclerView.setHasFixedSize(true);
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        final LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
         dividerItemDecoration = new DividerItemDecoration(this, DividerItemDecoration.VERTICAL);
         recyclerView.addItemDecoration(dividerItemDecoration);
 
@@ -50,78 +164,279 @@ public class TechActivity extends AppCompatActivity implements LoaderManager.Loa
          * and set the click listener created within TechnologyAdapter.
          */
         adapter = new Adapter(techNewsArrayList, this);
+        adapter.setReaderMode(getSettings().getBoolean(PREFERENCE_READER_MODE, false));
         recyclerView.setAdapter(adapter);
 
         /**
-         * Get the reference to the ConnectivityManager to check state of network.
+         * Filter the loaded articles on every keystroke through the adapter's search index.
          */
-        ConnectivityManager connectivityManager = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
-        NetworkInfo networkInfo = connectivityManager.getActiveNetworkInfo();
+        EditText searchEditText = findViewById(R.id.search_editText);
+        searchEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                adapter.setSearchQuery(s.toString());
+            }
+        });
 
         /**
-         * If there is a network connection, fetch data and get a reference to the LoaderManager.
+         * Fetch the next page in the background once the user scrolls close to the end of the list.
          */
-        if (networkInfo != null && networkInfo.isConnected()) {
-            LoaderManager loaderManager = getSupportLoaderManager();
-            loaderManager.initLoader(TECHNEWS_LOADER_ID, null, this);
-        } else {
-            loadingBar = findViewById(R.id.loading_bar);
-            loadingBar.setVisibility(View.GONE);
-            emptyStateTextView.setText(R.string.no_internet_connection);
-        }
-    }
+        recyclerView.addOnScrollListener(new EndlessScrollListener(layoutManager, getResources().getInteger(R.integer.prefetch_distance)) {
+            @Override
+            public void onLoadMore() {
+                loadNextPage();
+            }
+        });
 
-    @NonNull
-    @Override
-    public Loader<List<TechNews>> onCreateLoader(int id, @Nullable Bundle args) {
         /**
-         * parse breaks apart the URI string that's passed into its parameter.
+         * Keep the rows around the visible ones in memory, as the list scrolls.
          */
-        Uri baseUri = Uri.parse(GUARDIAN_REQUEST_URL);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                adapter.setVisibleRange(layoutManager.findFirstVisibleItemPosition(), layoutManager.findLastVisibleItemPosition());
+            }
+        });
+
         /**
-         * buildUpon prepares the baseUri that we just parsed so we can add query parameters to it.
+         * On a cold start, show the first screen as it was last displayed straight away;
+         * the load below then refreshes it.
          */
-        Uri.Builder builder = baseUri.buildUpon();
+        if (savedInstanceState == null) {
+            showSnapshot();
+        }
+
         /**
-         * Append query parameter and its value.
+         * Load the first page through the repository. It serves stored articles first, so it is
+         * started even when there is no network connection. After a configuration change the
+         * repository hands back the pages loaded before, instead of fetching them again.
          */
-        builder.appendQueryParameter("section", "technology");
-        builder.appendQueryParameter("show-tags", "contributor");
-        builder.appendQueryParameter("format", "json");
-        builder.appendQueryParameter("lang", "en");
-        builder.appendQueryParameter("order-by", "newest");
-        builder.appendQueryParameter("show-fields", "thumbnail");
-        builder.appendQueryParameter("page-size", "50");
+        final boolean recreated = savedInstanceState != null;
+        firstPageCall = NewsRepository.getInstance().load(createNewsLoader(1), firstPageCallback, recreated);
+        if (recreated) {
+            pagesToRestore = savedInstanceState.getInt(STATE_LOADED_PAGES, 1);
+        }
 
         /**
-         * Return the completed uri http://content.guardianapis.com/search?section=technology&show-tags=contributor&format=json&lang=en&order-by=newest&show-fields=thumbnail&page-size=50&api-key=test
+         * Keep the store up to date in the background, so the next open only applies a small delta.
          */
-        return new NewsLoader(this, builder.toString());
+        NewsSyncJobService.schedule(this);
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_tech, menu);
+        menu.findItem(R.id.action_reader_mode).setChecked(getSettings().getBoolean(PREFERENCE_READER_MODE, false));
+        return true;
+    }
+
+    /**
+     * Reader mode is remembered across launches; switching it on starts downloading the
+     * bodies of the rows bound from then on.
+     */
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == R.id.action_reader_mode) {
+            boolean readerMode = !item.isChecked();
+            item.setChecked(readerMode);
+            getSettings().edit().putBoolean(PREFERENCE_READER_MODE, readerMode).apply();
+            adapter.setReaderMode(readerMode);
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    private SharedPreferences getSettings() {
+        return getSharedPreferences(PREFERENCES_NAME, MODE_PRIVATE);
     }
 
     @Override
-    public void onLoadFinished(@NonNull Loader<List<TechNews>> loader, List<TechNews> techNewsList) {
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putInt(STATE_LOADED_PAGES, loadedPages);
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        ParsedListCache.getInstance().addOnRevalidatedListener(revalidatedListener);
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        ParsedListCache.getInstance().removeOnRevalidatedListener(revalidatedListener);
+        mainHandler.removeCallbacks(reloadFirstPage);
+        Thumbnails.getInstance(this).logStats();
+        ArticleBodies.getInstance(this).logStats();
+        adapter.logStats();
+        logNetworkStats();
+        if (PipelineMetrics.isEnabled()) {
+            AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        PipelineMetrics.export();
+                    } catch (IOException e) {
+                        Log.e(LOG_TAG, getString(R.string.metrics_export_problem), e);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Log how many fetches of each priority the network scheduler started, dropped at their
+     * deadline and preempted; their wait times go out with the pipeline metrics.
+     */
+    private void logNetworkStats() {
+        NetworkScheduler scheduler = NetworkScheduler.getInstance();
+        StringBuilder stats = new StringBuilder("network:");
+        for (NetworkScheduler.Priority priority : NetworkScheduler.Priority.values()) {
+            stats.append(' ').append(priority).append(' ').append(scheduler.getStartedCount(priority))
+                    .append(" started, ").append(scheduler.getDroppedCount(priority)).append(" dropped, ")
+                    .append(scheduler.getPreemptedCount(priority)).append(" preempted;");
+        }
+        Log.i(LOG_TAG, stats.toString());
+    }
+
+    /**
+     * A configuration change only detaches from the loads, so the recreated activity picks up
+     * their results; leaving the activity for good cancels them. Either way the rows this
+     * activity's list paged out are deleted.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        adapter.release();
+        for (NewsRepository.Call call : new NewsRepository.Call[]{firstPageCall, nextPageCall}) {
+            if (call == null) {
+                continue;
+            }
+            if (isChangingConfigurations()) {
+                call.detach();
+            } else {
+                call.cancel();
+            }
+        }
+    }
+
+    /**
+     * Start fetching the page after the last one appended. A request for a page that is already
+     * in flight is ignored, and any older in-flight page request is cancelled.
+     */
+    private void loadNextPage() {
+        if (!hasMorePages || loadingPage != 0 || loadedPages == 0 || !QueryUtils.isNetworkAvailable(this)) {
+            return;
+        }
+        if (nextPageCall != null) {
+            nextPageCall.cancel();
+        }
+        final int page = loadedPages + 1;
+        loadingPage = page;
+        nextPageCall = NewsRepository.getInstance().load(createNewsLoader(page), new NewsRepository.Callback() {
+            @Override
+            public void onPartialResult(List<NewsRow> newsRows) {
+            }
+
+            @Override
+            public void onResult(List<NewsRow> newsRows) {
+                loadingPage = 0;
+                nextPageCall = null;
+                onNextPageLoaded(page, newsRows);
+            }
+        }, false);
+    }
+
+    /**
+     * Append the further pages shown before a configuration change, as far as the
+     * repository still has them.
+     */
+    private void restorePages() {
+        for (int page = 2; page <= pagesToRestore; page++) {
+            List<NewsRow> newsRows = NewsRepository.getInstance().getLastResult(createNewsLoader(page).getKey());
+            if (newsRows == null) {
+                break;
+            }
+            onNextPageLoaded(page, newsRows);
+        }
+        pagesToRestore = 0;
+    }
+
+    /**
+     * Read the snapshot of the first page last loaded, a few small records in a memory-mapped
+     * file, and display it. This runs on the main thread, before the first frame.
+     */
+    private void showSnapshot() {
+        long readStart = PipelineMetrics.start();
+        List<NewsRow> newsRows = null;
+        try {
+            newsRows = NewsSnapshot.read(NewsLoader.getSnapshotFile(this));
+        } catch (IOException e) {
+            Log.e(LOG_TAG, getString(R.string.snapshot_problem), e);
+        }
+        PipelineMetrics.record(PipelineMetrics.Stage.SNAPSHOT_READ, readStart, 0, newsRows == null ? 0 : newsRows.size());
+        if (newsRows != null && !newsRows.isEmpty()) {
+            onFirstPageLoaded(newsRows);
+        }
+    }
+
+    /**
+     * Create the loader of one page of the merged feed.
+     */
+    private NewsLoader createNewsLoader(int page) {
+        /**
+         * One source per configured Guardian section; the loader fetches them
+         * in parallel and merges them into a single feed ordered by publication date.
+         * The first page is what the user waits for; further pages are loaded ahead of
+         * the end of the list, so they give way to it and to the visible thumbnails.
+         */
+        List<NewsSource> sources = GuardianSectionSource.createConfiguredSources(
+                this, GuardianSectionSource.getRequestUrl(this),
+                page == 1 ? NetworkScheduler.Priority.VISIBLE : NetworkScheduler.Priority.PREFETCH);
+        return new NewsLoader(this, sources, page);
+    }
+
+    /**
+     * A further page is merged into what is displayed, only notifying the inserted rows.
+     */
+    private void onNextPageLoaded(int page, List<NewsRow> techNewsList) {
+        if (techNewsList != null && !techNewsList.isEmpty()) {
+            loadedPages = Math.max(loadedPages, page);
+            hasMorePages = techNewsList.size() >= getResources().getInteger(R.integer.page_size);
+            adapter.mergeTechNews(techNewsList);
+        }
+    }
+
+    private void onFirstPageLoaded(List<NewsRow> techNewsList) {
+        int pageSize = getResources().getInteger(R.integer.page_size);
 
         /**
-         *After the loader finished its load, we stop the visibility of our loading bar and
+         *After the load finished, we stop the visibility of our loading bar and
          * either show our emptyView message or display our list of news.
+         * This is also called with partial lists while the response is still streaming in;
+         * the adapter merges each list into what is displayed and only rebinds changed rows.
          */
         loadingBar = findViewById(R.id.loading_bar);
         loadingBar.setVisibility(View.GONE);
-        emptyStateTextView.setText(R.string.no_news_found);
-        adapter.notifyDataSetChanged();
+        if (QueryUtils.isNetworkAvailable(this)) {
+            emptyStateTextView.setText(R.string.no_news_found);
+        } else {
+            emptyStateTextView.setText(R.string.no_internet_connection);
+        }
         if (techNewsList != null && !techNewsList.isEmpty()) {
             emptyStateTextView.setVisibility(View.GONE);
-            adapter.setTechNewsArrayList(techNewsList);
+            adapter.mergeTechNews(techNewsList);
+            loadedPages = 1;
+            hasMorePages = techNewsList.size() >= pageSize;
         }
     }
-
-    /**
-     * Called when a previously created loader is being reset, at this point
-     * any View reflecting the data set should refresh itself.
-     */
-    @Override
-    public void onLoaderReset(@NonNull Loader<List<TechNews>> loader) {
-        adapter.notifyDataSetChanged();
-    }
-}
\ No newline at end of file
+}
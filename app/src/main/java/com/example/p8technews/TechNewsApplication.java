@@ -0,0 +1,18 @@
+package com.example.p8technews;
+
+import android.app.Application;
+
+/**
+ * Runs the once-per-process setup, before any activity or the sync service starts.
+ */
+public class TechNewsApplication extends Application {
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        HttpTransport.configureConnectionPool();
+        /**
+         * Timeline pages only live as long as the process that wrote them.
+         */
+        Adapter.deleteStalePages(this);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.p8technews;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.Request;
+import com.squareup.picasso.RequestHandler;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads remote thumbnails for Picasso at the size they are displayed at.
+ * <p>
+ * Images are downloaded through {@link HttpTransport}, decoded with the largest power-of-two
+ * sample size that still covers the target size, and the downsampled bitmap is written to a
+ * disk cache under its own byte budget. Later loads of the same url and size decode the small
+ * file instead of downloading and decoding the full-size image again.
+ */
+public class ThumbnailRequestHandler extends RequestHandler {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int JPEG_QUALITY = 85;
+
+    private final File cacheDir;
+    private final LruDirectory diskCache;
+
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong networkLoads = new AtomicLong();
+    private final AtomicLong decodeCount = new AtomicLong();
+    private final AtomicLong decodeNanos = new AtomicLong();
+
+    public ThumbnailRequestHandler(File cacheDir, long maxDiskBytes) {
+        this.cacheDir = cacheDir;
+        this.diskCache = new LruDirectory(cacheDir, maxDiskBytes);
+    }
+
+    /**
+     * Only sized requests for remote images are handled here; anything else falls
+     * through to Picasso's own handlers.
+     */
+    @Override
+    public boolean canHandleRequest(Request data) {
+        String scheme = data.uri == null ? null : data.uri.getScheme();
+        return data.hasSize() && ("http".equals(scheme) || "https".equals(scheme));
+    }
+
+    @Override
+    public Result load(Request request, int networkPolicy) throws IOException {
+        File cached = getCacheFile(request);
+        if (cached.exists()) {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inPreferredConfig = Bitmap.Config.RGB_565;
+            Bitmap bitmap = decode(null, cached, options);
+            if (bitmap != null) {
+                cached.setLastModified(System.currentTimeMillis());
+                diskHits.incrementAndGet();
+                return new Result(bitmap, Picasso.LoadedFrom.DISK);
+            }
+            diskCache.delete(cached);
+        }
+
+        byte[] image = download(request.uri, request.priority == Picasso.Priority.LOW
+                ? NetworkScheduler.Priority.PREFETCH : NetworkScheduler.Priority.VISIBLE);
+        networkLoads.incrementAndGet();
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(image, 0, image.length, options);
+        options.inSampleSize = calculateSampleSize(options.outWidth, options.outHeight,
+                request.targetWidth, request.targetHeight);
+        options.inJustDecodeBounds = false;
+
+        /**
+         * Thumbnails are opaque photos, so 16 bits per pixel halve their memory for no visible loss.
+         */
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        Bitmap bitmap = decode(image, null, options);
+        if (bitmap == null) {
+            throw new IOException("Could not decode " + request.uri);
+        }
+        writeCacheFile(cached, bitmap);
+        return new Result(bitmap, Picasso.LoadedFrom.NETWORK);
+    }
+
+    /**
+     * The largest power of two that keeps the decoded image at least as large as the target,
+     * so the final scaling to the view only ever shrinks the bitmap.
+     */
+    static int calculateSampleSize(int width, int height, int targetWidth, int targetHeight) {
+        int sampleSize = 1;
+        if (width <= 0 || height <= 0) {
+            return sampleSize;
+        }
+        while (width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private Bitmap decode(byte[] image, File file, BitmapFactory.Options options) {
+        long start = System.nanoTime();
+        Bitmap bitmap = image != null
+                ? BitmapFactory.decodeByteArray(image, 0, image.length, options)
+                : BitmapFactory.decodeFile(file.getPath(), options);
+        decodeNanos.addAndGet(System.nanoTime() - start);
+        decodeCount.incrementAndGet();
+        return bitmap;
+    }
+
+    /**
+     * Download an image once the {@link NetworkScheduler} has a slot for it: a thumbnail being
+     * shown at the priority of what is visible, a prefetched one below it.
+     */
+    private static byte[] download(final Uri uri, NetworkScheduler.Priority priority) throws IOException {
+        final URL url = new URL(uri.toString());
+        return NetworkScheduler.getInstance().execute(url.getHost(), priority, new NetworkScheduler.Fetch<byte[]>() {
+            @Override
+            public byte[] run(NetworkScheduler.Ticket ticket) throws IOException {
+                HttpTransport.Response response = HttpTransport.getInstance().get(url, null, ticket);
+                try {
+                    if (response.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                        throw new IOException("Error response code: " + response.getResponseCode() + " for " + uri);
+                    }
+                    return response.readBodyBytes();
+                } finally {
+                    response.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * Downsampled images are keyed by url and target size, so a differently sized view
+     * of the same image gets its own entry.
+     */
+    private File getCacheFile(Request request) {
+        String key = request.uri.toString() + '#' + request.targetWidth + 'x' + request.targetHeight;
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(UTF_8));
+            return new File(cacheDir, String.format("%032x", new BigInteger(1, digest)));
+        } catch (NoSuchAlgorithmException e) {
+            return new File(cacheDir, Integer.toHexString(key.hashCode()));
+        }
+    }
+
+    /**
+     * Write to a temporary file first, so a reader never sees a half-written image.
+     */
+    private void writeCacheFile(File target, Bitmap bitmap) {
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+            return;
+        }
+        File temporary = diskCache.getTemporaryFile(target);
+        OutputStream outputStream = null;
+        boolean written = false;
+        try {
+            outputStream = new FileOutputStream(temporary);
+            written = bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, outputStream);
+        } catch (IOException e) {
+            written = false;
+        } finally {
+            if (outputStream != null) {
+                try {
+                    outputStream.close();
+                } catch (IOException e) {
+                    written = false;
+                }
+            }
+        }
+        long previousLength = target.length();
+        if (written && temporary.renameTo(target)) {
+            diskCache.onFileWritten(target.length() - previousLength);
+        } else {
+            temporary.delete();
+        }
+    }
+
+    /**
+     * Number of thumbnails served from the disk cache.
+     */
+    public long getDiskHitCount() {
+        return diskHits.get();
+    }
+
+    /**
+     * Number of thumbnails downloaded.
+     */
+    public long getNetworkLoadCount() {
+        return networkLoads.get();
+    }
+
+    /**
+     * Number of bitmap decodes, from the network or from disk.
+     */
+    public long getDecodeCount() {
+        return decodeCount.get();
+    }
+
+    /**
+     * Total time spent decoding bitmaps.
+     */
+    public long getDecodeNanos() {
+        return decodeNanos.get();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.p8technews;
+
+import android.content.Context;
+import android.text.TextUtils;
+import android.util.Log;
+import android.widget.ImageView;
+
+import com.squareup.picasso.LruCache;
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.StatsSnapshot;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thumbnail pipeline of the news list. Every thumbnail is requested at the size of its view,
+ * so both caches hold small bitmaps:
+ * <ul>
+ * <li>a memory cache of decoded bitmaps, bounded in bytes,</li>
+ * <li>a disk cache of downsampled images, kept by {@link ThumbnailRequestHandler}.</li>
+ * </ul>
+ * Rows about to scroll into view are fetched ahead at low priority.
+ */
+public class Thumbnails {
+    private static final String LOG_TAG = Thumbnails.class.getSimpleName();
+
+    /**
+     * Share of the heap given to decoded bitmaps.
+     */
+    private static final int MEMORY_CACHE_HEAP_DIVISOR = 8;
+    private static final long DISK_CACHE_BYTES = 10 * 1024 * 1024;
+    private static final String DISK_CACHE_DIRECTORY = "thumbnails";
+
+    private static Thumbnails instance;
+
+    private final Picasso picasso;
+    private final ThumbnailRequestHandler requestHandler;
+    private final int width;
+    private final int height;
+
+    public static synchronized Thumbnails getInstance(Context context) {
+        if (instance == null) {
+            instance = new Thumbnails(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private Thumbnails(Context context) {
+        width = context.getResources().getDimensionPixelSize(R.dimen.thumbnail_width);
+        height = context.getResources().getDimensionPixelSize(R.dimen.thumbnail_height);
+        requestHandler = new ThumbnailRequestHandler(new File(context.getCacheDir(), DISK_CACHE_DIRECTORY), DISK_CACHE_BYTES);
+        int memoryCacheBytes = (int) (Runtime.getRuntime().maxMemory() / MEMORY_CACHE_HEAP_DIVISOR);
+        picasso = new Picasso.Builder(context)
+                .memoryCache(new LruCache(memoryCacheBytes))
+                .addRequestHandler(requestHandler)
+                .build();
+    }
+
+    /**
+     * Show the thumbnail at the size of the list's image view.
+     */
+    public void load(String url, ImageView imageView) {
+        if (TextUtils.isEmpty(url)) {
+            picasso.cancelRequest(imageView);
+            imageView.setImageResource(R.mipmap.ic_placeholder);
+            return;
+        }
+        picasso.load(url)
+                .resize(width, height)
+                .centerCrop()
+                .placeholder(R.mipmap.ic_placeholder)
+                .error(R.mipmap.ic_broker_image)
+                .into(imageView);
+    }
+
+    /**
+     * Warm both caches with a thumbnail that is about to be shown. The request matches the
+     * one made by {@link #load}, so the bitmap is found in the memory cache when it is bound.
+     */
+    public void prefetch(String url) {
+        if (TextUtils.isEmpty(url)) {
+            return;
+        }
+        picasso.load(url)
+                .resize(width, height)
+                .centerCrop()
+                .priority(Picasso.Priority.LOW)
+                .fetch();
+    }
+
+    /**
+     * Share of thumbnail requests answered by the memory cache.
+     */
+    public float getMemoryHitRate() {
+        StatsSnapshot snapshot = picasso.getSnapshot();
+        long requests = snapshot.cacheHits + snapshot.cacheMisses;
+        return requests == 0 ? 0 : (float) snapshot.cacheHits / requests;
+    }
+
+    /**
+     * Share of memory cache misses answered by the disk cache.
+     */
+    public float getDiskHitRate() {
+        long diskHits = requestHandler.getDiskHitCount();
+        long requests = diskHits + requestHandler.getNetworkLoadCount();
+        return requests == 0 ? 0 : (float) diskHits / requests;
+    }
+
+    /**
+     * Average time of one bitmap decode, in microseconds.
+     */
+    public long getAverageDecodeMicros() {
+        long decodes = requestHandler.getDecodeCount();
+        return decodes == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(requestHandler.getDecodeNanos() / decodes);
+    }
+
+    /**
+     * Log the cache hit rates and decode time.
+     */
+    public void logStats() {
+        StatsSnapshot snapshot = picasso.getSnapshot();
+        Log.i(LOG_TAG, "memory hit rate " + Math.round(getMemoryHitRate() * 100) + "% ("
+                + snapshot.size / 1024 + " of " + snapshot.maxSize / 1024 + " KB), disk hit rate "
+                + Math.round(getDiskHitRate() * 100) + "%, " + requestHandler.getNetworkLoadCount()
+                + " downloads, " + requestHandler.getDecodeCount() + " decodes averaging "
+                + getAverageDecodeMicros() + " us");
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.p8technews;
+
+import android.content.Context;
+import android.os.Build;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The changes {@link Adapter} reports while a filter diff is still on its way: whatever the
+ * order, the list must end up told exactly the rows it displays, as RecyclerView checks.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class AdapterTest {
+    private static final long HOUR = 3600000L;
+
+    @Test
+    public void rowsRemovedWhileAFilterDiffIsPendingAreReportedOnce() throws InterruptedException {
+        Context context = ApplicationProvider.getApplicationContext();
+        final Adapter adapter = new Adapter(Arrays.asList(row("a", "Battery fire", 50),
+                row("b", "Cloud outage", 40), row("c", "Battery recall", 30), row("d", "Drone law", 20)), context);
+        CountingObserver observer = new CountingObserver(adapter);
+        adapter.registerAdapterDataObserver(observer);
+
+        /**
+         * The diff runs in the background, and its result waits on the main looper until idled.
+         */
+        adapter.setSearchQuery("battery");
+        adapter.removeMissingTechNews(Arrays.asList(row("a", "Battery fire", 50), row("d", "Drone law", 20)));
+        assertEquals(adapter.getItemCount(), observer.count);
+
+        long deadline = System.nanoTime() + 5000000000L;
+        while (adapter.getItemCount() != 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            ShadowLooper.idleMainLooper();
+        }
+        Thread.sleep(50);
+        ShadowLooper.idleMainLooper();
+
+        assertEquals(1, adapter.getItemCount());
+        assertEquals(adapter.getItemCount(), observer.count);
+    }
+
+    private static NewsRow row(String webUrl, String title, long hours) {
+        return new NewsRow(new TechNews(title, "Technology", null, "https://www.theguardian.com/" + webUrl, null, null),
+                hours * HOUR, "date", "time", "Author N/A");
+    }
+
+    /**
+     * Follows the item count the way RecyclerView does, failing on a change outside it.
+     */
+    private static class CountingObserver extends RecyclerView.AdapterDataObserver {
+        private final Adapter adapter;
+        int count;
+
+        CountingObserver(Adapter adapter) {
+            this.adapter = adapter;
+            this.count = adapter.getItemCount();
+        }
+
+        @Override
+        public void onChanged() {
+            count = adapter.getItemCount();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            assertTrue(positionStart + itemCount <= count);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            assertTrue(positionStart + itemCount <= count);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            assertTrue(positionStart <= count);
+            count += itemCount;
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            assertTrue(positionStart + itemCount <= count);
+            count -= itemCount;
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            assertTrue(fromPosition + itemCount <= count && toPosition + itemCount <= count);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.p8technews;
+
+import android.content.Context;
+import android.os.Build;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.p8technews.standin.GuardianStandIn;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * End-to-end load test of the fetch path: concurrent clients drive
+ * {@link QueryUtils#fetchTechNewsData(String, Context, NetworkScheduler.Priority,
+ * GuardianJsonParser.OnArticleParsedListener)}, as a source fetches its pages, and
+ * {@link NewsLoader} against a local {@link GuardianStandIn} that holds every response back,
+ * throttles it and fails some of them, and the throughput and the p50/p99 latencies of each are reported. Every client reads under a
+ * base URL of its own, so no request is answered from the app's in-memory caches. Robolectric
+ * runs the app code on the JVM, so the numbers are those of the app's code and the network
+ * conditions set here, not of a device's CPU and radio.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class LoadHarnessTest {
+    private static final int CLIENTS = 8;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final int LOADS_PER_CLIENT = 5;
+
+    /**
+     * A mobile network on a good day: 50 to 250 ms to the first byte, 200 KB/s per response,
+     * and one response in twenty a 503.
+     */
+    private static final long MIN_LATENCY_MILLIS = 50;
+    private static final long MAX_LATENCY_MILLIS = 250;
+    private static final long BYTES_PER_SECOND = 200000;
+    private static final double ERROR_RATE = 0.05;
+    private static final int TOTAL_ARTICLES = 1000;
+
+    private Context context;
+    private GuardianStandIn standIn;
+
+    @Before
+    public void startStandIn() throws IOException {
+        context = ApplicationProvider.getApplicationContext();
+        standIn = new GuardianStandIn();
+        standIn.setTotalArticles(TOTAL_ARTICLES);
+        standIn.setLatencyMillis(MIN_LATENCY_MILLIS, MAX_LATENCY_MILLIS);
+        standIn.setBytesPerSecond(BYTES_PER_SECOND);
+        standIn.setErrorRate(ERROR_RATE);
+        standIn.start(0);
+    }
+
+    @After
+    public void stopStandIn() {
+        standIn.stop();
+    }
+
+    @Test
+    public void fetchTechNewsDataUnderConcurrentLoad() throws InterruptedException {
+        final int pageSize = context.getResources().getInteger(R.integer.page_size);
+        LoadRun run = new LoadRun(CLIENTS * REQUESTS_PER_CLIENT);
+        run.execute(new Client() {
+            @Override
+            public boolean call(int client, int request) {
+                GuardianSectionSource source = new GuardianSectionSource(context, clientUrl(client), "technology", pageSize);
+                List<TechNews> techNews = QueryUtils.fetchTechNewsData(source.buildRequestUrl(request + 1), context,
+                        NetworkScheduler.Priority.VISIBLE, null);
+                return techNews != null && !techNews.isEmpty();
+            }
+        }, REQUESTS_PER_CLIENT);
+        run.report("fetchTechNewsData");
+
+        /**
+         * Failed responses are retried on this path, as for a source's pages, so nearly every
+         * call gets its articles.
+         */
+        assertTrue(run.getSucceeded() >= run.getCompleted() * 8 / 10);
+        assertTrue(run.getQuantileMillis(0.5) >= MIN_LATENCY_MILLIS);
+    }
+
+    @Test
+    public void newsLoaderUnderConcurrentLoad() throws InterruptedException {
+        LoadRun run = new LoadRun(CLIENTS * LOADS_PER_CLIENT);
+        run.execute(new Client() {
+            @Override
+            public boolean call(int client, int request) {
+                /**
+                 * Pages after the first: the first also reads and writes the on-disk store and
+                 * the start-up snapshot, which is not what is measured here.
+                 */
+                List<NewsSource> sources = GuardianSectionSource.createConfiguredSources(context, clientUrl(client));
+                List<NewsRow> newsRows = new NewsLoader(context, sources, request + 2).load(null);
+                return newsRows != null && !newsRows.isEmpty();
+            }
+        }, LOADS_PER_CLIENT);
+        run.report("NewsLoader");
+
+        /**
+         * Failed responses are retried on this path, so nearly every load gets its pages.
+         */
+        assertTrue(run.getSucceeded() >= run.getCompleted() * 8 / 10);
+        assertTrue(run.getQuantileMillis(0.5) >= MIN_LATENCY_MILLIS);
+    }
+
+    private String clientUrl(int client) {
+        return standIn.getSearchUrl() + "&client=" + client;
+    }
+
+    /**
+     * One call of a client; returns whether it got articles.
+     */
+    private interface Client {
+        boolean call(int client, int request);
+    }
+
+    /**
+     * Runs CLIENTS threads of calls back to back and collects their latencies.
+     */
+    private class LoadRun {
+        private final AtomicLongArray latencies;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private long elapsedNanos;
+        private long[] sorted;
+
+        LoadRun(int calls) {
+            latencies = new AtomicLongArray(calls);
+        }
+
+        void execute(final Client client, final int callsPerClient) throws InterruptedException {
+            final CountDownLatch done = new CountDownLatch(CLIENTS);
+            long start = System.nanoTime();
+            for (int i = 0; i < CLIENTS; i++) {
+                final int clientNumber = i;
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            for (int request = 0; request < callsPerClient; request++) {
+                                long callStart = System.nanoTime();
+                                boolean success = client.call(clientNumber, request);
+                                latencies.set(completed.getAndIncrement(), System.nanoTime() - callStart);
+                                if (success) {
+                                    succeeded.incrementAndGet();
+                                }
+                            }
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                }).start();
+            }
+            done.await();
+            elapsedNanos = System.nanoTime() - start;
+            sorted = new long[completed.get()];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = latencies.get(i);
+            }
+            Arrays.sort(sorted);
+        }
+
+        int getCompleted() {
+            return completed.get();
+        }
+
+        int getSucceeded() {
+            return succeeded.get();
+        }
+
+        long getQuantileMillis(double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1000000;
+        }
+
+        void report(String name) {
+            System.out.println(name + ": " + CLIENTS + " clients, " + completed.get() + " calls, "
+                    + succeeded.get() + " with articles, "
+                    + String.format("%.1f", completed.get() * 1e9 / elapsedNanos) + " calls/s, p50 "
+                    + getQuantileMillis(0.5) + " ms, p99 " + getQuantileMillis(0.99) + " ms, stand-in "
+                    + standIn.getRequestCount() + " requests, " + standIn.getErrorCount() + " failed, "
+                    + standIn.getBytesSent() / 1024 + " KB sent");
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.p8technews.benchmark;
+
+import com.example.p8technews.FeedConfig;
+import com.example.p8technews.GuardianJsonParser;
+import com.example.p8technews.NewsRowFormatter;
+import com.example.p8technews.TechNews;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic Guardian search responses of 10, 50 and 200 articles, generated by the stand-in's
+ * FixtureGenerator and kept with the stand-in that replays them, and the parser and formatter
+ * configured the way the app configures them.
+ */
+final class Fixtures {
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private Fixtures() {
+    }
+
+    /**
+     * Return the raw body of the search response with the given number of articles.
+     */
+    static byte[] load(int articles) throws IOException {
+        InputStream inputStream = Fixtures.class.getResourceAsStream("/fixtures/search-" + articles + ".json");
+        if (inputStream == null) {
+            throw new IOException("No fixture of " + articles + " articles");
+        }
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+            return body.toByteArray();
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Return the articles of the search response with the given number of articles.
+     */
+    static List<TechNews> loadArticles(int articles) throws IOException {
+        List<TechNews> techNews = new ArrayList<>();
+        createParser().parseStream(new ByteArrayInputStream(load(articles)), UTF_8, techNews, null);
+        return techNews;
+    }
+
+    static GuardianJsonParser createParser() {
+        return FeedConfig.GUARDIAN.newParser();
+    }
+
+    /**
+     * Same display formats as the app's string resources.
+     */
+    static NewsRowFormatter createFormatter() {
+        return FeedConfig.GUARDIAN.newFormatter("LLL dd, yyy", "h:mm a", "Author N/A");
+    }
+}
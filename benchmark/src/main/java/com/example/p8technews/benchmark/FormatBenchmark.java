@@ -0,0 +1,56 @@
+package com.example.p8technews.benchmark;
+
+import com.example.p8technews.NewsRow;
+import com.example.p8technews.NewsRowFormatter;
+import com.example.p8technews.TechNews;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-row work that used to run in {@code Adapter.onBindViewHolder}: parsing the
+ * publication timestamp and formatting its date and time, and joining the authors. It now
+ * runs once per article in {@link NewsRowFormatter}. Each operation covers the 50 articles
+ * of one page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatBenchmark {
+    private List<TechNews> techNews;
+    private NewsRowFormatter formatter;
+
+    @Setup
+    public void setUp() throws IOException {
+        techNews = Fixtures.loadArticles(50);
+        formatter = Fixtures.createFormatter();
+    }
+
+    @Benchmark
+    public List<NewsRow> formatRows() {
+        return formatter.format(techNews);
+    }
+
+    @Benchmark
+    public void joinAuthors(Blackhole blackhole) {
+        for (TechNews article : techNews) {
+            blackhole.consume(formatter.joinAuthors(article.getAuthors()));
+        }
+    }
+}
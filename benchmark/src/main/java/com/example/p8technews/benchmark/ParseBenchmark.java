@@ -0,0 +1,69 @@
+package com.example.p8technews.benchmark;
+
+import com.example.p8technews.GuardianJsonParser;
+import com.example.p8technews.TechNews;
+
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a search response: the JSON DOM path the app used to take against the streaming path
+ * it takes now, both through {@link GuardianJsonParser}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    @Param({"10", "50", "200"})
+    public int articles;
+
+    private byte[] body;
+    private String json;
+    private GuardianJsonParser parser;
+
+    @Setup
+    public void setUp() throws IOException {
+        body = Fixtures.load(articles);
+        json = new String(body, Fixtures.UTF_8);
+        parser = Fixtures.createParser();
+    }
+
+    /**
+     * The body is already a String, as a whole-body read leaves it.
+     */
+    @Benchmark
+    public List<TechNews> extractArticleFromJson() throws JSONException {
+        List<TechNews> techNews = new ArrayList<>();
+        parser.parseDocument(json, techNews);
+        return techNews;
+    }
+
+    /**
+     * Straight from the body bytes, as the streaming fetch reads them.
+     */
+    @Benchmark
+    public List<TechNews> extractArticlesFromStream() throws IOException {
+        List<TechNews> techNews = new ArrayList<>();
+        parser.parseStream(new ByteArrayInputStream(body), Fixtures.UTF_8, techNews, null);
+        return techNews;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.p8technews.benchmark;
+
+import com.example.p8technews.HttpTransport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a response body into a String: {@link HttpTransport#readFully}, which decodes
+ * pooled bytes in one pass, against the line-by-line read it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadBenchmark {
+    @Param({"10", "50", "200"})
+    public int articles;
+
+    private byte[] body;
+    private HttpTransport transport;
+
+    @Setup
+    public void setUp() throws IOException {
+        body = Fixtures.load(articles);
+        transport = HttpTransport.getInstance();
+    }
+
+    /**
+     * The size is known from Content-Length, as for an uncompressed response.
+     */
+    @Benchmark
+    public String readFromStream() throws IOException {
+        return transport.readFully(new ByteArrayInputStream(body), Fixtures.UTF_8, body.length);
+    }
+
+    /**
+     * The size is unknown, as for a gzip-compressed response.
+     */
+    @Benchmark
+    public String readFromStreamWithoutSizeHint() throws IOException {
+        return transport.readFully(new ByteArrayInputStream(body), Fixtures.UTF_8, -1);
+    }
+
+    @Benchmark
+    public String readLineByLine() throws IOException {
+        StringBuilder output = new StringBuilder();
+        BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), Fixtures.UTF_8));
+        String line = bufferedReader.readLine();
+        while (line != null) {
+            output.append(line);
+            line = bufferedReader.readLine();
+        }
+        return output.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.p8technews.benchmark;
+
+import com.example.p8technews.NewsRow;
+import com.example.p8technews.NewsTimeline;
+import com.example.p8technews.SearchIndex;
+import com.example.p8technews.TechNews;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One keystroke of a search: {@link SearchIndex#filter} of a long timeline as the query grows,
+ * against matching every row's title, section and authors, as the list would do without an index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+    private static final long HOUR = 3600000L;
+    private static final String[] WORDS = {"amazon", "android", "apple", "artificial", "battery", "car", "carbon",
+            "chip", "climate", "cloud", "computer", "data", "drone", "electric", "encryption", "facebook", "genome",
+            "google", "hackers", "intelligence", "nasa", "ocean", "phone", "privacy", "quantum", "regulators",
+            "robot", "satellite", "security", "space", "startup", "tesla", "vaccine"};
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    /**
+     * Queries a user types one character at a time: a short prefix matching many rows, a word,
+     * and two words matching few.
+     */
+    @Param({"p", "phone", "phone sat"})
+    public String query;
+
+    private NewsTimeline timeline;
+    private SearchIndex searchIndex;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        List<NewsRow> newsRows = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            StringBuilder title = new StringBuilder();
+            int words = 6 + random.nextInt(7);
+            for (int j = 0; j < words; j++) {
+                title.append(j == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            newsRows.add(new NewsRow(new TechNews(title.toString(), i % 2 == 0 ? "Technology" : "Science", null,
+                    "https://www.theguardian.com/technology/" + i, null, null),
+                    (long) random.nextInt(100000) * HOUR, "date", "time", "Author N/A"));
+        }
+        timeline = new NewsTimeline();
+        timeline.merge(newsRows, null);
+        searchIndex = new SearchIndex();
+        searchIndex.addAll(newsRows);
+    }
+
+    @Benchmark
+    public int[] indexFilter() {
+        return searchIndex.filter(timeline, query);
+    }
+
+    @Benchmark
+    public int scanRows() {
+        String[] queryWords = query.toLowerCase(Locale.ROOT).split(" ");
+        int count = 0;
+        for (int position = 0; position < timeline.size(); position++) {
+            TechNews techNews = timeline.get(position).getTechNews();
+            String text = (" " + techNews.getTitle() + " " + techNews.getNewsSection()).toLowerCase(Locale.ROOT);
+            boolean matches = true;
+            for (String word : queryWords) {
+                if (!text.contains(" " + word)) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.p8technews.benchmark;
+
+import com.example.p8technews.GuardianJsonParser;
+import com.example.p8technews.HttpTransport;
+import com.example.p8technews.NewsRow;
+import com.example.p8technews.NewsRowFormatter;
+import com.example.p8technews.NewsSnapshot;
+import com.example.p8technews.TechNews;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to the first displayable row of a cold start: with the first-screen snapshot, against
+ * without it, where the first page has to be fetched, parsed and formatted. Without a snapshot
+ * the fetch is measured both from bytes already in memory and over a loopback connection; a
+ * device's network round trip only adds to either. The store, which a device reads in between,
+ * is left out as it needs SQLite. Each operation yields the first screen of 15 rows from a
+ * page of 50 articles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StartupBenchmark {
+    private static final int PAGE_ARTICLES = 50;
+    private static final int FIRST_SCREEN_ROWS = 15;
+
+    private byte[] body;
+    private File snapshot;
+    private HttpServer server;
+    private URL url;
+
+    @Setup
+    public void setUp() throws IOException {
+        body = Fixtures.load(PAGE_ARTICLES);
+        snapshot = File.createTempFile("startup", ".snapshot");
+        NewsSnapshot.write(snapshot, Fixtures.createFormatter().format(Fixtures.loadArticles(PAGE_ARTICLES)), FIRST_SCREEN_ROWS);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/search", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.start();
+        url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/search");
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+        snapshot.delete();
+    }
+
+    @Benchmark
+    public List<NewsRow> withSnapshot() throws IOException {
+        return NewsSnapshot.read(snapshot);
+    }
+
+    @Benchmark
+    public List<NewsRow> withoutSnapshotFromMemory() throws IOException {
+        List<TechNews> techNews = new ArrayList<>(PAGE_ARTICLES);
+        Fixtures.createParser().parseStream(new ByteArrayInputStream(body), Fixtures.UTF_8, techNews, null);
+        return firstScreen(techNews);
+    }
+
+    @Benchmark
+    public List<NewsRow> withoutSnapshotOverLoopback() throws IOException {
+        List<TechNews> techNews = new ArrayList<>(PAGE_ARTICLES);
+        GuardianJsonParser parser = Fixtures.createParser();
+        HttpTransport.Response response = HttpTransport.getInstance().get(url, Collections.<String, String>emptyMap());
+        try {
+            parser.parseStream(response.getBody(), Fixtures.UTF_8, techNews, null);
+        } finally {
+            response.close();
+        }
+        return firstScreen(techNews);
+    }
+
+    /**
+     * A cold start also builds its formatter, as the app does once per load.
+     */
+    private static List<NewsRow> firstScreen(List<TechNews> techNews) {
+        NewsRowFormatter formatter = Fixtures.createFormatter();
+        return formatter.format(techNews.subList(0, Math.min(FIRST_SCREEN_ROWS, techNews.size())));
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.p8technews.benchmark;
+
+import com.example.p8technews.NewsRow;
+import com.example.p8technews.NewsTimeline;
+import com.example.p8technews.TechNews;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merging a page of 50 rows into a long timeline: {@link NewsTimeline}, against copying the
+ * list with a set of web addresses and sorting it again, as a list adapter would otherwise.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimelineBenchmark {
+    private static final long HOUR = 3600000L;
+
+    private static final Comparator<NewsRow> NEWEST_FIRST = new Comparator<NewsRow>() {
+        @Override
+        public int compare(NewsRow first, NewsRow second) {
+            return Long.compare(second.getPublishedAtMillis(), first.getPublishedAtMillis());
+        }
+    };
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private final Random random = new Random(7);
+    private List<NewsRow> history;
+    private List<NewsRow> page;
+    private NewsTimeline timeline;
+    private List<NewsRow> list;
+    private Set<String> webUrls;
+    private int pages;
+
+    @Setup
+    public void setUp() {
+        history = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            history.add(row("https://www.theguardian.com/technology/" + i, random.nextInt(100000)));
+        }
+    }
+
+    /**
+     * Every merge starts from the same history with a page of articles not seen before.
+     */
+    @Setup(Level.Invocation)
+    public void setUpPage() {
+        timeline = new NewsTimeline();
+        timeline.merge(history, null);
+        list = new ArrayList<>(history);
+        webUrls = new HashSet<>();
+        for (NewsRow newsRow : history) {
+            webUrls.add(newsRow.getTechNews().getWebUrl());
+        }
+        page = new ArrayList<>(50);
+        pages++;
+        for (int i = 0; i < 50; i++) {
+            page.add(row("https://www.theguardian.com/technology/new-" + pages + "-" + i, random.nextInt(110000)));
+        }
+    }
+
+    @Benchmark
+    public int timelineMerge() {
+        return timeline.merge(page, null);
+    }
+
+    @Benchmark
+    public List<NewsRow> copyAndSort() {
+        List<NewsRow> merged = new ArrayList<>(list.size() + page.size());
+        merged.addAll(list);
+        for (NewsRow newsRow : page) {
+            if (webUrls.add(newsRow.getTechNews().getWebUrl())) {
+                merged.add(newsRow);
+            }
+        }
+        Collections.sort(merged, NEWEST_FIRST);
+        return merged;
+    }
+
+    private static NewsRow row(String webUrl, long hours) {
+        return new NewsRow(new TechNews("Title " + webUrl, "Technology", null, webUrl, null, null),
+                hours * HOUR, "date", "time", "Author N/A");
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.p8technews;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, priority-ordered queue of article body downloads into an {@link ArticleBodyStore}.
+ * <p>
+ * An article the reader opens goes before articles on screen, which go before articles about
+ * to scroll into view; within a priority, the latest request goes first, since it is about the
+ * rows the user looks at now. A request for an article already queued raises its priority if
+ * needed instead of queueing it twice, and a request for one being downloaded waits for that
+ * download. Once the queue is full, a new request pushes out the last one in order, or is
+ * dropped itself if it would be last. A fixed number of downloads run at a time, and a body
+ * that is stored already is not downloaded again.
+ */
+public class ArticleBodyQueue {
+    /**
+     * Download priorities, the most urgent first.
+     */
+    public enum Priority {
+        OPEN, VISIBLE, AHEAD
+    }
+
+    /**
+     * Downloads the body of an article, on a worker thread.
+     */
+    public interface Downloader {
+        /**
+         * @param priority of the request when its download started
+         * @return the body as plain text, or null if the article has none
+         */
+        String download(String webUrl, Priority priority) throws IOException;
+    }
+
+    /**
+     * Told, on a worker thread or on the requesting one, how a requested download ended.
+     */
+    public interface OnBodyListener {
+        /**
+         * @param bodyText the stored body, or null if it could not be downloaded or the
+         *                 request was pushed out of the queue
+         */
+        void onBody(String webUrl, String bodyText);
+    }
+
+    private final ArticleBodyStore store;
+    private final Downloader downloader;
+    private final Executor executor;
+    private final int capacity;
+    private final int maxRunning;
+
+    /**
+     * Queued requests in order, the same requests by web address, and the downloads running.
+     */
+    private final TreeSet<Request> queue = new TreeSet<>();
+    private final Map<String, Request> queued = new HashMap<>();
+    private final Map<String, Request> running = new HashMap<>();
+    private long nextSequence;
+
+    private final AtomicLong downloadCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private static class Request implements Comparable<Request> {
+        final String webUrl;
+        Priority priority;
+        long sequence;
+        List<OnBodyListener> listeners;
+
+        Request(String webUrl) {
+            this.webUrl = webUrl;
+        }
+
+        void addListener(OnBodyListener listener) {
+            if (listener != null) {
+                if (listeners == null) {
+                    listeners = new ArrayList<>(1);
+                }
+                listeners.add(listener);
+            }
+        }
+
+        /**
+         * By priority, then latest request first.
+         */
+        @Override
+        public int compareTo(Request other) {
+            if (priority != other.priority) {
+                return priority.compareTo(other.priority);
+            }
+            return sequence > other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+
+    /**
+     * @param executor   runs the downloads; it should have at least maxRunning threads
+     * @param capacity   number of requests queued at most, besides those running
+     * @param maxRunning number of downloads running at a time
+     */
+    public ArticleBodyQueue(ArticleBodyStore store, Downloader downloader, Executor executor,
+                            int capacity, int maxRunning) {
+        this.store = store;
+        this.downloader = downloader;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.maxRunning = maxRunning;
+    }
+
+    /**
+     * Queue the download of an article's body, unless it is queued or running already.
+     *
+     * @param listener told how the download ended, or null
+     */
+    public void request(String webUrl, Priority priority, OnBodyListener listener) {
+        Request dropped = null;
+        synchronized (this) {
+            Request request = running.get(webUrl);
+            if (request != null) {
+                request.addListener(listener);
+                return;
+            }
+            request = queued.get(webUrl);
+            if (request != null) {
+                if (priority.compareTo(request.priority) < 0) {
+                    queue.remove(request);
+                    request.priority = priority;
+                    request.sequence = nextSequence++;
+                    queue.add(request);
+                }
+                request.addListener(listener);
+                return;
+            }
+            request = new Request(webUrl);
+            request.priority = priority;
+            request.sequence = nextSequence++;
+            request.addListener(listener);
+            queue.add(request);
+            queued.put(webUrl, request);
+            if (queue.size() > capacity) {
+                dropped = queue.pollLast();
+                queued.remove(dropped.webUrl);
+                droppedCount.incrementAndGet();
+            }
+            if (running.size() < maxRunning && !queue.isEmpty()) {
+                startNext();
+            }
+        }
+        if (dropped != null) {
+            notifyListeners(dropped.webUrl, dropped.listeners, null);
+        }
+    }
+
+    /**
+     * Move the first queued request to the running ones and hand it to the executor.
+     * Called with the lock held.
+     */
+    private void startNext() {
+        final Request request = queue.pollFirst();
+        final Priority priority = request.priority;
+        queued.remove(request.webUrl);
+        running.put(request.webUrl, request);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean stored = store.contains(request.webUrl);
+                String bodyText = stored ? null : download(request.webUrl, priority);
+                List<OnBodyListener> listeners;
+                synchronized (ArticleBodyQueue.this) {
+                    running.remove(request.webUrl);
+                    listeners = request.listeners;
+                    if (!queue.isEmpty()) {
+                        startNext();
+                    }
+                }
+                /**
+                 * A stored body is only read for a listener; prefetching it again costs one
+                 * file lookup. No listener can be added once the request stopped running.
+                 */
+                if (stored && listeners != null) {
+                    bodyText = store.get(request.webUrl);
+                }
+                notifyListeners(request.webUrl, listeners, bodyText);
+            }
+        });
+    }
+
+    /**
+     * Download the body and store it.
+     *
+     * @return the body, or null if the download failed or the article has none
+     */
+    private String download(String webUrl, Priority priority) {
+        try {
+            String bodyText = downloader.download(webUrl, priority);
+            if (bodyText != null) {
+                store.put(webUrl, bodyText);
+                downloadCount.incrementAndGet();
+            }
+            return bodyText;
+        } catch (IOException | RuntimeException e) {
+            failureCount.incrementAndGet();
+            return null;
+        }
+    }
+
+    private static void notifyListeners(String webUrl, List<OnBodyListener> listeners, String bodyText) {
+        if (listeners != null) {
+            for (OnBodyListener listener : listeners) {
+                listener.onBody(webUrl, bodyText);
+            }
+        }
+    }
+
+    /**
+     * Number of requests queued, besides those running.
+     */
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Number of bodies downloaded and stored.
+     */
+    public long getDownloadCount() {
+        return downloadCount.get();
+    }
+
+    /**
+     * Number of downloads that failed.
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * Number of requests pushed out of the full queue.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+}
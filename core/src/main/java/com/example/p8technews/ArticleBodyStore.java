@@ -0,0 +1,164 @@
+package com.example.p8technews;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Article bodies kept on disk for offline reading, one deflate-compressed file per article,
+ * under a byte budget.
+ * <p>
+ * A file is named after the 64-bit hash of the article's web address and holds, compressed,
+ * the web address itself, so a hash collision reads as a miss, followed by the body as
+ * length-prefixed UTF-8. Plain text compresses to about a third, so the budget holds three
+ * times as many articles. Reading a body touches its file, and once the budget is exceeded the
+ * least recently read or written files are deleted first.
+ */
+public class ArticleBodyStore {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final File directory;
+    private final LruDirectory files;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+    private final AtomicLong compressedBytes = new AtomicLong();
+
+    public ArticleBodyStore(File directory, long maxBytes) {
+        this.directory = directory;
+        this.files = new LruDirectory(directory, maxBytes);
+    }
+
+    /**
+     * Return whether the body of the article is stored, without reading it.
+     */
+    public boolean contains(String webUrl) {
+        return getFile(webUrl).isFile();
+    }
+
+    /**
+     * Read the stored body of the article.
+     *
+     * @return the body, or null if it is not stored or its file cannot be read
+     */
+    public String get(String webUrl) {
+        File file = getFile(webUrl);
+        if (!file.isFile()) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new InflaterInputStream(
+                    new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)));
+            if (!webUrl.equals(in.readUTF())) {
+                missCount.incrementAndGet();
+                return null;
+            }
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            file.setLastModified(System.currentTimeMillis());
+            hitCount.incrementAndGet();
+            return new String(body, UTF_8);
+        } catch (IOException e) {
+            /**
+             * Corrupt or deleted under us by a trim; either way it is as good as not stored.
+             */
+            files.delete(file);
+        } finally {
+            closeQuietly(in);
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Store the body of the article, replacing any stored before. It is written to a
+     * temporary file first, so a reader never sees a half-written body.
+     */
+    public void put(String webUrl, String bodyText) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File target = getFile(webUrl);
+        File temporary = files.getTemporaryFile(target);
+        byte[] body = bodyText.getBytes(UTF_8);
+        DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temporary), BUFFER_SIZE)));
+        try {
+            out.writeUTF(webUrl);
+            out.writeInt(body.length);
+            out.write(body);
+        } catch (IOException e) {
+            closeQuietly(out);
+            temporary.delete();
+            throw e;
+        }
+        out.close();
+        long previousLength = target.length();
+        if (!temporary.renameTo(target)) {
+            temporary.delete();
+            throw new IOException("Cannot rename " + temporary);
+        }
+        uncompressedBytes.addAndGet(body.length);
+        compressedBytes.addAndGet(target.length());
+        files.onFileWritten(target.length() - previousLength);
+    }
+
+    private File getFile(String webUrl) {
+        return new File(directory, String.format("%016x", NewsTimeline.hash(webUrl)));
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+                /**
+                 * Nothing was written through it that still matters.
+                 */
+            }
+        }
+    }
+
+    /**
+     * Bytes used by the stored files, or -1 before the first write.
+     */
+    public long getStoredBytes() {
+        return files.getBytes();
+    }
+
+    /**
+     * Number of bodies read from the store.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Number of reads that found no body.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Compressed size of the bodies written so far, as a share of their UTF-8 size.
+     */
+    public float getCompressionRatio() {
+        long uncompressed = uncompressedBytes.get();
+        return uncompressed == 0 ? 0 : (float) compressedBytes.get() / uncompressed;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.p8technews;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Small pool of byte arrays reused for reading response bodies, so each load
+ * does not allocate (and later collect) a fresh set of read buffers.
+ */
+public class ByteBufferPool {
+    private final int maxPooledBuffers;
+    private final int maxPooledBufferSize;
+    private final ArrayDeque<byte[]> buffers = new ArrayDeque<>();
+
+    /**
+     * @param maxPooledBuffers    number of arrays kept around between uses
+     * @param maxPooledBufferSize arrays larger than this are left to the garbage collector
+     */
+    public ByteBufferPool(int maxPooledBuffers, int maxPooledBufferSize) {
+        this.maxPooledBuffers = maxPooledBuffers;
+        this.maxPooledBufferSize = maxPooledBufferSize;
+    }
+
+    /**
+     * Return a pooled array of at least minLength bytes, or a new one if none fits.
+     */
+    public synchronized byte[] acquire(int minLength) {
+        Iterator<byte[]> iterator = buffers.iterator();
+        while (iterator.hasNext()) {
+            byte[] buffer = iterator.next();
+            if (buffer.length >= minLength) {
+                iterator.remove();
+                return buffer;
+            }
+        }
+        return new byte[minLength];
+    }
+
+    /**
+     * Hand an array back to the pool. The caller must not touch it afterwards.
+     */
+    public synchronized void release(byte[] buffer) {
+        if (buffer == null || buffer.length > maxPooledBufferSize) {
+            return;
+        }
+        if (buffers.size() >= maxPooledBuffers) {
+            /**
+             * Keep the larger arrays, they are the ones that save a regrow.
+             */
+            byte[] smallest = null;
+            for (byte[] pooled : buffers) {
+                if (smallest == null || pooled.length < smallest.length) {
+                    smallest = pooled;
+                }
+            }
+            if (smallest == null || smallest.length >= buffer.length) {
+                return;
+            }
+            buffers.remove(smallest);
+        }
+        buffers.push(buffer);
+    }
+}
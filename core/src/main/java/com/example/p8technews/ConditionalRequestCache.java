@@ -0,0 +1,127 @@
+package com.example.p8technews;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the HTTP validators (ETag / Last-Modified) and the parsed list of {@link TechNews}
+ * per request URL, so a refresh can be sent as a conditional request and a 304 Not Modified
+ * answer reuses the previous list without reading or parsing a body.
+ */
+public class ConditionalRequestCache {
+    /**
+     * Maximum number of request URLs remembered; the least recently used one is dropped first.
+     */
+    private static final int MAX_ENTRIES = 20;
+
+    private static final ConditionalRequestCache INSTANCE = new ConditionalRequestCache();
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ConditionalRequestCache.Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    /**
+     * Validators and parsed result of the last full response for one request URL.
+     */
+    public static class Entry {
+        private final String eTag;
+        private final String lastModified;
+        private final long contentLength;
+        private final List<TechNews> techNews;
+
+        Entry(String eTag, String lastModified, long contentLength, List<TechNews> techNews) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.contentLength = contentLength;
+            this.techNews = techNews;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public List<TechNews> getTechNews() {
+            return techNews;
+        }
+    }
+
+    public static ConditionalRequestCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Return the remembered validators for the request URL, or null if there are none.
+     */
+    public synchronized Entry get(String requestUrl) {
+        return entries.get(requestUrl);
+    }
+
+    /**
+     * Remember the validators of a full 200 response together with its parsed list.
+     * Responses without any validator cannot be revalidated and are not kept.
+     *
+     * @param contentLength of the response body in bytes, or -1 when unknown
+     */
+    public synchronized void put(String requestUrl, String eTag, String lastModified, long contentLength, List<TechNews> techNews) {
+        if ((eTag == null && lastModified == null) || techNews == null) {
+            entries.remove(requestUrl);
+            return;
+        }
+        entries.put(requestUrl, new Entry(eTag, lastModified, contentLength,
+                Collections.unmodifiableList(new ArrayList<>(techNews))));
+    }
+
+    /**
+     * Record a 304 Not Modified answer: the body read and the parse were skipped.
+     */
+    public void recordHit(Entry entry) {
+        hitCount.incrementAndGet();
+        if (entry.contentLength > 0) {
+            bytesSaved.addAndGet(entry.contentLength);
+        }
+    }
+
+    /**
+     * Record a response whose body had to be downloaded and parsed.
+     */
+    public void recordMiss() {
+        missCount.incrementAndGet();
+    }
+
+    /**
+     * Number of requests answered with 304 Not Modified.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Number of requests that needed a full download and parse.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Response body bytes that did not have to be downloaded thanks to a 304,
+     * based on the Content-Length of the response being revalidated.
+     */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.p8technews;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fetches several {@link NewsSource}s in parallel on a bounded executor and merges their
+ * newest-first lists into one feed ordered by publication date.
+ * <p>
+ * Every source runs against its own timeout, measured from when a worker thread starts fetching
+ * it, so the merged feed waits for the slowest source that still answers in time, never for the
+ * sum of all sources, and a source that is too slow is simply left out. A source queued behind
+ * busy threads is not charged for the wait: it may wait its timeout once for a thread, and then
+ * its timeout again to answer.
+ */
+public class FeedAggregator {
+    /**
+     * Number of sources fetched at the same time.
+     */
+    private static final int MAX_PARALLEL_FETCHES = 4;
+
+    /**
+     * Start time of a source that no worker thread has picked up yet.
+     */
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private static FeedAggregator instance;
+
+    private final ExecutorService executor;
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+
+    /**
+     * Orders cursors by the publication date of their current article, newest first. The
+     * Guardian's ISO-8601 UTC timestamps order correctly as plain strings; missing dates go last.
+     */
+    private static final Comparator<Cursor> NEWEST_FIRST = new Comparator<Cursor>() {
+        @Override
+        public int compare(Cursor first, Cursor second) {
+            String firstDate = first.current().getContentDateAndTime();
+            String secondDate = second.current().getContentDateAndTime();
+            if (firstDate == null || secondDate == null) {
+                return firstDate == null ? (secondDate == null ? 0 : 1) : -1;
+            }
+            return secondDate.compareTo(firstDate);
+        }
+    };
+
+    /**
+     * What to fetch from each source, e.g. one page or only the newer articles.
+     */
+    public interface SourceFetch {
+        /**
+         * Called on a worker thread; returns the source's articles newest first, or null on failure.
+         */
+        List<TechNews> fetch(NewsSource source) throws Exception;
+    }
+
+    public static synchronized FeedAggregator getInstance() {
+        if (instance == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_PARALLEL_FETCHES, MAX_PARALLEL_FETCHES,
+                    30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+            executor.allowCoreThreadTimeOut(true);
+            instance = new FeedAggregator(executor);
+        }
+        return instance;
+    }
+
+    public FeedAggregator(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Run the given fetch against every source in parallel and return the merged feed, or null
+     * when no source answered in time. Blocks the calling thread, which must not be the main one.
+     */
+    public List<TechNews> fetch(List<NewsSource> sources, final SourceFetch sourceFetch) {
+        long submitNanos = System.nanoTime();
+        long metricsStart = PipelineMetrics.start();
+        final AtomicLongArray startNanos = new AtomicLongArray(sources.size());
+        List<Future<List<TechNews>>> futures = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            final int index = i;
+            final NewsSource source = sources.get(i);
+            startNanos.set(index, NOT_STARTED);
+            futures.add(executor.submit(new Callable<List<TechNews>>() {
+                @Override
+                public List<TechNews> call() throws Exception {
+                    startNanos.set(index, System.nanoTime());
+                    return sourceFetch.fetch(source);
+                }
+            }));
+        }
+
+        List<List<TechNews>> feeds = new ArrayList<>(sources.size());
+        for (int i = 0; i < futures.size(); i++) {
+            Future<List<TechNews>> future = futures.get(i);
+            long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(sources.get(i).getTimeoutMillis());
+            try {
+                List<TechNews> feed = await(future, startNanos, i, submitNanos, timeoutNanos);
+                if (feed != null) {
+                    feeds.add(feed);
+                } else {
+                    failureCount.incrementAndGet();
+                }
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                timeoutCount.incrementAndGet();
+            } catch (ExecutionException e) {
+                failureCount.incrementAndGet();
+            } catch (InterruptedException e) {
+                /**
+                 * The load itself was cancelled: stop waiting and cancel whatever is still running.
+                 */
+                for (int j = i; j < futures.size(); j++) {
+                    futures.get(j).cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        List<TechNews> merged = feeds.isEmpty() ? null : mergeNewestFirst(feeds);
+        PipelineMetrics.record(PipelineMetrics.Stage.FETCH, metricsStart, 0, merged == null ? 0 : merged.size());
+        return merged;
+    }
+
+    /**
+     * Wait for one source's feed: for its timeout from when it started, or, while it is still
+     * queued, for its timeout from when it was submitted.
+     */
+    private static List<TechNews> await(Future<List<TechNews>> future, AtomicLongArray startNanos, int index,
+                                        long submitNanos, long timeoutNanos)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        while (true) {
+            long started = startNanos.get(index);
+            long remainingNanos = (started == NOT_STARTED ? submitNanos : started) + timeoutNanos - System.nanoTime();
+            try {
+                return future.get(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (started != NOT_STARTED || startNanos.get(index) == NOT_STARTED) {
+                    throw e;
+                }
+                /**
+                 * Picked up while it was waited for as queued: its own clock has started.
+                 */
+            }
+        }
+    }
+
+    /**
+     * K-way merge of newest-first lists into one newest-first list, dropping articles
+     * that appear in more than one feed. Runs in O(n log k) for n articles over k feeds.
+     */
+    public static List<TechNews> mergeNewestFirst(List<List<TechNews>> feeds) {
+        int total = 0;
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Math.max(1, feeds.size()), NEWEST_FIRST);
+        for (List<TechNews> feed : feeds) {
+            total += feed.size();
+            if (!feed.isEmpty()) {
+                heads.add(new Cursor(feed));
+            }
+        }
+
+        List<TechNews> merged = new ArrayList<>(total);
+        Set<String> webUrls = new HashSet<>(total * 2);
+        while (!heads.isEmpty()) {
+            Cursor cursor = heads.poll();
+            TechNews techNews = cursor.current();
+            if (techNews.getWebUrl() == null || webUrls.add(techNews.getWebUrl())) {
+                merged.add(techNews);
+            }
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Number of source fetches that missed their timeout.
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    /**
+     * Number of source fetches that failed or returned nothing.
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * Read position within one already-sorted feed.
+     */
+    private static class Cursor {
+        private final List<TechNews> feed;
+        private int position;
+
+        Cursor(List<TechNews> feed) {
+            this.feed = feed;
+        }
+
+        TechNews current() {
+            return feed.get(position);
+        }
+
+        boolean advance() {
+            return ++position < feed.size();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.p8technews;
+
+import java.nio.charset.Charset;
+
+/**
+ * Everything about a feed's wire format that used to be looked up from string resources while
+ * parsing: the JSON keys, the format of the publication date and the body's charset. It is
+ * resolved once, so parsing does no lookups and needs no Context.
+ */
+public final class FeedConfig {
+    /**
+     * The Guardian content API's search response.
+     */
+    public static final FeedConfig GUARDIAN = new FeedConfig("response", "results", "webTitle", "sectionName",
+            "webPublicationDate", "webUrl", "fields", "thumbnail", "tags", "content", "bodyText",
+            "yyyy-MM-dd'T'HH:mm:ss'Z'", Charset.forName("UTF-8"));
+
+    private final String responseKey;
+    private final String resultsKey;
+    private final String titleKey;
+    private final String sectionKey;
+    private final String dateAndTimeKey;
+    private final String webUrlKey;
+    private final String fieldsKey;
+    private final String thumbnailKey;
+    private final String tagsKey;
+    private final String contentKey;
+    private final String bodyTextKey;
+    private final String receivedDateFormat;
+    private final Charset charset;
+
+    /**
+     * @param responseKey        of the response object, "response"
+     * @param resultsKey         of the array of articles in it, "results"
+     * @param titleKey           of an article's and of a tag's title, "webTitle"
+     * @param sectionKey         of an article's section name, "sectionName"
+     * @param dateAndTimeKey     of an article's publication date, "webPublicationDate"
+     * @param webUrlKey          of an article's web address, "webUrl"
+     * @param fieldsKey          of an article's extra fields, "fields"
+     * @param thumbnailKey       of the thumbnail among the fields, "thumbnail"
+     * @param tagsKey            of an article's contributor tags, "tags"
+     * @param contentKey         of the article object of a single-item response, "content"
+     * @param bodyTextKey        of the plain-text body among the fields, "bodyText"
+     * @param receivedDateFormat SimpleDateFormat pattern of the publication date
+     * @param charset            of response bodies
+     */
+    public FeedConfig(String responseKey, String resultsKey, String titleKey, String sectionKey,
+                      String dateAndTimeKey, String webUrlKey, String fieldsKey, String thumbnailKey,
+                      String tagsKey, String contentKey, String bodyTextKey, String receivedDateFormat,
+                      Charset charset) {
+        this.responseKey = responseKey;
+        this.resultsKey = resultsKey;
+        this.titleKey = titleKey;
+        this.sectionKey = sectionKey;
+        this.dateAndTimeKey = dateAndTimeKey;
+        this.webUrlKey = webUrlKey;
+        this.fieldsKey = fieldsKey;
+        this.thumbnailKey = thumbnailKey;
+        this.tagsKey = tagsKey;
+        this.contentKey = contentKey;
+        this.bodyTextKey = bodyTextKey;
+        this.receivedDateFormat = receivedDateFormat;
+        this.charset = charset;
+    }
+
+    public String getResponseKey() {
+        return responseKey;
+    }
+
+    public String getResultsKey() {
+        return resultsKey;
+    }
+
+    public String getTitleKey() {
+        return titleKey;
+    }
+
+    public String getSectionKey() {
+        return sectionKey;
+    }
+
+    public String getDateAndTimeKey() {
+        return dateAndTimeKey;
+    }
+
+    public String getWebUrlKey() {
+        return webUrlKey;
+    }
+
+    public String getFieldsKey() {
+        return fieldsKey;
+    }
+
+    public String getThumbnailKey() {
+        return thumbnailKey;
+    }
+
+    public String getTagsKey() {
+        return tagsKey;
+    }
+
+    public String getContentKey() {
+        return contentKey;
+    }
+
+    public String getBodyTextKey() {
+        return bodyTextKey;
+    }
+
+    public String getReceivedDateFormat() {
+        return receivedDateFormat;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Return a new parser for this feed. Parsers are cheap to create but not thread-safe,
+     * so each parse gets its own.
+     */
+    public GuardianJsonParser newParser() {
+        return new GuardianJsonParser(this);
+    }
+
+    /**
+     * Return a new formatter turning this feed's publication dates into the given display formats.
+     */
+    public NewsRowFormatter newFormatter(String dateFormat, String timeFormat, String noAuthorFound) {
+        return new NewsRowFormatter(receivedDateFormat, dateFormat, timeFormat, noAuthorFound);
+    }
+}
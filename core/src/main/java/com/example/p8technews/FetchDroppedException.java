@@ -0,0 +1,15 @@
+package com.example.p8technews;
+
+import java.io.IOException;
+
+/**
+ * A fetch the {@link NetworkScheduler} dropped, as it got no slot before its deadline. Nothing
+ * was sent, so it says nothing about the host's health.
+ */
+public class FetchDroppedException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public FetchDroppedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.p8technews;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends the {@link PipelineMetrics} to a tab-separated file, one line per stage and export.
+ * Kept under the app's external files directory, it can be pulled from a test device with
+ * {@code adb pull /sdcard/Android/data/com.example.p8technews/files/load-metrics.tsv}.
+ */
+public class FileMetricsExporter implements PipelineMetrics.Exporter {
+    private static final String HEADER = "timestamp\tstage\tcount\tp50_us\tp90_us\tp99_us\tmax_us"
+            + "\ttotal_bytes\tp50_bytes\tmax_bytes\ttotal_items\tp50_items\tmax_items\n";
+
+    private final File file;
+
+    public FileMetricsExporter(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Stages that never ran are left out. The histograms are taken and reset in one step
+     * before writing, so every export covers the time since the previous one, values
+     * recorded while writing included.
+     */
+    @Override
+    public synchronized void export() throws IOException {
+        PipelineMetrics.Snapshot snapshot = PipelineMetrics.snapshotAndReset();
+        File directory = file.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        boolean newFile = !file.exists() || file.length() == 0;
+        long timestamp = System.currentTimeMillis();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), Charset.forName("UTF-8"));
+        try {
+            if (newFile) {
+                writer.write(HEADER);
+            }
+            for (PipelineMetrics.Stage stage : PipelineMetrics.Stage.values()) {
+                Histogram durations = snapshot.getDurations(stage);
+                if (durations.getCount() == 0) {
+                    continue;
+                }
+                Histogram bytes = snapshot.getBytes(stage);
+                Histogram items = snapshot.getItems(stage);
+                writer.write(timestamp + "\t" + stage
+                        + "\t" + durations.getCount()
+                        + "\t" + toMicros(durations.getQuantile(0.5))
+                        + "\t" + toMicros(durations.getQuantile(0.9))
+                        + "\t" + toMicros(durations.getQuantile(0.99))
+                        + "\t" + toMicros(durations.getMax())
+                        + "\t" + bytes.getSum() + "\t" + bytes.getQuantile(0.5) + "\t" + bytes.getMax()
+                        + "\t" + items.getSum() + "\t" + items.getQuantile(0.5) + "\t" + items.getMax()
+                        + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
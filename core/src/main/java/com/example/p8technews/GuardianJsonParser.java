@@ -0,0 +1,272 @@
+package com.example.p8technews;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses Guardian search responses into {@link TechNews}, either from a whole body String
+ * (JSON DOM) or token by token from a stream, and single-item responses into an article's body.
+ * <p>
+ * The parser takes its JSON keys from a {@link FeedConfig} resolved once up front and does not
+ * touch resources, a Context or the log, so it also runs on a plain JVM, e.g. in unit tests and
+ * the benchmark module. Streaming goes through Gson's JsonReader, which has the same API as the
+ * platform's. Errors are thrown to the caller, while the articles parsed before the error are
+ * kept in the given list.
+ */
+public class GuardianJsonParser {
+    private final String responseKey;
+    private final String resultsKey;
+    private final String titleKey;
+    private final String sectionKey;
+    private final String dateAndTimeKey;
+    private final String webUrlKey;
+    private final String fieldsKey;
+    private final String thumbnailKey;
+    private final String tagsKey;
+    private final String contentKey;
+    private final String bodyTextKey;
+
+    /**
+     * Authors of the article being parsed. TechNews copies them into an exactly sized array,
+     * so one list serves every article; this is also why a parser must not be shared by threads.
+     */
+    private final List<String> authorBuffer = new ArrayList<>();
+
+    /**
+     * Callback used by the streaming parse mode, notified with each {@link TechNews}
+     * as soon as its JSON object has been closed.
+     */
+    public interface OnArticleParsedListener {
+        void onArticleParsed(TechNews techNews);
+    }
+
+    /**
+     * Use {@link FeedConfig#newParser()}.
+     */
+    GuardianJsonParser(FeedConfig config) {
+        this.responseKey = config.getResponseKey();
+        this.resultsKey = config.getResultsKey();
+        this.titleKey = config.getTitleKey();
+        this.sectionKey = config.getSectionKey();
+        this.dateAndTimeKey = config.getDateAndTimeKey();
+        this.webUrlKey = config.getWebUrlKey();
+        this.fieldsKey = config.getFieldsKey();
+        this.thumbnailKey = config.getThumbnailKey();
+        this.tagsKey = config.getTagsKey();
+        this.contentKey = config.getContentKey();
+        this.bodyTextKey = config.getBodyTextKey();
+    }
+
+    /**
+     * Parse a whole response body through the JSON DOM, adding every article to the given list.
+     */
+    public void parseDocument(String techNewsJSON, List<TechNews> techNews) throws JSONException {
+        /**
+         * Create a JSONObject from the JSON string.
+         */
+        JSONObject baseJsonResponse = new JSONObject(techNewsJSON);
+        /**
+         * Extract the JSONObject associated with the key called "response".
+         */
+        JSONObject responseJSONObject = baseJsonResponse.getJSONObject(responseKey);
+
+        /**
+         * Extract the JSONArray associated with the key called "results",
+         * which represents a list of news articles.
+         */
+        JSONArray techNewsArray = responseJSONObject.getJSONArray(resultsKey);
+
+        /**
+         * For each article in the techNewsArray, crate an {@link TechNews} object.
+         */
+        for (int i = 0; i < techNewsArray.length(); i++) {
+            /**
+             * Get a single news article at position i within the list of techNews.
+             */
+            JSONObject currentTechNews = techNewsArray.getJSONObject(i);
+
+            String title = currentTechNews.getString(titleKey);
+            String section = currentTechNews.getString(sectionKey);
+            String publicationDateAndTime = currentTechNews.getString(dateAndTimeKey);
+            String webUrl = currentTechNews.getString(webUrlKey);
+
+            /**
+             * Extract the value of the key called "thumbnail" from the article's fields.
+             */
+            JSONObject fieldsJSONObject = currentTechNews.getJSONObject(fieldsKey);
+            String thumbnail = fieldsJSONObject.getString(thumbnailKey);
+
+            /**
+             * Extract the JSONArray associated with the key called "tags",
+             * which represents a list of authors.
+             */
+            authorBuffer.clear();
+            if (currentTechNews.has(tagsKey)) {
+                JSONArray tagsArray = currentTechNews.getJSONArray(tagsKey);
+                for (int j = 0; tagsArray != null && j < tagsArray.length(); j++) {
+                    JSONObject currentObjectInTags = tagsArray.getJSONObject(j);
+                    authorBuffer.add(currentObjectInTags.getString(titleKey));
+                }
+            }
+            /**
+             * Create and add a new {@link TechNews} object to the list of techNews.
+             */
+            techNews.add(new TechNews(title, section, publicationDateAndTime, webUrl, thumbnail, authorBuffer));
+        }
+    }
+
+    /**
+     * Pull the "response.results" array token by token and build one {@link TechNews} per
+     * element, adding it to the given list and handing it to the listener. JsonReader reports
+     * unexpected tokens as IllegalStateException.
+     * <p>
+     * The reader is not closed here: the stream belongs to the caller, e.g. a transport response
+     * which drains it to the end so the connection can be reused.
+     *
+     * @param listener notified with each article as soon as it is parsed, or null
+     */
+    public void parseStream(InputStream inputStream, Charset charset, List<TechNews> techNews,
+                            OnArticleParsedListener listener) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(inputStream, charset));
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!responseKey.equals(reader.nextName())) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!resultsKey.equals(reader.nextName())) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    TechNews currentTechNews = readArticle(reader);
+                    techNews.add(currentTechNews);
+                    if (listener != null) {
+                        listener.onArticleParsed(currentTechNews);
+                    }
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Pull "response.content.fields.bodyText" out of a single-item response, skipping
+     * everything else. The stream is not closed here, as in {@link #parseStream}.
+     *
+     * @return the article's body as plain text, or null if the response has none
+     */
+    public String parseBodyText(InputStream inputStream, Charset charset) throws IOException {
+        String bodyText = null;
+        JsonReader reader = new JsonReader(new InputStreamReader(inputStream, charset));
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!responseKey.equals(reader.nextName())) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!contentKey.equals(reader.nextName())) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (!fieldsKey.equals(reader.nextName())) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (bodyTextKey.equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                            bodyText = reader.nextString();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+                reader.endObject();
+            }
+            reader.endObject();
+        }
+        reader.endObject();
+        return bodyText;
+    }
+
+    /**
+     * Read a single element of the "results" array into a {@link TechNews}.
+     */
+    private TechNews readArticle(JsonReader reader) throws IOException {
+        String title = null;
+        String section = null;
+        String publicationDateAndTime = null;
+        String webUrl = null;
+        String thumbnail = null;
+        authorBuffer.clear();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+            } else if (titleKey.equals(name)) {
+                title = reader.nextString();
+            } else if (sectionKey.equals(name)) {
+                section = reader.nextString();
+            } else if (dateAndTimeKey.equals(name)) {
+                publicationDateAndTime = reader.nextString();
+            } else if (webUrlKey.equals(name)) {
+                webUrl = reader.nextString();
+            } else if (fieldsKey.equals(name)) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (thumbnailKey.equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                        thumbnail = reader.nextString();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else if (tagsKey.equals(name)) {
+                /**
+                 * Each contributor tag carries the author's name under "webTitle".
+                 */
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (titleKey.equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                            authorBuffer.add(reader.nextString());
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new TechNews(title, section, publicationDateAndTime, webUrl, thumbnail, authorBuffer);
+    }
+}
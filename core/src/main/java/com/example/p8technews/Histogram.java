@@ -0,0 +1,99 @@
+package com.example.p8technews;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative longs in power-of-two buckets: bucket i counts the values
+ * in [2^i, 2^(i+1)), bucket 0 also counts 0. Recording is a few atomic increments and never
+ * allocates, so it can sit on hot paths; quantiles are estimated to within a factor of two.
+ */
+public class Histogram {
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets.incrementAndGet(value == 0 ? 0 : 63 - Long.numberOfLeadingZeros(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getSum() {
+        return sum.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Estimate the value below which the given share of the recorded values fall: the upper
+     * bound of the bucket holding that rank, but never more than the largest value recorded.
+     *
+     * @param quantile between 0 and 1, e.g. 0.99
+     */
+    public long getQuantile(double quantile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                long upperBound = i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                return Math.min(upperBound, max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Return a copy of the histogram and reset it, without stopping recorders: every value
+     * is counted either by the copy or by the histogram afterwards, none is lost in between.
+     * A value recorded during the call may have its sum and maximum in the other one.
+     */
+    public Histogram snapshotAndReset() {
+        Histogram snapshot = new Histogram();
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucket = buckets.getAndSet(i, 0);
+            snapshot.buckets.set(i, bucket);
+            total += bucket;
+        }
+        /**
+         * The count is taken from the buckets moved, so both histograms stay consistent
+         * with their buckets once the recorders running meanwhile are done.
+         */
+        count.addAndGet(-total);
+        snapshot.count.set(total);
+        snapshot.sum.set(sum.getAndSet(0));
+        snapshot.max.set(max.getAndSet(0));
+        return snapshot;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.p8technews;
+
+import java.io.IOException;
+
+/**
+ * A response other than 200 OK or 304 Not Modified.
+ */
+public class HttpStatusException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int responseCode;
+
+    public HttpStatusException(int responseCode, String message) {
+        super(message);
+        this.responseCode = responseCode;
+    }
+
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    /**
+     * Server errors and throttling are worth another attempt; other client errors would
+     * only fail the same way again.
+     */
+    public boolean isRetryable() {
+        return responseCode >= 500 || responseCode == 429 || responseCode == 408;
+    }
+}
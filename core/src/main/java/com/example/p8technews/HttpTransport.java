@@ -0,0 +1,340 @@
+package com.example.p8technews;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Shared HTTP transport for {@link QueryUtils}, thumbnails and article bodies.
+ * <p>
+ * Connections are never disconnected: a response body is always read to its end and closed,
+ * which hands the keep-alive connection back to the platform's connection pool for the next
+ * load. Responses are requested gzip-compressed and bodies are decoded in one pass from pooled
+ * byte arrays instead of line by line.
+ */
+public class HttpTransport {
+    /**
+     * Kept well below a source's fetch timeout, so a stalled attempt still leaves
+     * time for {@link ResilientFetcher} to retry it.
+     */
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final int READ_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Number of idle keep-alive connections kept per host.
+     */
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+
+    /**
+     * Initial read buffer size when the decoded body size is not known up front.
+     */
+    private static final int DEFAULT_BODY_SIZE = 16 * 1024;
+
+    private static HttpTransport instance;
+
+    private final ByteBufferPool bufferPool = new ByteBufferPool(4, 1024 * 1024);
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+
+    public static synchronized HttpTransport getInstance() {
+        if (instance == null) {
+            instance = new HttpTransport();
+        }
+        return instance;
+    }
+
+    HttpTransport() {
+    }
+
+    /**
+     * Size the platform's keep-alive connection pool, which every HttpURLConnection of the
+     * process shares. The settings are process-wide system properties that the pool only reads
+     * when it is created, so this is called once at application start, before any connection.
+     */
+    public static void configureConnectionPool() {
+        System.setProperty("http.keepAlive", "true");
+        System.setProperty("http.maxConnections", String.valueOf(MAX_IDLE_CONNECTIONS));
+    }
+
+    /**
+     * Send a GET request with the given extra headers and return the connected response.
+     * The caller must close the response, which is what returns the connection to the pool.
+     */
+    public Response get(URL url, Map<String, String> headers) throws IOException {
+        return get(url, headers, null);
+    }
+
+    /**
+     * Send a GET request as {@link #get(URL, Map)} does, for a fetch run by the
+     * {@link NetworkScheduler}: preempting the fetch disconnects the request, which then fails
+     * with an IOException wherever it is blocked.
+     *
+     * @param ticket of the fetch, or null
+     */
+    public Response get(URL url, Map<String, String> headers, NetworkScheduler.Ticket ticket) throws IOException {
+        final HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
+        if (ticket != null) {
+            ticket.setAbortAction(new Runnable() {
+                @Override
+                public void run() {
+                    urlConnection.disconnect();
+                }
+            });
+        }
+        urlConnection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        urlConnection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        urlConnection.setRequestMethod("GET");
+
+        /**
+         * Asking for gzip explicitly turns off any transparent decompression,
+         * so the body is unwrapped in {@link Response#getBody()}.
+         */
+        urlConnection.setRequestProperty("Accept-Encoding", "gzip");
+        if (headers != null) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                urlConnection.setRequestProperty(header.getKey(), header.getValue());
+            }
+        }
+        urlConnection.connect();
+        requestCount.incrementAndGet();
+        return new Response(urlConnection);
+    }
+
+    /**
+     * Read the whole stream into a pooled byte array and decode it with a single
+     * String construction. No intermediate lines or StringBuilder copies are made.
+     *
+     * @param sizeHint expected number of bytes, or a value below 1 when unknown
+     */
+    public String readFully(InputStream inputStream, Charset charset, int sizeHint) throws IOException {
+        PooledBytes bytes = readPooled(inputStream, sizeHint);
+        try {
+            return new String(bytes.buffer, 0, bytes.length, charset);
+        } finally {
+            bufferPool.release(bytes.buffer);
+        }
+    }
+
+    /**
+     * Read the whole stream into an exactly sized byte array, e.g. an image to decode.
+     *
+     * @param sizeHint expected number of bytes, or a value below 1 when unknown
+     */
+    public byte[] readBytes(InputStream inputStream, int sizeHint) throws IOException {
+        PooledBytes bytes = readPooled(inputStream, sizeHint);
+        try {
+            return Arrays.copyOf(bytes.buffer, bytes.length);
+        } finally {
+            bufferPool.release(bytes.buffer);
+        }
+    }
+
+    /**
+     * Fill a pooled array with the whole stream, growing it as needed.
+     * The caller must release the returned buffer back to the pool.
+     */
+    private PooledBytes readPooled(InputStream inputStream, int sizeHint) throws IOException {
+        byte[] buffer = bufferPool.acquire(sizeHint > 0 ? sizeHint + 1 : DEFAULT_BODY_SIZE);
+        int length = 0;
+        try {
+            int read;
+            while ((read = inputStream.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+                if (length == buffer.length) {
+                    byte[] grown = bufferPool.acquire(buffer.length * 2);
+                    System.arraycopy(buffer, 0, grown, 0, length);
+                    bufferPool.release(buffer);
+                    buffer = grown;
+                }
+            }
+        } catch (IOException e) {
+            bufferPool.release(buffer);
+            throw e;
+        }
+        decodedBytes.addAndGet(length);
+        return new PooledBytes(buffer, length);
+    }
+
+    /**
+     * Number of requests sent through this transport.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Body bytes received over the network, before decompression.
+     */
+    public long getWireBytes() {
+        return wireBytes.get();
+    }
+
+    /**
+     * Body bytes read by {@link #readFully} and {@link #readBytes}, after decompression.
+     */
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    /**
+     * A connected response. Closing it drains whatever is left of the body so the
+     * underlying connection can be reused.
+     */
+    public class Response implements Closeable {
+        private final HttpURLConnection urlConnection;
+        private final int responseCode;
+        private CountingInputStream wireStream;
+        private InputStream body;
+
+        Response(HttpURLConnection urlConnection) throws IOException {
+            this.urlConnection = urlConnection;
+            this.responseCode = urlConnection.getResponseCode();
+        }
+
+        public int getResponseCode() {
+            return responseCode;
+        }
+
+        public String getHeaderField(String name) {
+            return urlConnection.getHeaderField(name);
+        }
+
+        /**
+         * Content-Length of the body as sent over the wire, or -1 when unknown.
+         */
+        public int getContentLength() {
+            return urlConnection.getContentLength();
+        }
+
+        /**
+         * Return the decompressed body stream.
+         */
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                InputStream raw = responseCode >= HttpURLConnection.HTTP_BAD_REQUEST
+                        ? urlConnection.getErrorStream() : urlConnection.getInputStream();
+                wireStream = new CountingInputStream(raw != null ? raw : new ByteArrayInputStream(new byte[0]));
+                if ("gzip".equalsIgnoreCase(urlConnection.getContentEncoding())) {
+                    body = new GZIPInputStream(wireStream, 8192);
+                } else {
+                    body = wireStream;
+                }
+            }
+            return body;
+        }
+
+        /**
+         * Read and decode the whole body.
+         */
+        public String readBody(Charset charset) throws IOException {
+            return readFully(getBody(), charset, getDecodedLengthHint());
+        }
+
+        /**
+         * Read the whole body as bytes.
+         */
+        public byte[] readBodyBytes() throws IOException {
+            return readBytes(getBody(), getDecodedLengthHint());
+        }
+
+        /**
+         * The Content-Length only tells the decoded size when the body is not compressed.
+         */
+        private int getDecodedLengthHint() {
+            boolean identity = !"gzip".equalsIgnoreCase(urlConnection.getContentEncoding());
+            return identity ? getContentLength() : -1;
+        }
+
+        /**
+         * Body bytes received over the network so far, before decompression.
+         */
+        public long getWireBytes() {
+            return wireStream == null ? 0 : wireStream.count;
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (wireStream == null && responseCode != HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    getBody();
+                }
+                if (wireStream != null) {
+                    /**
+                     * Skip to the end of the raw stream: a connection is only reused
+                     * once its previous body has been consumed completely.
+                     */
+                    while (wireStream.skip(Long.MAX_VALUE) > 0 || wireStream.read() != -1) {
+                        /* keep draining */
+                    }
+                    wireStream.close();
+                }
+            } catch (IOException e) {
+                /**
+                 * A connection that failed mid-body cannot be reused, so it is dropped.
+                 */
+                urlConnection.disconnect();
+            } finally {
+                wireBytes.addAndGet(getWireBytes());
+            }
+        }
+    }
+
+    /**
+     * A pooled buffer and the number of bytes it holds.
+     */
+    private static class PooledBytes {
+        final byte[] buffer;
+        final int length;
+
+        PooledBytes(byte[] buffer, int length) {
+            this.buffer = buffer;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Counts the bytes read from the network, before any decompression.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read != -1) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
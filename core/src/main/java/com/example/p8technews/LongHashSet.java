@@ -0,0 +1,99 @@
+package com.example.p8technews;
+
+import java.util.Arrays;
+
+/**
+ * Set of longs in a single open-addressing array with linear probing: no boxing and no
+ * entry objects, so it costs 8 to 16 bytes per element. 0 marks an empty slot, so it is
+ * stored remapped to another value; callers use it for well-mixed hashes, where that makes
+ * no practical difference.
+ */
+public class LongHashSet {
+    private static final long EMPTY = 0;
+    private static final long ZERO_REPLACEMENT = 0x9e3779b97f4a7c15L;
+
+    private long[] table;
+    private int size;
+
+    public LongHashSet(int expectedSize) {
+        table = new long[tableSizeFor(expectedSize)];
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Add the value.
+     *
+     * @return true if it was not in the set yet
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            value = ZERO_REPLACEMENT;
+        }
+        int mask = table.length - 1;
+        int index = slot(value, mask);
+        while (table[index] != EMPTY) {
+            if (table[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        table[index] = value;
+        /**
+         * Grow past a load factor of 1/2, which keeps probe sequences short.
+         */
+        if (++size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            value = ZERO_REPLACEMENT;
+        }
+        int mask = table.length - 1;
+        int index = slot(value, mask);
+        while (table[index] != EMPTY) {
+            if (table[index] == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        table = new long[capacity];
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value != EMPTY) {
+                int index = slot(value, mask);
+                while (table[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = value;
+            }
+        }
+    }
+
+    private static int slot(long value, int mask) {
+        return (int) (value ^ (value >>> 32)) & mask;
+    }
+}
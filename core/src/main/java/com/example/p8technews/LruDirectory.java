@@ -0,0 +1,137 @@
+package com.example.p8technews;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The byte budget of a directory of cached files, trimmed least recently used first.
+ * <p>
+ * Its owner touches a file when it reads it and reports each file it writes; once the files
+ * exceed the budget, the oldest are deleted until they are back under it. A file is written
+ * under a name ending in {@link #TEMPORARY_SUFFIX} and renamed when complete, and such files
+ * are neither counted nor deleted here, as they belong to their writer until renamed.
+ */
+public class LruDirectory {
+    /**
+     * Suffix of a file being written.
+     */
+    public static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /**
+     * The directory is trimmed down to this share of its budget, so a trim is not
+     * needed again after every single write.
+     */
+    private static final float TRIM_TARGET = 0.9f;
+
+    private final File directory;
+    private final long maxBytes;
+
+    /**
+     * Bytes used by the files, computed on the first write.
+     */
+    private long bytes = -1;
+
+    public LruDirectory(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Return the file a write of the given file goes to before it is renamed.
+     */
+    public File getTemporaryFile(File target) {
+        return new File(directory, target.getName() + TEMPORARY_SUFFIX);
+    }
+
+    /**
+     * Delete a file, such as one found corrupt, and stop counting it.
+     */
+    public synchronized void delete(File file) {
+        long length = file.length();
+        if (file.delete() && bytes >= 0) {
+            bytes -= length;
+        }
+    }
+
+    /**
+     * Count a file that was written, trimming the directory if it is now over its budget.
+     *
+     * @param lengthDelta the length of the file, less that of the file it replaced
+     */
+    public synchronized void onFileWritten(long lengthDelta) {
+        if (bytes < 0) {
+            bytes = 0;
+            File[] files = listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    bytes += file.length();
+                }
+            }
+        } else {
+            bytes += lengthDelta;
+        }
+        if (bytes > maxBytes) {
+            trim();
+        }
+    }
+
+    /**
+     * Delete the least recently used files until the directory is back under its budget.
+     */
+    private void trim() {
+        final File[] files = listFiles();
+        if (files == null) {
+            return;
+        }
+        /**
+         * Readers touch files while the directory is trimmed, so each time is read once: a
+         * comparator reading them as it sorts could see them change and break its contract.
+         */
+        final long[] lastModified = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            lastModified[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                long firstModified = lastModified[first];
+                long secondModified = lastModified[second];
+                return firstModified < secondModified ? -1 : (firstModified == secondModified ? 0 : 1);
+            }
+        });
+        long target = (long) (maxBytes * TRIM_TARGET);
+        for (Integer index : order) {
+            if (bytes <= target) {
+                break;
+            }
+            File file = files[index];
+            long length = file.length();
+            if (file.delete()) {
+                bytes -= length;
+            }
+        }
+    }
+
+    /**
+     * List the files, leaving out those still being written.
+     */
+    private File[] listFiles() {
+        return directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return !file.getName().endsWith(TEMPORARY_SUFFIX);
+            }
+        });
+    }
+
+    /**
+     * Bytes used by the files, or -1 before the first write.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,361 @@
+package com.example.p8technews;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Decides which network fetches of the app run when, whichever thread pool issues them: list
+ * pages, thumbnails and article bodies all ask it for a slot before they open a connection, and
+ * hold the slot until they are done with it.
+ * <p>
+ * Fetches wait in one queue per {@link Priority}: what the user is waiting for goes before
+ * prefetches, which go before background work, and within a priority the first come is served
+ * first. At most a fixed number of fetches run at a time, and at most a smaller number per host.
+ * A fetch the user waits for that finds no free slot preempts a running fetch of a lower priority:
+ * its connection is aborted and it waits for a slot again, ahead of the other fetches of its
+ * priority. A fetch that has not got a slot by its deadline is dropped, since by then the list,
+ * row or sync it was for has moved on. The time every fetch waited is recorded per priority in
+ * {@link PipelineMetrics}.
+ * <p>
+ * The class does not depend on Android, so it can be tested on the JVM.
+ */
+public class NetworkScheduler {
+    /**
+     * Priorities, the most urgent first.
+     */
+    public enum Priority {
+        /**
+         * Something on screen waits for it: the first page, a thumbnail being shown, an opened article.
+         */
+        VISIBLE(PipelineMetrics.Stage.QUEUE_VISIBLE),
+        /**
+         * Needed soon: the next page, thumbnails and bodies of rows about to scroll into view.
+         */
+        PREFETCH(PipelineMetrics.Stage.QUEUE_PREFETCH),
+        /**
+         * Nobody waits for it: syncs and revalidations of cached lists.
+         */
+        BACKGROUND(PipelineMetrics.Stage.QUEUE_BACKGROUND);
+
+        private final PipelineMetrics.Stage waitStage;
+
+        Priority(PipelineMetrics.Stage waitStage) {
+            this.waitStage = waitStage;
+        }
+    }
+
+    /**
+     * Number of fetches running at a time, over all hosts and per host.
+     */
+    private static final int MAX_RUNNING = 6;
+    private static final int MAX_RUNNING_PER_HOST = 4;
+
+    /**
+     * Longest a fetch waits for a slot by default. A list page is left out of the feed after
+     * {@link FeedAggregator}'s source timeout anyway, and a prefetch is useless once its rows
+     * have scrolled by.
+     */
+    private static final long[] DEFAULT_MAX_WAIT_MILLIS = {10000, 5000, 60000};
+
+    private static NetworkScheduler instance;
+
+    private final int maxRunning;
+    private final int maxRunningPerHost;
+    private final long[] defaultMaxWaitMillis;
+
+    /**
+     * Waiting tickets in the order they get a slot, the running ones, and how many run per host.
+     */
+    private final TreeSet<Ticket> waiting = new TreeSet<>();
+    private final List<Ticket> running = new ArrayList<>();
+    private final Map<String, Integer> runningPerHost = new HashMap<>();
+    private long nextSequence;
+
+    private final AtomicLongArray startedCounts = new AtomicLongArray(Priority.values().length);
+    private final AtomicLongArray droppedCounts = new AtomicLongArray(Priority.values().length);
+    private final AtomicLongArray preemptedCounts = new AtomicLongArray(Priority.values().length);
+
+    /**
+     * One fetch, run on the calling thread once it has a slot.
+     */
+    public interface Fetch<T> {
+        /**
+         * @param ticket of the fetch, to be handed to {@link HttpTransport} so the connection
+         *               can be aborted should the fetch be preempted
+         */
+        T run(Ticket ticket) throws IOException;
+    }
+
+    public static synchronized NetworkScheduler getInstance() {
+        if (instance == null) {
+            instance = new NetworkScheduler(MAX_RUNNING, MAX_RUNNING_PER_HOST, DEFAULT_MAX_WAIT_MILLIS);
+        }
+        return instance;
+    }
+
+    /**
+     * @param maxRunning           fetches running at a time at most
+     * @param maxRunningPerHost    fetches running at a time against one host at most
+     * @param defaultMaxWaitMillis longest a fetch waits for a slot, by priority
+     */
+    public NetworkScheduler(int maxRunning, int maxRunningPerHost, long[] defaultMaxWaitMillis) {
+        this.maxRunning = maxRunning;
+        this.maxRunningPerHost = maxRunningPerHost;
+        this.defaultMaxWaitMillis = defaultMaxWaitMillis.clone();
+    }
+
+    /**
+     * Run a fetch once it gets a slot, waiting at most the default time of its priority.
+     *
+     * @see #execute(String, Priority, long, Fetch)
+     */
+    public <T> T execute(String host, Priority priority, Fetch<T> fetch) throws IOException {
+        return execute(host, priority, defaultMaxWaitMillis[priority.ordinal()], fetch);
+    }
+
+    /**
+     * Wait for a slot, then run the fetch on the calling thread and return its result. A fetch
+     * that is preempted waits and runs again, so it must be safe to repeat, as a GET is.
+     *
+     * @param host          the fetch connects to, counted towards its limit
+     * @param maxWaitMillis longest the fetch may wait for a slot, all waits together
+     * @throws FetchDroppedException when the fetch got no slot in time
+     * @throws InterruptedIOException when the calling thread was interrupted while waiting
+     */
+    public <T> T execute(String host, Priority priority, long maxWaitMillis, Fetch<T> fetch) throws IOException {
+        Ticket ticket = new Ticket(host, priority, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis));
+        while (true) {
+            awaitSlot(ticket);
+            try {
+                return fetch.run(ticket);
+            } catch (IOException e) {
+                if (!ticket.preempted) {
+                    throw e;
+                }
+                preemptedCounts.incrementAndGet(priority.ordinal());
+            } finally {
+                release(ticket);
+            }
+        }
+    }
+
+    /**
+     * Queue the ticket and block until it has been given a slot.
+     */
+    private void awaitSlot(Ticket ticket) throws IOException {
+        List<Runnable> aborts;
+        synchronized (this) {
+            ticket.granted = false;
+            ticket.preempted = false;
+            ticket.abortAction = null;
+            ticket.victim = null;
+            ticket.waitStart = PipelineMetrics.start();
+            if (ticket.sequence < 0) {
+                ticket.sequence = nextSequence++;
+            }
+            waiting.add(ticket);
+            aborts = schedule();
+        }
+        runAll(aborts);
+
+        synchronized (this) {
+            try {
+                while (!ticket.granted) {
+                    long remainingNanos = ticket.deadlineNanos - System.nanoTime();
+                    if (remainingNanos <= 0) {
+                        waiting.remove(ticket);
+                        droppedCounts.incrementAndGet(ticket.priority.ordinal());
+                        throw new FetchDroppedException("No slot for " + ticket.priority + " fetch from "
+                                + ticket.host + " in time");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (ticket.granted) {
+                    return;
+                }
+                waiting.remove(ticket);
+                throw new InterruptedIOException("Interrupted waiting for a slot");
+            }
+        }
+    }
+
+    /**
+     * Give the slot of a finished or preempted fetch to the next ones.
+     */
+    private void release(Ticket ticket) {
+        List<Runnable> aborts;
+        synchronized (this) {
+            running.remove(ticket);
+            int count = runningPerHost.get(ticket.host);
+            if (count > 1) {
+                runningPerHost.put(ticket.host, count - 1);
+            } else {
+                runningPerHost.remove(ticket.host);
+            }
+            aborts = schedule();
+        }
+        runAll(aborts);
+    }
+
+    /**
+     * Grant slots to the waiting tickets in order, then let each one still waiting preempt a
+     * running fetch of a lower priority that holds the slot it needs. Called with the lock
+     * held; returns the aborts to run once it is released, since they close connections.
+     */
+    private List<Runnable> schedule() {
+        List<Runnable> aborts = null;
+        boolean granted = false;
+        List<Ticket> blocked = null;
+        for (Ticket ticket : new ArrayList<>(waiting)) {
+            if (ticket.deadlineNanos - System.nanoTime() <= 0) {
+                continue;
+            }
+            if (running.size() < maxRunning && getRunning(ticket.host) < maxRunningPerHost) {
+                waiting.remove(ticket);
+                running.add(ticket);
+                runningPerHost.put(ticket.host, getRunning(ticket.host) + 1);
+                ticket.granted = true;
+                startedCounts.incrementAndGet(ticket.priority.ordinal());
+                PipelineMetrics.record(ticket.priority.waitStage, ticket.waitStart, 0, 1);
+                granted = true;
+            } else {
+                if (blocked == null) {
+                    blocked = new ArrayList<>();
+                }
+                blocked.add(ticket);
+            }
+        }
+        if (blocked != null) {
+            for (Ticket ticket : blocked) {
+                if (ticket.victim != null && running.contains(ticket.victim)) {
+                    continue;
+                }
+                Ticket victim = findVictim(ticket);
+                ticket.victim = victim;
+                if (victim != null) {
+                    victim.preempted = true;
+                    if (aborts == null) {
+                        aborts = new ArrayList<>();
+                    }
+                    aborts.add(victim.abortAction);
+                }
+            }
+        }
+        if (granted) {
+            notifyAll();
+        }
+        return aborts;
+    }
+
+    /**
+     * Return the running fetch to preempt for a waiting one: of a lower priority, holding a
+     * slot of the limit the waiting one is held back by, and abortable. The lowest priority
+     * goes first, then the fetch that started last, as it has done the least work.
+     */
+    private Ticket findVictim(Ticket waiter) {
+        boolean hostFull = getRunning(waiter.host) >= maxRunningPerHost;
+        Ticket victim = null;
+        for (Ticket candidate : running) {
+            if (candidate.priority.compareTo(waiter.priority) <= 0 || candidate.preempted
+                    || candidate.abortAction == null || (hostFull && !candidate.host.equals(waiter.host))) {
+                continue;
+            }
+            if (victim == null || candidate.priority.compareTo(victim.priority) >= 0) {
+                victim = candidate;
+            }
+        }
+        return victim;
+    }
+
+    private int getRunning(String host) {
+        Integer count = runningPerHost.get(host);
+        return count == null ? 0 : count;
+    }
+
+    private static void runAll(List<Runnable> aborts) {
+        if (aborts != null) {
+            for (Runnable abort : aborts) {
+                abort.run();
+            }
+        }
+    }
+
+    /**
+     * Number of fetches waiting for a slot.
+     */
+    public synchronized int getWaitingCount() {
+        return waiting.size();
+    }
+
+    /**
+     * Number of fetches of the priority given a slot, counting a preempted one each time.
+     */
+    public long getStartedCount(Priority priority) {
+        return startedCounts.get(priority.ordinal());
+    }
+
+    /**
+     * Number of fetches of the priority dropped at their deadline.
+     */
+    public long getDroppedCount(Priority priority) {
+        return droppedCounts.get(priority.ordinal());
+    }
+
+    /**
+     * Number of times a fetch of the priority was preempted.
+     */
+    public long getPreemptedCount(Priority priority) {
+        return preemptedCounts.get(priority.ordinal());
+    }
+
+    /**
+     * A fetch waiting for a slot or running. Its fetch sets how its connection is aborted.
+     */
+    public class Ticket implements Comparable<Ticket> {
+        private final String host;
+        private final Priority priority;
+        private final long deadlineNanos;
+        private long sequence = -1;
+        private long waitStart;
+        private boolean granted;
+        private volatile boolean preempted;
+        private Runnable abortAction;
+        private Ticket victim;
+
+        Ticket(String host, Priority priority, long deadlineNanos) {
+            this.host = host;
+            this.priority = priority;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Set what aborts the fetch, e.g. disconnecting its connection, making it throw an
+         * IOException. Only a fetch that set one is preempted.
+         */
+        public void setAbortAction(Runnable abortAction) {
+            synchronized (NetworkScheduler.this) {
+                this.abortAction = abortAction;
+            }
+        }
+
+        /**
+         * By priority, then first queued first; a preempted fetch keeps its place.
+         */
+        @Override
+        public int compareTo(Ticket other) {
+            if (priority != other.priority) {
+                return priority.compareTo(other.priority);
+            }
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+}
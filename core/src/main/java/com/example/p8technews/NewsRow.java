@@ -0,0 +1,65 @@
+package com.example.p8technews;
+
+/**
+ * Ready-to-bind display model of a {@link TechNews}: everything a list row shows is
+ * parsed and formatted up front by {@link NewsRowFormatter}, off the main thread.
+ */
+public class NewsRow {
+    private final TechNews mTechNews;
+    private final long mPublishedAtMillis;
+    private final String mDate;
+    private final String mTime;
+    private final String mAuthors;
+
+    /**
+     * Create a new NewsRow object.
+     *
+     * @param techNews          is the article being displayed
+     * @param publishedAtMillis is the publication time in epoch milliseconds, or 0 if unknown
+     * @param date              is the preformatted publication date, or null if unknown
+     * @param time              is the preformatted publication time, or null if unknown
+     * @param authors           is the author line, already joined
+     */
+    public NewsRow(TechNews techNews, long publishedAtMillis, String date, String time, String authors) {
+        mTechNews = techNews;
+        mPublishedAtMillis = publishedAtMillis;
+        mDate = date;
+        mTime = time;
+        mAuthors = authors;
+    }
+
+    /**
+     * Get the article behind this row.
+     */
+    public TechNews getTechNews() {
+        return mTechNews;
+    }
+
+    /**
+     * Get the publication time of the article in epoch milliseconds.
+     */
+    public long getPublishedAtMillis() {
+        return mPublishedAtMillis;
+    }
+
+    /**
+     * Get the preformatted publication date.
+     */
+    public String getDate() {
+        return mDate;
+    }
+
+    /**
+     * Get the preformatted publication time.
+     */
+    public String getTime() {
+        return mTime;
+    }
+
+    /**
+     * Get the comma separated authors of the article.
+     */
+    public String getAuthors() {
+        return mAuthors;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.p8technews;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Turns parsed {@link TechNews} into {@link NewsRow}s: the publication timestamp is parsed once
+ * into epoch millis, date and time are formatted once, and the authors are joined once.
+ * <p>
+ * The date formats are reused across articles, so an instance must only be used
+ * from one thread at a time, typically the loader's background thread.
+ */
+public class NewsRowFormatter {
+    private final SimpleDateFormat receivedFormat;
+    private final SimpleDateFormat dateFormat;
+    private final SimpleDateFormat timeFormat;
+    private final String noAuthorFound;
+    private final StringBuilder authorBuilder = new StringBuilder();
+
+    /**
+     * @param receivedFormat pattern of the Guardian's webPublicationDate
+     * @param dateFormat     pattern of the displayed date
+     * @param timeFormat     pattern of the displayed time
+     * @param noAuthorFound  author line used when an article has no contributors
+     */
+    public NewsRowFormatter(String receivedFormat, String dateFormat, String timeFormat, String noAuthorFound) {
+        /**
+         * webPublicationDate is in UTC, and is displayed as such.
+         */
+        TimeZone utc = TimeZone.getTimeZone("UTC");
+        this.receivedFormat = new SimpleDateFormat(receivedFormat, Locale.US);
+        this.receivedFormat.setTimeZone(utc);
+        this.dateFormat = new SimpleDateFormat(dateFormat, Locale.getDefault());
+        this.dateFormat.setTimeZone(utc);
+        this.timeFormat = new SimpleDateFormat(timeFormat, Locale.getDefault());
+        this.timeFormat.setTimeZone(utc);
+        this.noAuthorFound = noAuthorFound;
+    }
+
+    /**
+     * Build the display row of a single article.
+     */
+    public NewsRow format(TechNews techNews) {
+        long publishedAtMillis = 0;
+        String date = null;
+        String time = null;
+        if (techNews.getContentDateAndTime() != null) {
+            try {
+                Date publishedAt = receivedFormat.parse(techNews.getContentDateAndTime());
+                publishedAtMillis = publishedAt.getTime();
+                date = dateFormat.format(publishedAt);
+                time = timeFormat.format(publishedAt);
+            } catch (ParseException e) {
+                /**
+                 * The row is still shown, only without date and time.
+                 */
+            }
+        }
+        return new NewsRow(techNews, publishedAtMillis, date, time, joinAuthors(techNews.getAuthors()));
+    }
+
+    /**
+     * Build the display rows of a list of articles, keeping their order.
+     */
+    public List<NewsRow> format(List<TechNews> techNewsList) {
+        List<NewsRow> newsRows = new ArrayList<>(techNewsList.size());
+        for (TechNews techNews : techNewsList) {
+            newsRows.add(format(techNews));
+        }
+        return newsRows;
+    }
+
+    /**
+     * Join the authors with ", ", or return the no-author line when there are none.
+     */
+    public String joinAuthors(List<String> authors) {
+        if (authors == null || authors.isEmpty()) {
+            return noAuthorFound;
+        }
+        if (authors.size() == 1) {
+            return authors.get(0);
+        }
+        authorBuilder.setLength(0);
+        for (int i = 0; i < authors.size(); i++) {
+            if (i > 0) {
+                authorBuilder.append(", ");
+            }
+            authorBuilder.append(authors.get(i));
+        }
+        return authorBuilder.toString();
+    }
+}
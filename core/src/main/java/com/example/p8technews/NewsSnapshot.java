@@ -0,0 +1,213 @@
+package com.example.p8technews;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary copy of the rows last displayed, so a cold start can show the first screen
+ * straight from disk, before the store has been opened or anything has been parsed.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * int magic, int version, int rowCount
+ * rowCount times: int recordLength, then recordLength bytes of
+ *     long publishedAtMillis,
+ *     string title, section, contentDateAndTime, webUrl, thumbnail,
+ *     int authorCount, authorCount strings,
+ *     string date, time, authorLine
+ * string: int byteLength (-1 for null), then that many bytes of UTF-8
+ * </pre>
+ * Records are length-prefixed so a reader can check every one against the file size, and
+ * skips fields appended to a record after the ones it knows. A snapshot of another version
+ * is ignored. It is read through a memory-mapped file and written to a temporary file which
+ * then replaces the old one, so a reader never sees a half-written snapshot.
+ */
+public final class NewsSnapshot {
+    /**
+     * Name of the snapshot file, expected in a cache directory: it is only an accelerator.
+     */
+    public static final String FILE_NAME = "first-screen.snapshot";
+
+    private static final int MAGIC = 0x544e5353;
+    private static final int VERSION = 1;
+    private static final int NULL_LENGTH = -1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private NewsSnapshot() {
+    }
+
+    /**
+     * Write the first rows of the given list, replacing any earlier snapshot.
+     */
+    public static void write(File file, List<NewsRow> newsRows, int maxRows) throws IOException {
+        int rowCount = Math.min(newsRows.size(), maxRows);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 * rowCount + 12);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(rowCount);
+
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(512);
+        DataOutputStream record = new DataOutputStream(recordBytes);
+        for (int i = 0; i < rowCount; i++) {
+            recordBytes.reset();
+            writeRow(record, newsRows.get(i));
+            out.writeInt(recordBytes.size());
+            recordBytes.writeTo(out);
+        }
+        out.flush();
+
+        File temporary = new File(file.getPath() + ".tmp");
+        FileOutputStream fileOut = new FileOutputStream(temporary);
+        try {
+            bytes.writeTo(fileOut);
+            fileOut.getFD().sync();
+        } finally {
+            fileOut.close();
+        }
+        if (!temporary.renameTo(file)) {
+            temporary.delete();
+            throw new IOException("Cannot replace " + file);
+        }
+    }
+
+    /**
+     * Write one record's fields; {@link RowPageStore} pages rows out in the same format.
+     */
+    static void writeRow(DataOutputStream out, NewsRow newsRow) throws IOException {
+        TechNews techNews = newsRow.getTechNews();
+        out.writeLong(newsRow.getPublishedAtMillis());
+        writeString(out, techNews.getTitle());
+        writeString(out, techNews.getNewsSection());
+        writeString(out, techNews.getContentDateAndTime());
+        writeString(out, techNews.getWebUrl());
+        writeString(out, techNews.getThumbnail());
+        List<String> authors = techNews.getAuthors();
+        int authorCount = authors == null ? 0 : authors.size();
+        out.writeInt(authorCount);
+        for (int i = 0; i < authorCount; i++) {
+            writeString(out, authors.get(i));
+        }
+        writeString(out, newsRow.getDate());
+        writeString(out, newsRow.getTime());
+        writeString(out, newsRow.getAuthors());
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = string.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read the rows of a snapshot.
+     *
+     * @return the rows, or null when there is no snapshot or it is of another version
+     * @throws IOException when the file cannot be read or is corrupt, in which case there is
+     *                     no usable snapshot either
+     */
+    public static List<NewsRow> read(File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Read the rows of a snapshot held in the given buffer, from its position on.
+     */
+    static List<NewsRow> read(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            int rowCount = buffer.getInt();
+            if (rowCount < 0 || rowCount > buffer.remaining() / 4) {
+                throw new IOException("Corrupt snapshot: " + rowCount + " rows");
+            }
+            List<NewsRow> newsRows = new ArrayList<>(rowCount);
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < rowCount; i++) {
+                int recordLength = buffer.getInt();
+                if (recordLength < 0 || recordLength > buffer.remaining()) {
+                    throw new IOException("Corrupt snapshot: record " + i + " of " + recordLength + " bytes");
+                }
+                int recordEnd = buffer.position() + recordLength;
+                ByteBuffer record = buffer.duplicate();
+                record.limit(recordEnd);
+                newsRows.add(readRow(record, scratch));
+                buffer.position(recordEnd);
+            }
+            return newsRows;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt snapshot", e);
+        } catch (RuntimeException | Error e) {
+            /**
+             * Whatever else a corrupt file makes decoding throw, such as running out of
+             * memory for a bogus length, it is only an accelerator: report it as corrupt.
+             */
+            throw new IOException("Corrupt snapshot", e);
+        }
+    }
+
+    static NewsRow readRow(ByteBuffer in, byte[] scratch) throws IOException {
+        long publishedAtMillis = in.getLong();
+        String title = readString(in, scratch);
+        String section = readString(in, scratch);
+        String contentDateAndTime = readString(in, scratch);
+        String webUrl = readString(in, scratch);
+        String thumbnail = readString(in, scratch);
+        int authorCount = in.getInt();
+        if (authorCount < 0 || authorCount > in.remaining() / 4) {
+            throw new IOException("Corrupt snapshot: " + authorCount + " authors");
+        }
+        String[] authors = new String[authorCount];
+        for (int i = 0; i < authorCount; i++) {
+            authors[i] = readString(in, scratch);
+        }
+        String date = readString(in, scratch);
+        String time = readString(in, scratch);
+        String authorLine = readString(in, scratch);
+        TechNews techNews = new TechNews(title, section, contentDateAndTime, webUrl, thumbnail,
+                authorCount == 0 ? null : Arrays.asList(authors));
+        return new NewsRow(techNews, publishedAtMillis, date, time, authorLine);
+    }
+
+    /**
+     * Decode a string through a scratch array, as a mapped buffer has no backing array.
+     */
+    private static String readString(ByteBuffer in, byte[] scratch) throws IOException {
+        int length = in.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0 || length > in.remaining()) {
+            throw new IOException("Corrupt snapshot: string of " + length + " bytes");
+        }
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        in.get(bytes, 0, length);
+        return new String(bytes, 0, length, UTF_8);
+    }
+}
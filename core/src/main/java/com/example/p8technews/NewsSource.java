@@ -0,0 +1,38 @@
+package com.example.p8technews;
+
+import java.util.List;
+
+/**
+ * A feed of articles that {@link FeedAggregator} can fetch in parallel with other feeds.
+ * Implementations must return their articles ordered newest first.
+ */
+public interface NewsSource {
+
+    /**
+     * Short name of the source, used in log messages.
+     */
+    String getName();
+
+    /**
+     * How long the aggregator waits for this source before leaving it out of the merged feed.
+     */
+    long getTimeoutMillis();
+
+    /**
+     * Fetch one page of articles, newest first. This is called on a worker thread.
+     *
+     * @param page     of results to fetch, starting at 1
+     * @param listener notified as each article is parsed, or null
+     * @return the articles of the page, or null when the fetch failed
+     */
+    List<TechNews> fetch(int page, GuardianJsonParser.OnArticleParsedListener listener) throws Exception;
+
+    /**
+     * Fetch only the articles published after the given date, newest first. This is called on
+     * a worker thread, and is what keeps a sync to a small delta instead of a full page.
+     *
+     * @param publicationDate ISO-8601 publication date of the newest article already held
+     * @return the newer articles, possibly none, or null when the fetch failed
+     */
+    List<TechNews> fetchNewerThan(String publicationDate) throws Exception;
+}
@@ -0,0 +1,957 @@
+package com.example.p8technews;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Every row loaded so far, newest first by parsed publication time, each article once.
+ * Refreshes, further pages and further sources are all merged into it.
+ * <p>
+ * Articles are deduplicated by a 64-bit hash of their web address kept in a {@link LongHashSet}.
+ * Rows live in one array, so a position is a plain index and {@link #get(int)} is O(1), which a
+ * list adapter needs on every bind. A merge sorts the k new rows, finds where each goes by an
+ * O(log n) binary search over the publication times, and moves the existing rows behind it with
+ * block copies, each row at most once, instead of k separate inserts. The positions it reports
+ * are those of the merged timeline, so they can be dispatched to a list adapter as they are.
+ * <p>
+ * A timeline created with a {@link RowPageStore} keeps only a window of rows in memory, within
+ * a hard budget of estimated heap bytes however long it grows: rows outside the window set with
+ * {@link #setWindow} are paged out to disk, and those coming into it are read back in the
+ * background. Only their sort key, hash and page stay in memory, about 40 bytes a row with the
+ * hash set, so positions and merges work as before; {@link #get(int)} returns null for a row
+ * that is paged out, and the listener set with {@link #setOnRowLoadedListener} is told once it
+ * is back.
+ * <p>
+ * Rows without a publication time go last; rows without a web address are left out, as they
+ * could neither be told apart nor opened. Rows are removed by {@link #removeMissing} when a
+ * reload shows their articles are gone. Not thread-safe: used from the thread the callback
+ * executor runs on.
+ */
+public class NewsTimeline {
+    /**
+     * Newest first; for equal times, the row merged first stays first.
+     */
+    private static final Comparator<NewsRow> NEWEST_FIRST = new Comparator<NewsRow>() {
+        @Override
+        public int compare(NewsRow first, NewsRow second) {
+            return Long.compare(sortKey(second), sortKey(first));
+        }
+    };
+
+    private static final int NO_PAGE = -1;
+
+    /**
+     * Rough heap cost of a row besides its strings: the NewsRow, the TechNews, the author list
+     * and the references between them.
+     */
+    private static final int ROW_OVERHEAD_BYTES = 120;
+
+    /**
+     * The rows, null while paged out, and in parallel arrays their sort keys which binary
+     * searches run over, the hashes of their web addresses, and the pages holding a copy of
+     * them on disk, if any.
+     */
+    private NewsRow[] rows = new NewsRow[64];
+    private long[] keys = new long[64];
+    private long[] ids = new long[64];
+    private int[] pages = new int[64];
+    private int size;
+    private final LongHashSet webUrlHashes = new LongHashSet(64);
+    private final List<NewsRow> view = new View();
+
+    /**
+     * Paging, with no store when every row stays in memory. Pages are read and written on the
+     * I/O executor, and the results handed back on the callback executor.
+     */
+    private final RowPageStore pageStore;
+    private final Executor ioExecutor;
+    private final Executor callbackExecutor;
+    private final long heapBudgetBytes;
+    private long loadedBytes;
+    private OnRowLoadedListener rowLoadedListener;
+
+    /**
+     * Size of the rows merged so far, to guess the size of a row before it is read back.
+     */
+    private long mergedBytes;
+    private long mergedCount;
+
+    /**
+     * The rows to keep in memory, most wanted first, by sort key and id so that merges moving
+     * them do not matter, and their ids as a set; no set until a window was first set, when
+     * the newest rows are kept.
+     */
+    private long[] windowKeys = new long[0];
+    private long[] windowIds = new long[0];
+    private int windowCount;
+    private LongHashSet windowSet;
+
+    /**
+     * Number of rows referring to each page on disk; a page no row refers to is deleted.
+     */
+    private final Map<Integer, Integer> pageRowCounts = new HashMap<>();
+    private final Set<Integer> loadingPages = new HashSet<>();
+
+    /**
+     * Rows paged out since the last flush, all going to one new page.
+     */
+    private List<NewsRow> pagingOut;
+    private int pagingOutPage = NO_PAGE;
+
+    /**
+     * Set once a page could not be written; from then on every row stays in memory.
+     */
+    private boolean pagingFailed;
+    private long pageFailureCount;
+
+    /**
+     * Receives the changes of a merge, as a list adapter does: first the ranges of removed rows
+     * in descending order at their positions before the merge, then the ranges of inserted rows
+     * in ascending order, then the rows replaced in place, both at their positions after it.
+     */
+    public interface OnMergedListener {
+        void onRemoved(int position, int count);
+
+        void onInserted(int position, int count);
+
+        void onChanged(int position);
+    }
+
+    /**
+     * Told on the callback executor about a row read back from disk.
+     */
+    public interface OnRowLoadedListener {
+        void onRowLoaded(int position);
+    }
+
+    /**
+     * A timeline keeping every row in memory.
+     */
+    public NewsTimeline() {
+        this(null, null, null, Long.MAX_VALUE);
+    }
+
+    /**
+     * A timeline keeping the rows of its window in memory, as long as they fit into the heap
+     * budget; the least wanted ones go first when they do not.
+     *
+     * @param pageStore        holding the rows paged out
+     * @param ioExecutor       reads and writes the pages in the order they are submitted, e.g. a
+     *                         single thread
+     * @param callbackExecutor runs the timeline's own work once a page is read or written, on the
+     *                         thread the timeline is used from
+     * @param heapBudgetBytes  estimated heap size of the rows in memory at most, which should
+     *                         fit a few screens of rows
+     */
+    public NewsTimeline(RowPageStore pageStore, Executor ioExecutor, Executor callbackExecutor,
+                        long heapBudgetBytes) {
+        this.pageStore = pageStore;
+        this.ioExecutor = ioExecutor;
+        this.callbackExecutor = callbackExecutor;
+        this.heapBudgetBytes = heapBudgetBytes;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the row at the position, or null if it is paged out; {@link #load(int)} reads it back.
+     */
+    public NewsRow get(int position) {
+        checkPosition(position);
+        return rows[position];
+    }
+
+    /**
+     * Return the 64-bit hash of the web address of the row at the position, which identifies
+     * it whether or not it is in memory.
+     */
+    public long getId(int position) {
+        checkPosition(position);
+        return ids[position];
+    }
+
+    /**
+     * Return the sort key of the row at the position, which with its id finds it again with
+     * {@link #indexOf(long, long)} after later merges have moved it.
+     */
+    public long getSortKey(int position) {
+        checkPosition(position);
+        return keys[position];
+    }
+
+    /**
+     * Return the current position of a row, or -1 if it is not in the timeline.
+     */
+    public int indexOf(long sortKey, long id) {
+        for (int position = firstNotNewerThan(sortKey); position < size && keys[position] == sortKey; position++) {
+            if (ids[position] == id) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " of " + size);
+        }
+    }
+
+    /**
+     * Return a read-only view of the timeline which follows later merges.
+     */
+    public List<NewsRow> asList() {
+        return view;
+    }
+
+    public boolean contains(String webUrl) {
+        return webUrl != null && webUrlHashes.contains(hash(webUrl));
+    }
+
+    public void clear() {
+        Arrays.fill(rows, 0, size, null);
+        size = 0;
+        webUrlHashes.clear();
+        loadedBytes = 0;
+        windowCount = 0;
+        windowSet = null;
+        for (Integer page : pageRowCounts.keySet()) {
+            deletePage(page);
+        }
+        pageRowCounts.clear();
+        /**
+         * Reads still running find their page gone from pageRowCounts and are ignored.
+         */
+        loadingPages.clear();
+        pagingOut = null;
+        pagingOutPage = NO_PAGE;
+        pagingFailed = false;
+    }
+
+    /**
+     * Merge the given rows into the timeline. Rows of articles not in it yet are inserted at their
+     * place by publication time. Rows of articles already in it replace the old row in place when
+     * their content differs; an article whose publication time changed moves to its new place.
+     * With paging, the merged rows stay in memory until the next {@link #setWindow} pages out
+     * those outside it, unless no window was set yet.
+     *
+     * @param listener told about the moved, inserted and replaced rows, or null
+     * @return the number of rows of articles not in the timeline before
+     */
+    public int merge(List<NewsRow> newsRows, OnMergedListener listener) {
+        NewsRow[] inserted = new NewsRow[newsRows.size()];
+        int insertedCount = 0;
+        NewsRow[] updated = null;
+        int updatedCount = 0;
+        int[] movedPositions = null;
+        int movedCount = 0;
+        LongHashSet merged = new LongHashSet(newsRows.size());
+        for (int i = 0; i < newsRows.size(); i++) {
+            NewsRow newsRow = newsRows.get(i);
+            String webUrl = newsRow.getTechNews().getWebUrl();
+            if (webUrl == null || !merged.add(hash(webUrl))) {
+                continue;
+            }
+            if (webUrlHashes.add(hash(webUrl))) {
+                inserted[insertedCount++] = newsRow;
+                continue;
+            }
+            int position = find(newsRow);
+            if (position >= 0 && keys[position] != sortKey(newsRow)) {
+                /**
+                 * Its publication time changed: it leaves its old place and is inserted anew.
+                 */
+                if (movedPositions == null) {
+                    movedPositions = new int[newsRows.size()];
+                }
+                movedPositions[movedCount++] = position;
+                inserted[insertedCount++] = newsRow;
+            } else if (position >= 0) {
+                if (updated == null) {
+                    updated = new NewsRow[newsRows.size()];
+                }
+                updated[updatedCount++] = newsRow;
+            }
+        }
+        int addedCount = insertedCount - movedCount;
+
+        if (movedCount > 0) {
+            Arrays.sort(movedPositions, 0, movedCount);
+            removePositions(movedPositions, movedCount);
+        }
+        int[] insertedPositions = new int[insertedCount];
+        if (insertedCount > 0) {
+            Arrays.sort(inserted, 0, insertedCount, NEWEST_FIRST);
+            mergeSorted(inserted, insertedCount, insertedPositions);
+        }
+        int[] changedPositions = new int[updatedCount];
+        int changedCount = 0;
+        for (int i = 0; i < updatedCount; i++) {
+            int position = replace(updated[i]);
+            if (position >= 0) {
+                changedPositions[changedCount++] = position;
+            }
+        }
+
+        if (windowSet == null) {
+            trim();
+        }
+
+        if (listener != null) {
+            if (movedCount > 0) {
+                dispatchRemovedRanges(movedPositions, movedCount, listener);
+            }
+            dispatchRanges(insertedPositions, listener);
+            for (int i = 0; i < changedCount; i++) {
+                listener.onChanged(changedPositions[i]);
+            }
+        }
+        return addedCount;
+    }
+
+    /**
+     * Remove the rows of articles that are gone, given a complete reload of the newest rows of
+     * one or more sections, e.g. the first page: articles deleted since they were loaded, and
+     * stale rows of a snapshot. Of each section in the reload, the rows not in it between its
+     * oldest and newest row are removed; other rows, and rows of other sections, are kept, since
+     * the reload says nothing about them, e.g. when it was served from a stale cache. Rows paged out are kept too, rather than read back to
+     * find their section; a later reload removes them once they are back in memory.
+     *
+     * @param newsRows the reload, which should already have been merged
+     * @param listener told about the removed rows, or null
+     * @return the number of rows removed
+     */
+    public int removeMissing(List<NewsRow> newsRows, OnMergedListener listener) {
+        LongHashSet reloaded = new LongHashSet(newsRows.size());
+        Map<String, long[]> sectionRanges = new HashMap<>();
+        long oldestKey = Long.MAX_VALUE;
+        for (int i = 0; i < newsRows.size(); i++) {
+            NewsRow newsRow = newsRows.get(i);
+            if (newsRow.getTechNews().getWebUrl() == null) {
+                continue;
+            }
+            reloaded.add(idOf(newsRow));
+            long key = sortKey(newsRow);
+            String section = newsRow.getTechNews().getNewsSection();
+            long[] range = sectionRanges.get(section);
+            if (range == null) {
+                sectionRanges.put(section, new long[]{key, key});
+            } else {
+                range[0] = Math.min(range[0], key);
+                range[1] = Math.max(range[1], key);
+            }
+            oldestKey = Math.min(oldestKey, key);
+        }
+        if (reloaded.size() == 0) {
+            return 0;
+        }
+
+        int end = firstOlderThan(oldestKey, size);
+        int[] removed = new int[end];
+        int removedCount = 0;
+        for (int position = 0; position < end; position++) {
+            NewsRow newsRow = rows[position];
+            if (newsRow == null || reloaded.contains(ids[position])) {
+                continue;
+            }
+            long[] range = sectionRanges.get(newsRow.getTechNews().getNewsSection());
+            if (range != null && keys[position] >= range[0] && keys[position] <= range[1]) {
+                removed[removedCount++] = position;
+            }
+        }
+        if (removedCount == 0) {
+            return 0;
+        }
+        removePositions(removed, removedCount);
+        webUrlHashes.clear();
+        for (int position = 0; position < size; position++) {
+            webUrlHashes.add(ids[position]);
+        }
+        if (listener != null) {
+            dispatchRemovedRanges(removed, removedCount, listener);
+        }
+        return removedCount;
+    }
+
+    /**
+     * Remove the rows at the given ascending positions, moving the rows behind the first one
+     * up in a single pass.
+     */
+    private void removePositions(int[] positions, int count) {
+        int next = 0;
+        int write = positions[0];
+        for (int read = positions[0]; read < size; read++) {
+            if (next < count && positions[next] == read) {
+                if (rows[read] != null) {
+                    loadedBytes -= estimateBytes(rows[read]);
+                }
+                releasePage(read);
+                next++;
+                continue;
+            }
+            rows[write] = rows[read];
+            keys[write] = keys[read];
+            ids[write] = ids[read];
+            pages[write] = pages[read];
+            write++;
+        }
+        Arrays.fill(rows, write, size, null);
+        size = write;
+    }
+
+    /**
+     * Return the position of the row of the same article, looked up among the rows of its
+     * publication time first and then by its id alone, or -1 if it is not in the timeline.
+     */
+    private int find(NewsRow newsRow) {
+        long id = idOf(newsRow);
+        int position = indexOf(sortKey(newsRow), id);
+        if (position >= 0) {
+            return position;
+        }
+        for (position = 0; position < size; position++) {
+            if (ids[position] == id) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Backward merge of the sorted new rows into the arrays, oldest new row first: each one finds
+     * its place among the existing rows by binary search, and the existing rows behind it move
+     * by one block copy to make room for it and the newer rows still to come.
+     */
+    private void mergeSorted(NewsRow[] inserted, int count, int[] positions) {
+        ensureCapacity(size + count);
+        int existingEnd = size;
+        for (int next = count - 1; next >= 0; next--) {
+            long key = sortKey(inserted[next]);
+            int position = firstOlderThan(key, existingEnd);
+            int moved = existingEnd - position;
+            if (moved > 0) {
+                System.arraycopy(rows, position, rows, position + next + 1, moved);
+                System.arraycopy(keys, position, keys, position + next + 1, moved);
+                System.arraycopy(ids, position, ids, position + next + 1, moved);
+                System.arraycopy(pages, position, pages, position + next + 1, moved);
+            }
+            rows[position + next] = inserted[next];
+            keys[position + next] = key;
+            ids[position + next] = idOf(inserted[next]);
+            pages[position + next] = NO_PAGE;
+            long bytes = estimateBytes(inserted[next]);
+            loadedBytes += bytes;
+            mergedBytes += bytes;
+            mergedCount++;
+            positions[next] = position + next;
+            existingEnd = position;
+        }
+        size += count;
+    }
+
+    /**
+     * Return the first of the existing rows before end which is older than the sort key; a new
+     * row goes behind existing rows of the same time.
+     */
+    private int firstOlderThan(long key, int end) {
+        int low = 0;
+        int high = end;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] >= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Replace the row of the same article, found among the rows of its publication time. A row
+     * paged out is taken as changed, rather than read back to be compared.
+     *
+     * @return its position if it was replaced, -1 if it is unchanged or was not found
+     */
+    private int replace(NewsRow newsRow) {
+        String webUrl = newsRow.getTechNews().getWebUrl();
+        long id = hash(webUrl);
+        long key = sortKey(newsRow);
+        for (int position = firstNotNewerThan(key); position < size && keys[position] == key; position++) {
+            NewsRow current = rows[position];
+            if (ids[position] != id || (current != null && !webUrl.equals(current.getTechNews().getWebUrl()))) {
+                continue;
+            }
+            if (current != null) {
+                if (current == newsRow || hasSameContent(current, newsRow)) {
+                    return -1;
+                }
+                loadedBytes -= estimateBytes(current);
+            }
+            releasePage(position);
+            rows[position] = newsRow;
+            loadedBytes += estimateBytes(newsRow);
+            return position;
+        }
+        return -1;
+    }
+
+    /**
+     * Return the first position whose row is not newer than the given sort key.
+     */
+    private int firstNotNewerThan(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] > key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Report the ranges of the given ascending positions as removed, the last range first, so
+     * each position is still valid when its range is reported.
+     */
+    private static void dispatchRemovedRanges(int[] positions, int count, OnMergedListener listener) {
+        int end = count;
+        while (end > 0) {
+            int start = end - 1;
+            while (start > 0 && positions[start - 1] == positions[start] - 1) {
+                start--;
+            }
+            listener.onRemoved(positions[start], end - start);
+            end = start;
+        }
+    }
+
+    private static void dispatchRanges(int[] positions, OnMergedListener listener) {
+        int start = 0;
+        while (start < positions.length) {
+            int end = start + 1;
+            while (end < positions.length && positions[end] == positions[end - 1] + 1) {
+                end++;
+            }
+            listener.onInserted(positions[start], end - start);
+            start = end;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > rows.length) {
+            int newCapacity = Math.max(capacity, rows.length * 2);
+            rows = Arrays.copyOf(rows, newCapacity);
+            keys = Arrays.copyOf(keys, newCapacity);
+            ids = Arrays.copyOf(ids, newCapacity);
+            pages = Arrays.copyOf(pages, newCapacity);
+        }
+    }
+
+    /**
+     * Set the rows to keep in memory, the most wanted first, e.g. the rows on screen and then
+     * those nearest to them. Rows outside the window are paged out, and rows in it read back,
+     * as far as the heap budget goes.
+     *
+     * @param positions of the rows, at least count of them
+     */
+    public void setWindow(int[] positions, int count) {
+        if (pageStore == null) {
+            return;
+        }
+        if (windowKeys.length < count) {
+            windowKeys = new long[count];
+            windowIds = new long[count];
+        }
+        if (windowSet == null) {
+            windowSet = new LongHashSet(count);
+        } else {
+            windowSet.clear();
+        }
+        windowCount = 0;
+        for (int i = 0; i < count; i++) {
+            int position = positions[i];
+            if (position >= 0 && position < size && windowSet.add(ids[position])) {
+                windowKeys[windowCount] = keys[position];
+                windowIds[windowCount] = ids[position];
+                windowCount++;
+            }
+        }
+        trim();
+
+        /**
+         * Rows are read back in the order they are wanted, until they would probably no longer
+         * fit, so that rows paged out for the budget are not read back again straight away.
+         */
+        long expectedBytes = 0;
+        long rowBytes = mergedCount == 0 ? ROW_OVERHEAD_BYTES : mergedBytes / mergedCount;
+        for (int i = 0; i < windowCount && expectedBytes <= heapBudgetBytes; i++) {
+            int position = indexOf(windowKeys[i], windowIds[i]);
+            if (position < 0) {
+                continue;
+            }
+            if (rows[position] != null) {
+                expectedBytes += estimateBytes(rows[position]);
+            } else if (pages[position] != NO_PAGE) {
+                expectedBytes += rowBytes;
+                if (expectedBytes <= heapBudgetBytes) {
+                    requestPage(pages[position]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read back a row that is paged out, most wanted until the next window is set, e.g. a row
+     * bound before the window caught up with scrolling.
+     */
+    public void load(int position) {
+        checkPosition(position);
+        if (pageStore == null || rows[position] != null || pages[position] == NO_PAGE) {
+            return;
+        }
+        if (windowSet == null) {
+            windowSet = new LongHashSet(1);
+        }
+        if (windowSet.add(ids[position])) {
+            if (windowCount == windowKeys.length) {
+                windowKeys = Arrays.copyOf(windowKeys, windowCount * 2 + 1);
+                windowIds = Arrays.copyOf(windowIds, windowCount * 2 + 1);
+            }
+            System.arraycopy(windowKeys, 0, windowKeys, 1, windowCount);
+            System.arraycopy(windowIds, 0, windowIds, 1, windowCount);
+            windowKeys[0] = keys[position];
+            windowIds[0] = ids[position];
+            windowCount++;
+        }
+        requestPage(pages[position]);
+    }
+
+    public void setOnRowLoadedListener(OnRowLoadedListener listener) {
+        rowLoadedListener = listener;
+    }
+
+    /**
+     * Page out the rows outside the window, then, while the rows left are over the budget, the
+     * least wanted ones. Before a window is set, the oldest rows go first.
+     */
+    private void trim() {
+        if (pageStore == null || pagingFailed || size == 0) {
+            return;
+        }
+        if (windowSet == null) {
+            for (int position = size - 1; position >= 0 && loadedBytes > heapBudgetBytes; position--) {
+                pageOut(position);
+            }
+        } else {
+            for (int position = 0; position < size; position++) {
+                if (rows[position] != null && !windowSet.contains(ids[position])) {
+                    pageOut(position);
+                }
+            }
+            for (int i = windowCount - 1; i >= 0 && loadedBytes > heapBudgetBytes; i--) {
+                int position = indexOf(windowKeys[i], windowIds[i]);
+                if (position >= 0) {
+                    pageOut(position);
+                }
+            }
+        }
+        flushPagingOut();
+    }
+
+    /**
+     * Drop a row from memory. A row read back from a page is still on it; any other row is
+     * collected to be written to a new page.
+     */
+    private void pageOut(int position) {
+        NewsRow newsRow = rows[position];
+        if (newsRow == null) {
+            return;
+        }
+        if (pages[position] == NO_PAGE) {
+            if (pagingOut == null) {
+                pagingOut = new ArrayList<>();
+                pagingOutPage = pageStore.newPage();
+            }
+            pagingOut.add(newsRow);
+            pages[position] = pagingOutPage;
+            Integer count = pageRowCounts.get(pagingOutPage);
+            pageRowCounts.put(pagingOutPage, count == null ? 1 : count + 1);
+        }
+        rows[position] = null;
+        loadedBytes -= estimateBytes(newsRow);
+    }
+
+    /**
+     * Write the rows paged out since the last flush. A read of the page is submitted after the
+     * write, so it always finds the page complete.
+     */
+    private void flushPagingOut() {
+        if (pagingOut == null) {
+            return;
+        }
+        final List<NewsRow> newsRows = pagingOut;
+        final int page = pagingOutPage;
+        pagingOut = null;
+        pagingOutPage = NO_PAGE;
+        ioExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    pageStore.write(page, newsRows);
+                } catch (IOException e) {
+                    callbackExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            onPageWriteFailed(page, newsRows);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Put the rows of a page that could not be written back in place, and stop paging: rows
+     * are rather kept in memory than lost.
+     */
+    private void onPageWriteFailed(int page, List<NewsRow> newsRows) {
+        pagingFailed = true;
+        pageFailureCount++;
+        pageRowCounts.remove(page);
+        for (NewsRow newsRow : newsRows) {
+            int position = indexOf(sortKey(newsRow), idOf(newsRow));
+            if (position >= 0 && pages[position] == page) {
+                pages[position] = NO_PAGE;
+                if (rows[position] == null) {
+                    rows[position] = newsRow;
+                    loadedBytes += estimateBytes(newsRow);
+                    notifyRowLoaded(position);
+                }
+            }
+        }
+    }
+
+    private void requestPage(final int page) {
+        if (!loadingPages.add(page)) {
+            return;
+        }
+        ioExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                List<NewsRow> newsRows;
+                try {
+                    newsRows = pageStore.read(page);
+                } catch (IOException e) {
+                    newsRows = null;
+                }
+                final List<NewsRow> readRows = newsRows;
+                callbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        onPageRead(page, readRows);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Put the rows of a page back that are still paged out to it and are in the window, then
+     * trim back to the budget.
+     */
+    private void onPageRead(int page, List<NewsRow> newsRows) {
+        loadingPages.remove(page);
+        if (newsRows == null) {
+            /**
+             * A page nobody refers to any more may have been deleted in the meantime.
+             */
+            if (pageRowCounts.containsKey(page)) {
+                pageFailureCount++;
+            }
+            return;
+        }
+        int[] loaded = new int[newsRows.size()];
+        int loadedCount = 0;
+        for (NewsRow newsRow : newsRows) {
+            long id = idOf(newsRow);
+            if (windowSet == null || !windowSet.contains(id)) {
+                continue;
+            }
+            int position = indexOf(sortKey(newsRow), id);
+            if (position >= 0 && rows[position] == null && pages[position] == page) {
+                rows[position] = newsRow;
+                loadedBytes += estimateBytes(newsRow);
+                loaded[loadedCount++] = position;
+            }
+        }
+        trim();
+        for (int i = 0; i < loadedCount; i++) {
+            if (rows[loaded[i]] != null) {
+                notifyRowLoaded(loaded[i]);
+            }
+        }
+    }
+
+    private void notifyRowLoaded(int position) {
+        if (rowLoadedListener != null) {
+            rowLoadedListener.onRowLoaded(position);
+        }
+    }
+
+    /**
+     * The row at the position no longer refers to its page; the last one to let go deletes it.
+     */
+    private void releasePage(int position) {
+        int page = pages[position];
+        if (page == NO_PAGE) {
+            return;
+        }
+        pages[position] = NO_PAGE;
+        Integer count = pageRowCounts.get(page);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            pageRowCounts.put(page, count - 1);
+        } else {
+            pageRowCounts.remove(page);
+            deletePage(page);
+        }
+    }
+
+    private void deletePage(final int page) {
+        ioExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                pageStore.delete(page);
+            }
+        });
+    }
+
+    /**
+     * Estimated heap size of the rows in memory.
+     */
+    public long getLoadedBytes() {
+        return loadedBytes;
+    }
+
+    /**
+     * Number of rows in memory.
+     */
+    public int getLoadedCount() {
+        int count = 0;
+        for (int position = 0; position < size; position++) {
+            if (rows[position] != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Number of pages that could not be written or read back.
+     */
+    public long getPageFailureCount() {
+        return pageFailureCount;
+    }
+
+    /**
+     * Rows without a publication time sort as the oldest.
+     */
+    static long sortKey(NewsRow newsRow) {
+        long publishedAtMillis = newsRow.getPublishedAtMillis();
+        return publishedAtMillis == 0 ? Long.MIN_VALUE : publishedAtMillis;
+    }
+
+    private static long idOf(NewsRow newsRow) {
+        String webUrl = newsRow.getTechNews().getWebUrl();
+        return webUrl == null ? 0 : hash(webUrl);
+    }
+
+    /**
+     * Rough heap size of a row: its objects, and its strings at two bytes a character plus
+     * their own overhead.
+     */
+    static long estimateBytes(NewsRow newsRow) {
+        TechNews techNews = newsRow.getTechNews();
+        long bytes = ROW_OVERHEAD_BYTES + stringBytes(techNews.getTitle()) + stringBytes(techNews.getNewsSection())
+                + stringBytes(techNews.getContentDateAndTime()) + stringBytes(techNews.getWebUrl())
+                + stringBytes(techNews.getThumbnailSuffix()) + stringBytes(newsRow.getDate())
+                + stringBytes(newsRow.getTime()) + stringBytes(newsRow.getAuthors());
+        List<String> authors = techNews.getAuthors();
+        if (authors != null) {
+            for (int i = 0; i < authors.size(); i++) {
+                bytes += 8 + stringBytes(authors.get(i));
+            }
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(String string) {
+        return string == null ? 0 : 40 + 2L * string.length();
+    }
+
+    private static boolean hasSameContent(NewsRow first, NewsRow second) {
+        TechNews firstNews = first.getTechNews();
+        TechNews secondNews = second.getTechNews();
+        return equal(firstNews.getTitle(), secondNews.getTitle())
+                && equal(firstNews.getNewsSection(), secondNews.getNewsSection())
+                && firstNews.hasSameThumbnail(secondNews)
+                && equal(first.getDate(), second.getDate())
+                && equal(first.getTime(), second.getTime())
+                && equal(first.getAuthors(), second.getAuthors());
+    }
+
+    private static boolean equal(String first, String second) {
+        return first == null ? second == null : first.equals(second);
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units of the web address, finished with the MurmurHash3
+     * mix so that nearby addresses spread over the whole hash set.
+     */
+    static long hash(String webUrl) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < webUrl.length(); i++) {
+            hash ^= webUrl.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Its elements are null while paged out, as with {@link #get(int)}.
+     */
+    private class View extends AbstractList<NewsRow> implements RandomAccess {
+        @Override
+        public NewsRow get(int position) {
+            return NewsTimeline.this.get(position);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
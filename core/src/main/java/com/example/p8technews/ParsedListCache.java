@@ -0,0 +1,238 @@
+package com.example.p8technews;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process cache of parsed article lists by request URL, so a URL fetched moments ago, e.g.
+ * before the activity was recreated, is not requested and parsed again.
+ * <p>
+ * An entry is fresh for a time-to-live and then stale for a further window, after which it is
+ * dropped. A fresh entry is served as it is. A stale entry is served too, while the caller
+ * revalidates it in the background: {@link #startRevalidation(String)} lets only one caller do
+ * so per URL, and {@link #finishRevalidation(String, List)} stores the result and tells the
+ * {@link OnRevalidatedListener}s when the list changed. The least recently used URL is dropped
+ * once the cache is full.
+ */
+public class ParsedListCache {
+    private static final int MAX_ENTRIES = 32;
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long STALE_MILLIS = TimeUnit.MINUTES.toMillis(15);
+
+    /**
+     * Time as the cache sees it: the JVM's monotonic clock, unless a test sets one.
+     */
+    public interface Clock {
+        long nanoTime();
+    }
+
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    private static final ParsedListCache INSTANCE = new ParsedListCache(MAX_ENTRIES, TTL_MILLIS, STALE_MILLIS);
+
+    private final Clock clock;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long staleNanos;
+
+    private final Map<String, Entry> entries;
+    private final Set<String> revalidating = new HashSet<>();
+    private final List<OnRevalidatedListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong freshHitCount = new AtomicLong();
+    private final AtomicLong staleHitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Notified, on the thread which revalidated, when a stale list was replaced by a different one.
+     */
+    public interface OnRevalidatedListener {
+        void onRevalidated(String requestUrl);
+    }
+
+    /**
+     * A cached list and the times until which it is fresh and then stale.
+     */
+    public static class Entry {
+        private final Clock clock;
+        private final List<TechNews> techNews;
+        private final long freshUntilNanos;
+        private final long staleUntilNanos;
+
+        Entry(Clock clock, List<TechNews> techNews, long freshUntilNanos, long staleUntilNanos) {
+            this.clock = clock;
+            this.techNews = techNews;
+            this.freshUntilNanos = freshUntilNanos;
+            this.staleUntilNanos = staleUntilNanos;
+        }
+
+        public List<TechNews> getTechNews() {
+            return techNews;
+        }
+
+        /**
+         * Return whether the list is still within its time-to-live; otherwise it should be revalidated.
+         */
+        public boolean isFresh() {
+            return clock.nanoTime() - freshUntilNanos < 0;
+        }
+    }
+
+    public static ParsedListCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param maxEntries  number of request URLs kept
+     * @param ttlMillis   how long a list is served without revalidation
+     * @param staleMillis how long after that it is still served while being revalidated
+     */
+    public ParsedListCache(int maxEntries, long ttlMillis, long staleMillis) {
+        this(maxEntries, ttlMillis, staleMillis, SYSTEM_CLOCK);
+    }
+
+    /**
+     * @param clock the lifetimes of entries are measured with
+     */
+    public ParsedListCache(int maxEntries, long ttlMillis, long staleMillis, Clock clock) {
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.staleNanos = TimeUnit.MILLISECONDS.toNanos(staleMillis);
+        this.entries = new LinkedHashMap<String, Entry>(maxEntries, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ParsedListCache.Entry> eldest) {
+                return size() > ParsedListCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Return the fresh or stale entry of the request URL, or null when there is none or it is
+     * too old to be served.
+     */
+    public synchronized Entry get(String requestUrl) {
+        Entry entry = entries.get(requestUrl);
+        if (entry != null && clock.nanoTime() - entry.staleUntilNanos >= 0) {
+            entries.remove(requestUrl);
+            entry = null;
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+        } else if (entry.isFresh()) {
+            freshHitCount.incrementAndGet();
+        } else {
+            staleHitCount.incrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * Cache the list parsed from the request URL, fresh from now on. Only a list just fetched
+     * from the network belongs here, not one served from another cache when the fetch failed.
+     */
+    public synchronized void put(String requestUrl, List<TechNews> techNews) {
+        long now = clock.nanoTime();
+        entries.put(requestUrl, new Entry(clock, Collections.unmodifiableList(new ArrayList<>(techNews)),
+                now + ttlNanos, now + ttlNanos + staleNanos));
+    }
+
+    /**
+     * Claim the revalidation of a stale URL.
+     *
+     * @return true if the caller should revalidate it, false if another caller already does
+     */
+    public synchronized boolean startRevalidation(String requestUrl) {
+        return revalidating.add(requestUrl);
+    }
+
+    /**
+     * Store the outcome of a revalidation started with {@link #startRevalidation(String)}.
+     *
+     * @param techNews the list fetched again, or null if the revalidation failed, in which case
+     *                 the stale entry is kept and the next request tries again
+     */
+    public void finishRevalidation(String requestUrl, List<TechNews> techNews) {
+        boolean changed;
+        synchronized (this) {
+            revalidating.remove(requestUrl);
+            if (techNews == null) {
+                return;
+            }
+            Entry previous = entries.get(requestUrl);
+            changed = previous == null || !hasSameArticles(previous.techNews, techNews);
+            put(requestUrl, techNews);
+        }
+        if (changed) {
+            for (OnRevalidatedListener listener : listeners) {
+                listener.onRevalidated(requestUrl);
+            }
+        }
+    }
+
+    /**
+     * Compare two lists by what a row displays, in order.
+     */
+    private static boolean hasSameArticles(List<TechNews> first, List<TechNews> second) {
+        if (first.size() != second.size()) {
+            return false;
+        }
+        for (int i = 0; i < first.size(); i++) {
+            TechNews a = first.get(i);
+            TechNews b = second.get(i);
+            if (a != b && !(equal(a.getWebUrl(), b.getWebUrl()) && equal(a.getTitle(), b.getTitle())
+                    && equal(a.getContentDateAndTime(), b.getContentDateAndTime())
+                    && equal(a.getNewsSection(), b.getNewsSection())
+                    && a.hasSameAuthors(b) && a.hasSameThumbnail(b))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    public void addOnRevalidatedListener(OnRevalidatedListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeOnRevalidatedListener(OnRevalidatedListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Number of lookups answered by a fresh entry.
+     */
+    public long getFreshHitCount() {
+        return freshHitCount.get();
+    }
+
+    /**
+     * Number of lookups answered by a stale entry.
+     */
+    public long getStaleHitCount() {
+        return staleHitCount.get();
+    }
+
+    /**
+     * Number of lookups that found nothing to serve.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.p8technews;
+
+import java.io.IOException;
+
+/**
+ * Per-stage instrumentation of the load pipeline: for every {@link Stage} it keeps histograms
+ * of durations, byte counts and item counts, so a slow list can be traced to the connection,
+ * the body read, the parse, the store or the binding.
+ * <p>
+ * Instrumented code brackets a stage with {@link #start()} and {@link #record}. Both only deal in
+ * primitives: nothing is allocated, and when metrics are disabled {@link #start()} does not even
+ * read the clock. An {@link Exporter} decides where the numbers go.
+ */
+public final class PipelineMetrics {
+
+    /**
+     * The stages of a load, in the order they usually run.
+     */
+    public enum Stage {
+        /**
+         * Reading the first-screen snapshot on a cold start, before any load.
+         */
+        SNAPSHOT_READ,
+        /**
+         * A fetch waiting for a slot of the {@link NetworkScheduler}, one stage per priority.
+         */
+        QUEUE_VISIBLE,
+        QUEUE_PREFETCH,
+        QUEUE_BACKGROUND,
+        /**
+         * Reading the stored articles served before the network answers.
+         */
+        STORE_READ,
+        /**
+         * Opening a connection up to the response code: DNS, connect, TLS and time to first byte.
+         */
+        CONNECT,
+        /**
+         * Opening a connection that failed, up to the error: a timeout, a refused connection,
+         * a preemption. Kept apart, so failures neither hide in nor skew the CONNECT times.
+         */
+        CONNECT_FAILED,
+        /**
+         * Parsing a response into articles; in streaming mode this includes reading the body.
+         */
+        PARSE,
+        /**
+         * Fetching and merging all sources of a load, connections and parses included.
+         */
+        FETCH,
+        /**
+         * Writing the fetched articles to the store.
+         */
+        STORE_WRITE,
+        /**
+         * A whole {@link NewsLoader} load, from its start to its result.
+         */
+        LOAD,
+        /**
+         * Binding one row in {@link Adapter}.
+         */
+        BIND,
+        /**
+         * Opening an article in the reader, from the activity's creation to its body shown.
+         */
+        BODY_OPEN
+    }
+
+    /**
+     * Receives the metrics when {@link #export()} is called, e.g. to write them somewhere.
+     * It reads them through {@link PipelineMetrics#snapshotAndReset()} or the static getters.
+     */
+    public interface Exporter {
+        void export() throws IOException;
+    }
+
+    private static final Histogram[] DURATIONS = newHistograms();
+    private static final Histogram[] BYTES = newHistograms();
+    private static final Histogram[] ITEMS = newHistograms();
+
+    private static volatile boolean enabled;
+    private static volatile Exporter exporter;
+
+    private PipelineMetrics() {
+    }
+
+    /**
+     * Start recording, with the exporter {@link #export()} hands the metrics to.
+     */
+    public static void enable(Exporter metricsExporter) {
+        exporter = metricsExporter;
+        enabled = true;
+    }
+
+    public static void disable() {
+        enabled = false;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Return the start time of a stage, to be handed to {@link #record} when it ends;
+     * 0 when metrics are disabled.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record a stage that started at the given time.
+     *
+     * @param startNanos as returned by {@link #start()}
+     * @param bytes      handled by the stage, or 0
+     * @param items      handled by the stage, e.g. articles, or 0
+     */
+    public static void record(Stage stage, long startNanos, long bytes, long items) {
+        if (!enabled || startNanos == 0) {
+            return;
+        }
+        int index = stage.ordinal();
+        DURATIONS[index].record(System.nanoTime() - startNanos);
+        BYTES[index].record(bytes);
+        ITEMS[index].record(items);
+    }
+
+    /**
+     * Durations of the stage, in nanoseconds.
+     */
+    public static Histogram getDurations(Stage stage) {
+        return DURATIONS[stage.ordinal()];
+    }
+
+    public static Histogram getBytes(Stage stage) {
+        return BYTES[stage.ordinal()];
+    }
+
+    public static Histogram getItems(Stage stage) {
+        return ITEMS[stage.ordinal()];
+    }
+
+    /**
+     * Hand the metrics to the exporter, if any. Exporters may do I/O, so this must be
+     * called off the main thread.
+     */
+    public static void export() throws IOException {
+        Exporter metricsExporter = exporter;
+        if (metricsExporter != null) {
+            metricsExporter.export();
+        }
+    }
+
+    /**
+     * Return the histograms of every stage and reset them, so that an export covers exactly
+     * the values recorded since the previous one; see {@link Histogram#snapshotAndReset()}.
+     */
+    public static Snapshot snapshotAndReset() {
+        Histogram[] durations = new Histogram[DURATIONS.length];
+        Histogram[] bytes = new Histogram[BYTES.length];
+        Histogram[] items = new Histogram[ITEMS.length];
+        for (int i = 0; i < DURATIONS.length; i++) {
+            durations[i] = DURATIONS[i].snapshotAndReset();
+            bytes[i] = BYTES[i].snapshotAndReset();
+            items[i] = ITEMS[i].snapshotAndReset();
+        }
+        return new Snapshot(durations, bytes, items);
+    }
+
+    public static void reset() {
+        for (int i = 0; i < DURATIONS.length; i++) {
+            DURATIONS[i].reset();
+            BYTES[i].reset();
+            ITEMS[i].reset();
+        }
+    }
+
+    /**
+     * The histograms of every stage as they were at one moment.
+     */
+    public static final class Snapshot {
+        private final Histogram[] durations;
+        private final Histogram[] bytes;
+        private final Histogram[] items;
+
+        Snapshot(Histogram[] durations, Histogram[] bytes, Histogram[] items) {
+            this.durations = durations;
+            this.bytes = bytes;
+            this.items = items;
+        }
+
+        /**
+         * Durations of the stage, in nanoseconds.
+         */
+        public Histogram getDurations(Stage stage) {
+            return durations[stage.ordinal()];
+        }
+
+        public Histogram getBytes(Stage stage) {
+            return bytes[stage.ordinal()];
+        }
+
+        public Histogram getItems(Stage stage) {
+            return items[stage.ordinal()];
+        }
+    }
+
+    private static Histogram[] newHistograms() {
+        Histogram[] histograms = new Histogram[Stage.values().length];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram();
+        }
+        return histograms;
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.p8technews;
+
+import com.google.gson.stream.MalformedJsonException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs idempotent GETs against a host with three layers of protection:
+ * <ul>
+ * <li>a hedged second request once the first has taken longer than the host's recent
+ * latency percentile, the first of the two to succeed wins;</li>
+ * <li>retries of failed attempts after a jittered exponential backoff, as long as the
+ * failure is worth retrying (I/O errors, 5xx, 429);</li>
+ * <li>a circuit breaker per host which opens after consecutive failures. While it is open no
+ * request is sent at all and the caller's fallback, e.g. cached data, is returned; after a
+ * cool-down a single trial request decides whether it closes again.</li>
+ * </ul>
+ * The class does not depend on Android, so it can be tested against a local server on the JVM.
+ */
+public class ResilientFetcher {
+    /**
+     * Latency percentile after which a hedged request is sent.
+     */
+    private static final double HEDGE_QUANTILE = 0.95;
+
+    /**
+     * Successful attempts needed before the percentile is trusted over the default delay.
+     */
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MILLIS = 250;
+    private static final long MAX_BACKOFF_MILLIS = 2000;
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long OPEN_MILLIS = 30000;
+    private static final long DEFAULT_HEDGE_DELAY_MILLIS = 2000;
+    private static final long MIN_HEDGE_DELAY_MILLIS = 100;
+
+    private static ResilientFetcher instance;
+
+    private final ExecutorService executor;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final long defaultHedgeDelayMillis;
+    private final long minHedgeDelayMillis;
+    private final Random random = new Random();
+
+    private final Map<String, Host> hosts = new HashMap<>();
+
+    private final AtomicLong hedgeCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong fallbackCount = new AtomicLong();
+
+    /**
+     * One attempt at the request. Hedged attempts run at the same time, so an attempt must not
+     * share mutable state with the others without guarding it.
+     */
+    public interface Attempt<T> {
+        /**
+         * @param attemptNumber 0 for the first attempt, counting hedges and retries
+         */
+        T run(int attemptNumber) throws Exception;
+    }
+
+    /**
+     * What to return instead when the request cannot be made or every attempt failed.
+     */
+    public interface Fallback<T> {
+        T get();
+    }
+
+    public static synchronized ResilientFetcher getInstance() {
+        if (instance == null) {
+            /**
+             * Attempts block on I/O and each request runs at most two at a time,
+             * so the pool grows with the fetches in flight and shrinks when idle.
+             */
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE,
+                    30, TimeUnit.SECONDS, new SynchronousQueue<Runnable>());
+            instance = new ResilientFetcher(executor, MAX_ATTEMPTS, BASE_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS,
+                    FAILURE_THRESHOLD, OPEN_MILLIS, DEFAULT_HEDGE_DELAY_MILLIS, MIN_HEDGE_DELAY_MILLIS);
+        }
+        return instance;
+    }
+
+    /**
+     * @param executor                runs the attempts, two at a time while hedging
+     * @param maxAttempts             sequential attempts before giving up, the first included
+     * @param baseBackoffMillis       upper bound of the wait before the first retry, doubled for each further one
+     * @param maxBackoffMillis        cap of the backoff upper bound
+     * @param failureThreshold        consecutive failed attempts which open a host's circuit
+     * @param openMillis              how long an open circuit rejects requests before a trial one
+     * @param defaultHedgeDelayMillis hedge delay while too few latencies have been recorded
+     * @param minHedgeDelayMillis     lower bound of the hedge delay
+     */
+    public ResilientFetcher(ExecutorService executor, int maxAttempts, long baseBackoffMillis, long maxBackoffMillis,
+                            int failureThreshold, long openMillis, long defaultHedgeDelayMillis, long minHedgeDelayMillis) {
+        this.executor = executor;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.defaultHedgeDelayMillis = defaultHedgeDelayMillis;
+        this.minHedgeDelayMillis = minHedgeDelayMillis;
+    }
+
+    /**
+     * Run the request against the given host, blocking the calling thread until an attempt
+     * succeeds or the request is given up.
+     *
+     * @param host     whose circuit and latencies the request counts towards
+     * @param attempt  the idempotent request
+     * @param fallback returned when the circuit is open, every attempt failed or the failure
+     *                 was not worth retrying
+     * @return the result of the first successful attempt, or the fallback's
+     */
+    public <T> T execute(String host, Attempt<T> attempt, Fallback<T> fallback) {
+        Host state = getHost(host);
+        int attemptNumber = 0;
+        for (int sequence = 0; sequence < maxAttempts; sequence++) {
+            if (!state.allowRequest()) {
+                break;
+            }
+            if (sequence > 0) {
+                retryCount.incrementAndGet();
+                try {
+                    Thread.sleep(getBackoffMillis(sequence));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            Outcome<T> outcome = runHedged(state, attempt, attemptNumber);
+            attemptNumber += outcome.attempts;
+            if (outcome.succeeded) {
+                return outcome.result;
+            }
+            if (!outcome.retryable || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+        fallbackCount.incrementAndGet();
+        return fallback == null ? null : fallback.get();
+    }
+
+    /**
+     * Start an attempt and, if it has not finished within the host's hedge delay, a second one;
+     * return as soon as one of them succeeds and cancel the other.
+     */
+    private <T> Outcome<T> runHedged(Host host, Attempt<T> attempt, int firstAttemptNumber) {
+        CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<T>> futures = new ArrayList<>(2);
+        Outcome<T> outcome = new Outcome<>();
+        try {
+            futures.add(completionService.submit(timed(host, attempt, firstAttemptNumber)));
+            Future<T> done = completionService.poll(host.getHedgeDelayMillis(), TimeUnit.MILLISECONDS);
+            if (done == null && host.allowRequest()) {
+                hedgeCount.incrementAndGet();
+                futures.add(completionService.submit(timed(host, attempt, firstAttemptNumber + 1)));
+            }
+            outcome.attempts = futures.size();
+            for (int pending = futures.size(); pending > 0; pending--) {
+                if (done == null) {
+                    done = completionService.take();
+                }
+                try {
+                    outcome.result = done.get();
+                    outcome.succeeded = true;
+                    return outcome;
+                } catch (ExecutionException e) {
+                    boolean retryable = isRetryable(e.getCause());
+                    /**
+                     * A client error says nothing about the host's health, so it neither opens
+                     * the circuit nor is it retried. Neither does a fetch dropped before it was
+                     * sent, nor a malformed body: they would only fail the same way again.
+                     */
+                    if (retryable) {
+                        host.onFailure();
+                    }
+                    outcome.retryable = retryable;
+                }
+                done = null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+            /**
+             * A trial that neither succeeded nor failed in a way that counts, e.g. a client
+             * error or an interrupt, must not keep the circuit half-open for good.
+             */
+            host.endTrial();
+        }
+        return outcome;
+    }
+
+    private static boolean isRetryable(Throwable cause) {
+        if (cause instanceof FetchDroppedException || cause instanceof MalformedJsonException) {
+            return false;
+        }
+        return !(cause instanceof HttpStatusException) || ((HttpStatusException) cause).isRetryable();
+    }
+
+    /**
+     * Wrap an attempt so its latency is recorded and the circuit closed when it succeeds.
+     */
+    private <T> Callable<T> timed(final Host host, final Attempt<T> attempt, final int attemptNumber) {
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                long start = System.nanoTime();
+                T result = attempt.run(attemptNumber);
+                host.onSuccess(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                return result;
+            }
+        };
+    }
+
+    /**
+     * "Full jitter": a uniformly random wait up to the exponential bound, so clients which
+     * failed together do not retry together.
+     */
+    private long getBackoffMillis(int retry) {
+        long bound = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(retry - 1, 20));
+        synchronized (random) {
+            return (long) (random.nextDouble() * bound);
+        }
+    }
+
+    private Host getHost(String host) {
+        synchronized (hosts) {
+            Host state = hosts.get(host);
+            if (state == null) {
+                state = new Host();
+                hosts.put(host, state);
+            }
+            return state;
+        }
+    }
+
+    /**
+     * Return whether requests to the given host are currently rejected by an open circuit.
+     */
+    public boolean isCircuitOpen(String host) {
+        return getHost(host).isOpen();
+    }
+
+    /**
+     * Number of hedged requests sent.
+     */
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    /**
+     * Number of retries after a failed attempt.
+     */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * Number of requests answered by their fallback.
+     */
+    public long getFallbackCount() {
+        return fallbackCount.get();
+    }
+
+    /**
+     * Result of one round of an attempt and its hedge.
+     */
+    private static class Outcome<T> {
+        T result;
+        boolean succeeded;
+        boolean retryable = true;
+        int attempts;
+    }
+
+    /**
+     * Latencies and circuit state of one host. The circuit is closed while consecutive failures
+     * stay below the threshold, open until the cool-down has passed, then half-open: one trial
+     * request is let through, and its outcome closes or re-opens the circuit.
+     */
+    private class Host {
+        private final Histogram latencies = new Histogram();
+        private int consecutiveFailures;
+        private long openUntilMillis;
+        private boolean trialInFlight;
+
+        /**
+         * The thread running the request the trial belongs to.
+         */
+        private Thread trialOwner;
+
+        synchronized boolean allowRequest() {
+            if (consecutiveFailures < failureThreshold) {
+                return true;
+            }
+            if (System.currentTimeMillis() < openUntilMillis || trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+            trialOwner = Thread.currentThread();
+            return true;
+        }
+
+        /**
+         * Let the next request be a trial, if the calling thread's request was one and no
+         * outcome of it has been recorded.
+         */
+        synchronized void endTrial() {
+            if (trialInFlight && trialOwner == Thread.currentThread()) {
+                trialInFlight = false;
+                trialOwner = null;
+            }
+        }
+
+        synchronized boolean isOpen() {
+            return consecutiveFailures >= failureThreshold && System.currentTimeMillis() < openUntilMillis;
+        }
+
+        synchronized void onSuccess(long latencyMillis) {
+            latencies.record(latencyMillis);
+            consecutiveFailures = 0;
+            trialInFlight = false;
+            trialOwner = null;
+        }
+
+        synchronized void onFailure() {
+            consecutiveFailures++;
+            trialInFlight = false;
+            trialOwner = null;
+            if (consecutiveFailures >= failureThreshold) {
+                openUntilMillis = System.currentTimeMillis() + openMillis;
+            }
+        }
+
+        long getHedgeDelayMillis() {
+            if (latencies.getCount() < MIN_LATENCY_SAMPLES) {
+                return defaultHedgeDelayMillis;
+            }
+            return Math.max(minHedgeDelayMillis, latencies.getQuantile(HEDGE_QUANTILE));
+        }
+    }
+}
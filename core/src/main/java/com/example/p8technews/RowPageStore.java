@@ -0,0 +1,165 @@
+package com.example.p8technews;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Files holding the rows a {@link NewsTimeline} paged out of memory, one file per page of rows
+ * paged out together. A page is written once and read back any number of times, until the
+ * timeline no longer needs it and deletes it.
+ * <p>
+ * A page is an int row count followed by length-prefixed records in the format of
+ * {@link NewsSnapshot}. Pages only live as long as the timelines holding their rows, so nothing
+ * is synced to disk, and the pages an earlier process left are deleted once at process start
+ * with {@link #deleteStalePages(File)}. Pages are
+ * numbered by the store, so several timelines can share it. The methods do blocking I/O and
+ * may be called from any thread.
+ */
+public class RowPageStore {
+    private final File directory;
+    private final AtomicInteger nextPage = new AtomicInteger();
+
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong readCount = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+
+    /**
+     * @param directory holding the pages, created if needed
+     */
+    public RowPageStore(File directory) {
+        this.directory = directory;
+        directory.mkdirs();
+    }
+
+    /**
+     * Delete the pages left in the directory by an earlier process. Must run before any store
+     * of this process writes to it, since it would delete their pages too.
+     */
+    public static void deleteStalePages(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Return the number of a page not used yet.
+     */
+    public int newPage() {
+        return nextPage.getAndIncrement();
+    }
+
+    public void write(int page, List<NewsRow> newsRows) throws IOException {
+        File file = getFile(page);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(newsRows.size());
+            ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(512);
+            DataOutputStream record = new DataOutputStream(recordBytes);
+            for (NewsRow newsRow : newsRows) {
+                recordBytes.reset();
+                NewsSnapshot.writeRow(record, newsRow);
+                out.writeInt(recordBytes.size());
+                recordBytes.writeTo(out);
+            }
+        } finally {
+            out.close();
+        }
+        writeCount.incrementAndGet();
+        storedBytes.addAndGet(file.length());
+    }
+
+    /**
+     * Read the rows of a page, in the order they were written.
+     *
+     * @throws IOException when the page does not exist or is corrupt
+     */
+    public List<NewsRow> read(int page) throws IOException {
+        File file = getFile(page);
+        byte[] bytes = new byte[(int) file.length()];
+        FileInputStream in = new FileInputStream(file);
+        try {
+            int read = 0;
+            while (read < bytes.length) {
+                int count = in.read(bytes, read, bytes.length - read);
+                if (count < 0) {
+                    throw new IOException("Truncated page " + page);
+                }
+                read += count;
+            }
+        } finally {
+            in.close();
+        }
+        readCount.incrementAndGet();
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            int rowCount = buffer.getInt();
+            if (rowCount < 0) {
+                throw new IOException("Corrupt page " + page + ": " + rowCount + " rows");
+            }
+            List<NewsRow> newsRows = new ArrayList<>(rowCount);
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < rowCount; i++) {
+                int recordLength = buffer.getInt();
+                if (recordLength < 0 || recordLength > buffer.remaining()) {
+                    throw new IOException("Corrupt page " + page + ": record of " + recordLength + " bytes");
+                }
+                int recordEnd = buffer.position() + recordLength;
+                ByteBuffer record = buffer.duplicate();
+                record.limit(recordEnd);
+                newsRows.add(NewsSnapshot.readRow(record, scratch));
+                buffer.position(recordEnd);
+            }
+            return newsRows;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt page " + page, e);
+        }
+    }
+
+    public void delete(int page) {
+        File file = getFile(page);
+        long length = file.length();
+        if (file.delete()) {
+            storedBytes.addAndGet(-length);
+        }
+    }
+
+    private File getFile(int page) {
+        return new File(directory, "page-" + page);
+    }
+
+    /**
+     * Number of pages written.
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * Number of pages read back.
+     */
+    public long getReadCount() {
+        return readCount.get();
+    }
+
+    /**
+     * Size of the pages currently on disk.
+     */
+    public long getStoredBytes() {
+        return storedBytes.get();
+    }
+}
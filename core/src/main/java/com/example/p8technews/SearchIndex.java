@@ -0,0 +1,228 @@
+package com.example.p8technews;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index over the title, section and authors of loaded articles, so the list
+ * can be filtered on every keystroke without scanning every article's text.
+ * <p>
+ * Every article gets a document id in the order it is added; each term maps to a growable
+ * int array of the ids containing it. Terms are kept sorted, so a prefix query is a range of the
+ * term dictionary, and a query matches the articles that contain a term starting with each of
+ * its words. Articles can be added at any time, e.g. as further pages arrive.
+ * <p>
+ * The rows themselves are not kept, so that rows paged out of a {@link NewsTimeline} can leave
+ * memory: a document is found by the hash of its web address, and only a hash of its text is
+ * kept to tell whether a newer version needs indexing again. Each document also keeps the sort
+ * key and id its row has in the timeline, so a match is found there without a scan.
+ * <p>
+ * Not thread-safe; the list uses it from the main thread only.
+ */
+public class SearchIndex {
+    private static final int INITIAL_POSTINGS_SIZE = 4;
+
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final LongIntHashMap docIdsByWebUrl = new LongIntHashMap(64);
+    private long[] textHashes = new long[64];
+    private long[] sortKeys = new long[64];
+    private long[] webUrlHashes = new long[64];
+    private int documentCount;
+
+    /**
+     * Documents replaced by a newer version of the same article; their postings are
+     * left in place and masked out of every result.
+     */
+    private final BitSet deleted = new BitSet();
+
+    /**
+     * Terms of one document are collected here while indexing, to skip repeated terms.
+     */
+    private final List<String> documentTerms = new ArrayList<>();
+
+    /**
+     * A growable, ascending array of document ids.
+     */
+    private static class Postings {
+        int[] docIds = new int[INITIAL_POSTINGS_SIZE];
+        int size;
+
+        void add(int docId) {
+            if (size > 0 && docIds[size - 1] == docId) {
+                return;
+            }
+            if (size == docIds.length) {
+                docIds = Arrays.copyOf(docIds, size * 2);
+            }
+            docIds[size++] = docId;
+        }
+    }
+
+    /**
+     * Index the rows that are not indexed yet. A row of an article indexed before replaces
+     * it, and is only tokenized again when its searchable text changed.
+     */
+    public void addAll(List<NewsRow> newsRows) {
+        for (NewsRow newsRow : newsRows) {
+            add(newsRow);
+        }
+    }
+
+    public void add(NewsRow newsRow) {
+        TechNews techNews = newsRow.getTechNews();
+        String webUrl = techNews.getWebUrl();
+        if (webUrl == null) {
+            return;
+        }
+        long webUrlHash = NewsTimeline.hash(webUrl);
+        long textHash = textHash(techNews);
+        long sortKey = NewsTimeline.sortKey(newsRow);
+        int existing = docIdsByWebUrl.get(webUrlHash, -1);
+        if (existing >= 0) {
+            if (textHashes[existing] == textHash) {
+                /**
+                 * A newer publication time moves the row in the timeline.
+                 */
+                sortKeys[existing] = sortKey;
+                return;
+            }
+            deleted.set(existing);
+        }
+
+        int docId = documentCount++;
+        if (docId == textHashes.length) {
+            textHashes = Arrays.copyOf(textHashes, docId * 2);
+            sortKeys = Arrays.copyOf(sortKeys, docId * 2);
+            webUrlHashes = Arrays.copyOf(webUrlHashes, docId * 2);
+        }
+        textHashes[docId] = textHash;
+        sortKeys[docId] = sortKey;
+        webUrlHashes[docId] = webUrlHash;
+        docIdsByWebUrl.put(webUrlHash, docId);
+
+        documentTerms.clear();
+        tokenize(techNews.getTitle(), documentTerms);
+        tokenize(techNews.getNewsSection(), documentTerms);
+        if (techNews.getAuthors() != null) {
+            for (String author : techNews.getAuthors()) {
+                tokenize(author, documentTerms);
+            }
+        }
+        for (String term : documentTerms) {
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                postings = new Postings();
+                terms.put(term, postings);
+            }
+            postings.add(docId);
+        }
+    }
+
+    /**
+     * Return the positions of the timeline's rows that match the query, in ascending order,
+     * whether the rows are in memory or not. Every word of the query must be the prefix of a
+     * word of the article's title, section or authors.
+     * <p>
+     * Each matching document is looked up in the timeline by its sort key and id, so the cost
+     * follows the number of matches rather than the length of the timeline. Articles removed
+     * from the timeline since they were indexed are left out.
+     *
+     * @return the positions, or null when the query has no words and so matches everything
+     */
+    public int[] filter(NewsTimeline timeline, String query) {
+        BitSet matches = search(query);
+        if (matches == null) {
+            return null;
+        }
+        int[] positions = new int[matches.cardinality()];
+        int count = 0;
+        for (int docId = matches.nextSetBit(0); docId >= 0; docId = matches.nextSetBit(docId + 1)) {
+            int position = timeline.indexOf(sortKeys[docId], webUrlHashes[docId]);
+            if (position >= 0) {
+                positions[count++] = position;
+            }
+        }
+        Arrays.sort(positions, 0, count);
+        return count == positions.length ? positions : Arrays.copyOf(positions, count);
+    }
+
+    /**
+     * Return the ids of the documents matching the query, or null when the query has no words.
+     */
+    BitSet search(String query) {
+        List<String> queryTerms = new ArrayList<>();
+        tokenize(query, queryTerms);
+        if (queryTerms.isEmpty()) {
+            return null;
+        }
+        BitSet result = null;
+        for (String prefix : queryTerms) {
+            BitSet prefixMatches = new BitSet(documentCount);
+            for (Postings postings : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                for (int i = 0; i < postings.size; i++) {
+                    prefixMatches.set(postings.docIds[i]);
+                }
+            }
+            if (result == null) {
+                result = prefixMatches;
+            } else {
+                result.and(prefixMatches);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        result.andNot(deleted);
+        return result;
+    }
+
+    /**
+     * Number of distinct terms indexed.
+     */
+    public int getTermCount() {
+        return terms.size();
+    }
+
+    /**
+     * Split text into lower-case runs of letters and digits, adding those not collected yet.
+     */
+    static void tokenize(String text, List<String> out) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!out.contains(term)) {
+                    out.add(term);
+                }
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * 64-bit hash of the searchable text of an article, its fields separated by a character
+     * they do not contain.
+     */
+    private static long textHash(TechNews techNews) {
+        StringBuilder text = new StringBuilder();
+        text.append(techNews.getTitle()).append('\u0000').append(techNews.getNewsSection());
+        if (techNews.getAuthors() != null) {
+            for (String author : techNews.getAuthors()) {
+                text.append('\u0000').append(author);
+            }
+        }
+        return NewsTimeline.hash(text.toString());
+    }
+}
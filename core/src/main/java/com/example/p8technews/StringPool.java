@@ -0,0 +1,41 @@
+package com.example.p8technews;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical instances of recurring strings, such as section names and contributor names, so
+ * thousands of articles share one copy of each instead of holding their own.
+ * <p>
+ * Unlike {@link String#intern()} the pool is bounded and private to the app: once it is full,
+ * new strings are simply kept as they are. It is safe to use from several threads.
+ */
+public class StringPool {
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    public StringPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Return the pooled instance equal to the given string, pooling it if there is room.
+     */
+    public String intern(String string) {
+        if (string == null) {
+            return null;
+        }
+        String pooled = strings.get(string);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (strings.size() >= maxSize) {
+            return string;
+        }
+        pooled = strings.putIfAbsent(string, string);
+        return pooled != null ? pooled : string;
+    }
+
+    public int size() {
+        return strings.size();
+    }
+}
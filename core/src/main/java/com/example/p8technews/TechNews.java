@@ -0,0 +1,121 @@
+package com.example.p8technews;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One article. The model is kept compact, since the list, the store and the search index may
+ * hold thousands of them:
+ * <ul>
+ * <li>sections and authors are pooled, so a recurring name is held once for all articles,</li>
+ * <li>authors are kept in an exactly sized array rather than a list,</li>
+ * <li>the thumbnail only keeps what follows its prefix in {@link UrlPrefixTable}; the whole url
+ * is joined for each caller and not kept, so a row that is bound holds it in its view.</li>
+ * </ul>
+ * The web address is kept whole: it is the article's identity, hashed and compared on every
+ * diff, merge and search, and rebuilding it on each of those calls would cost more than it saves.
+ */
+public class TechNews {
+    /**
+     * Shared by all articles. Sections and contributors recur a lot, but there are only so many.
+     */
+    private static final StringPool NAMES = new StringPool(4096);
+
+    private String mTitle;
+    private String mNewsSection;
+    private String mContentDateAndTime;
+    private String mWebUrl;
+    private byte mThumbnailPrefix;
+    private String mThumbnailSuffix;
+    private String[] mAuthors;
+
+    /**
+     * Create a new TechNews object.
+     *
+     * @param title              is the string resource Id for each news article
+     * @param newsSection        is the string resource Id for the news article section
+     * @param contentDateAndTime is the string resource ID for the date&time of each news article
+     * @param webUrl             is the string resource Id for web address of news article
+     * @param thumbnail          is the string resource Id for thumbnail of news article
+     * @param authors            of news articles, copied into the article; may be reused by the caller
+     */
+    public TechNews(String title, String newsSection, String contentDateAndTime, String webUrl, String thumbnail, List<String> authors) {
+        mTitle = title;
+        mNewsSection = NAMES.intern(newsSection);
+        mContentDateAndTime = contentDateAndTime;
+        mWebUrl = webUrl;
+        mThumbnailPrefix = UrlPrefixTable.indexOf(thumbnail);
+        mThumbnailSuffix = thumbnail == null ? null : UrlPrefixTable.suffix(thumbnail, mThumbnailPrefix);
+        if (authors != null && !authors.isEmpty()) {
+            mAuthors = new String[authors.size()];
+            for (int i = 0; i < mAuthors.length; i++) {
+                mAuthors[i] = NAMES.intern(authors.get(i));
+            }
+        }
+    }
+
+    /**
+     * Get the string resource ID for the title of the news article.
+     */
+    public String getTitle() {
+        return mTitle;
+    }
+
+    /**
+     * Get the string resource ID for the section of the article.
+     */
+    public String getNewsSection() {
+        return mNewsSection;
+    }
+
+    /**
+     * Get the string resource ID for the date&time of the news article
+     */
+    public String getContentDateAndTime() {
+        return mContentDateAndTime;
+    }
+
+    /**
+     * Get the string resource ID for the web address of the news article.
+     */
+    public String getWebUrl() {
+        return mWebUrl;
+    }
+
+    /**
+     * Get the string resource ID for the thumbnail of the news article.
+     */
+    public String getThumbnail() {
+        return mThumbnailSuffix == null ? null : UrlPrefixTable.join(mThumbnailPrefix, mThumbnailSuffix);
+    }
+
+    /**
+     * The part of the thumbnail url the article holds, for estimating its size.
+     */
+    String getThumbnailSuffix() {
+        return mThumbnailSuffix;
+    }
+
+    /**
+     * Whether both articles have the same thumbnail, without rebuilding either url.
+     */
+    public boolean hasSameThumbnail(TechNews other) {
+        return mThumbnailPrefix == other.mThumbnailPrefix
+                && (mThumbnailSuffix == null ? other.mThumbnailSuffix == null : mThumbnailSuffix.equals(other.mThumbnailSuffix));
+    }
+
+    /**
+     * Get the read-only list of authors of the news article, or null when there is none.
+     */
+    public List<String> getAuthors() {
+        return mAuthors == null ? null : Collections.unmodifiableList(Arrays.asList(mAuthors));
+    }
+
+    /**
+     * Whether both articles have the same authors, without wrapping either array.
+     */
+    public boolean hasSameAuthors(TechNews other) {
+        return Arrays.equals(mAuthors, other.mAuthors);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.example.p8technews;
+
+/**
+ * Shared table of the url prefixes almost every article repeats, so an article only keeps the
+ * index of its prefix and the rest of the url.
+ */
+public final class UrlPrefixTable {
+    /**
+     * Index stored for urls that start with none of the prefixes, or for no url at all.
+     */
+    public static final byte NO_PREFIX = -1;
+
+    /**
+     * Never reorder or remove entries: articles refer to them by index.
+     */
+    private static final String[] PREFIXES = {
+            "https://media.guim.co.uk/",
+            "https://i.guim.co.uk/img/media/",
+            "https://www.theguardian.com/",
+            "https://static.guim.co.uk/",
+    };
+
+    private UrlPrefixTable() {
+    }
+
+    /**
+     * Return the index of the prefix the url starts with, or {@link #NO_PREFIX}.
+     */
+    public static byte indexOf(String url) {
+        if (url != null) {
+            for (byte i = 0; i < PREFIXES.length; i++) {
+                if (url.startsWith(PREFIXES[i])) {
+                    return i;
+                }
+            }
+        }
+        return NO_PREFIX;
+    }
+
+    /**
+     * Return what is left of the url once the prefix of the given index is removed.
+     */
+    public static String suffix(String url, byte index) {
+        return index == NO_PREFIX ? url : url.substring(PREFIXES[index].length());
+    }
+
+    /**
+     * Rebuild a url from the index of its prefix and the rest of it.
+     */
+    public static String join(byte index, String suffix) {
+        return index == NO_PREFIX ? suffix : PREFIXES[index].concat(suffix);
+    }
+}
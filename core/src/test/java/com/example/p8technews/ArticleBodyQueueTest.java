@@ -0,0 +1,112 @@
+package com.example.p8technews;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Order, bound and deduplication of {@link ArticleBodyQueue}, with an executor that runs the
+ * downloads only when the test says so.
+ */
+public class ArticleBodyQueueTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<Runnable> pending = new ArrayList<>();
+    private final List<String> downloaded = new ArrayList<>();
+
+    private final Executor manualExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            pending.add(command);
+        }
+    };
+
+    private final ArticleBodyQueue.Downloader downloader = new ArticleBodyQueue.Downloader() {
+        @Override
+        public String download(String webUrl, ArticleBodyQueue.Priority priority) throws IOException {
+            downloaded.add(webUrl);
+            if (webUrl.startsWith("broken")) {
+                throw new IOException("Error response code: 500");
+            }
+            return "Body of " + webUrl;
+        }
+    };
+
+    @Test
+    public void openedArticleGoesFirstThenLatestRequestsWithinAPriority() throws IOException {
+        ArticleBodyQueue queue = new ArticleBodyQueue(new ArticleBodyStore(folder.newFolder(), 1024 * 1024),
+                downloader, manualExecutor, 10, 1);
+        queue.request("first", ArticleBodyQueue.Priority.AHEAD, null);
+        queue.request("ahead", ArticleBodyQueue.Priority.AHEAD, null);
+        queue.request("visible", ArticleBodyQueue.Priority.VISIBLE, null);
+        queue.request("later-visible", ArticleBodyQueue.Priority.VISIBLE, null);
+        queue.request("opened", ArticleBodyQueue.Priority.OPEN, null);
+        queue.request("ahead", ArticleBodyQueue.Priority.AHEAD, null);
+
+        runAll();
+
+        assertEquals(Arrays.asList("first", "opened", "later-visible", "visible", "ahead"), downloaded);
+    }
+
+    @Test
+    public void fullQueueDropsTheLastRequestAndTellsItsListener() throws IOException {
+        ArticleBodyQueue queue = new ArticleBodyQueue(new ArticleBodyStore(folder.newFolder(), 1024 * 1024),
+                downloader, manualExecutor, 2, 1);
+        final List<String> results = new ArrayList<>();
+        ArticleBodyQueue.OnBodyListener listener = new ArticleBodyQueue.OnBodyListener() {
+            @Override
+            public void onBody(String webUrl, String bodyText) {
+                results.add(webUrl + "=" + bodyText);
+            }
+        };
+        queue.request("running", ArticleBodyQueue.Priority.VISIBLE, listener);
+        queue.request("ahead", ArticleBodyQueue.Priority.AHEAD, listener);
+        queue.request("visible", ArticleBodyQueue.Priority.VISIBLE, listener);
+        queue.request("opened", ArticleBodyQueue.Priority.OPEN, listener);
+
+        assertEquals(Arrays.asList("ahead=null"), results);
+        assertEquals(1, queue.getDroppedCount());
+        runAll();
+        assertEquals(Arrays.asList("running", "opened", "visible"), downloaded);
+    }
+
+    @Test
+    public void storedBodiesAreNotDownloadedAgainAndFailuresAreReported() throws IOException {
+        ArticleBodyStore store = new ArticleBodyStore(folder.newFolder(), 1024 * 1024);
+        ArticleBodyQueue queue = new ArticleBodyQueue(store, downloader, manualExecutor, 10, 2);
+        final List<String> results = new ArrayList<>();
+        ArticleBodyQueue.OnBodyListener listener = new ArticleBodyQueue.OnBodyListener() {
+            @Override
+            public void onBody(String webUrl, String bodyText) {
+                results.add(webUrl + "=" + bodyText);
+            }
+        };
+        queue.request("a", ArticleBodyQueue.Priority.VISIBLE, null);
+        queue.request("a", ArticleBodyQueue.Priority.OPEN, listener);
+        queue.request("broken", ArticleBodyQueue.Priority.VISIBLE, listener);
+        runAll();
+        queue.request("a", ArticleBodyQueue.Priority.OPEN, listener);
+        runAll();
+
+        assertEquals(Arrays.asList("a", "broken"), downloaded);
+        assertEquals(Arrays.asList("a=Body of a", "broken=null", "a=Body of a"), results);
+        assertEquals(1, queue.getFailureCount());
+        assertNull(store.get("broken"));
+    }
+
+    private void runAll() {
+        while (!pending.isEmpty()) {
+            pending.remove(0).run();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.p8technews;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compressed storage, byte budget and eviction order of {@link ArticleBodyStore}.
+ */
+public class ArticleBodyStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void bodyIsStoredCompressedAndReadBack() throws IOException {
+        ArticleBodyStore store = new ArticleBodyStore(folder.newFolder("bodies"), 1024 * 1024);
+        String bodyText = body(1);
+
+        store.put("https://www.theguardian.com/technology/1", bodyText);
+
+        assertEquals(bodyText, store.get("https://www.theguardian.com/technology/1"));
+        assertNull(store.get("https://www.theguardian.com/technology/2"));
+        assertTrue(store.getStoredBytes() < bodyText.length() / 2);
+        System.out.println("bodies: " + bodyText.length() + " chars stored in " + store.getStoredBytes()
+                + " bytes, ratio " + store.getCompressionRatio());
+    }
+
+    @Test
+    public void leastRecentlyReadBodiesAreEvictedOverBudget() throws IOException {
+        ArticleBodyStore measure = new ArticleBodyStore(folder.newFolder("measure"), 1024 * 1024);
+        measure.put("a", body(2));
+        long oneBody = measure.getStoredBytes();
+
+        File directory = folder.newFolder("bodies");
+        long budget = oneBody * 5 / 2;
+        ArticleBodyStore store = new ArticleBodyStore(directory, budget);
+        store.put("a", body(2));
+        store.put("b", body(3));
+
+        /**
+         * File times may only have a resolution of seconds, so age both files explicitly
+         * before reading one of them.
+         */
+        for (File file : directory.listFiles()) {
+            file.setLastModified(System.currentTimeMillis() - 60000);
+        }
+        assertEquals(body(2), store.get("a"));
+        store.put("c", body(4));
+
+        assertTrue(store.getStoredBytes() <= budget);
+        assertFalse(store.contains("b"));
+        assertTrue(store.contains("a"));
+        assertTrue(store.contains("c"));
+    }
+
+    @Test
+    public void bodiesBeingWrittenAreLeftToTheirWriters() throws IOException {
+        ArticleBodyStore measure = new ArticleBodyStore(folder.newFolder("measure"), 1024 * 1024);
+        measure.put("a", body(2));
+        long oneBody = measure.getStoredBytes();
+
+        File directory = folder.newFolder("bodies");
+        ArticleBodyStore store = new ArticleBodyStore(directory, oneBody * 3 / 2);
+        File inProgress = new File(directory, "00000000000000ff.tmp");
+        assertTrue(inProgress.createNewFile());
+        inProgress.setLastModified(System.currentTimeMillis() - 60000);
+        store.put("a", body(2));
+        store.put("b", body(3));
+
+        assertTrue(inProgress.isFile());
+        assertTrue(store.contains("b"));
+    }
+
+    /**
+     * Prose-like text, which compresses as article bodies do.
+     */
+    private static String body(int seed) {
+        String[] words = {"the", "phone", "battery", "lasts", "longer", "than", "last", "year's", "model",
+                "and", "its", "camera", "takes", "sharper", "pictures", "in", "low", "light"};
+        StringBuilder builder = new StringBuilder();
+        int state = seed;
+        for (int i = 0; i < 600; i++) {
+            state = state * 1103515245 + 12345;
+            builder.append(words[(state >>> 16) % words.length]).append(i % 12 == 11 ? ". " : " ");
+        }
+        return builder.toString();
+    }
+}
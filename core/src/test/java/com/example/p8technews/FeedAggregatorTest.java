@@ -0,0 +1,97 @@
+package com.example.p8technews;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Source timeouts of {@link FeedAggregator} on a pool with fewer threads than sources.
+ */
+public class FeedAggregatorTest {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @After
+    public void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void queuedSourceIsTimedFromWhenItStarts() {
+        FeedAggregator aggregator = new FeedAggregator(executor);
+        List<NewsSource> sources = Arrays.<NewsSource>asList(new SlowSource("a", 300), new SlowSource("b", 300));
+
+        /**
+         * The second source waits 150 ms for the only thread, then answers within its own
+         * 300 ms; timed from submission it would have been left out.
+         */
+        List<TechNews> merged = aggregator.fetch(sources, new FeedAggregator.SourceFetch() {
+            @Override
+            public List<TechNews> fetch(NewsSource source) throws Exception {
+                Thread.sleep(source.getName().equals("a") ? 150 : 200);
+                return source.fetch(1, null);
+            }
+        });
+
+        assertEquals(2, merged.size());
+        assertEquals(0, aggregator.getTimeoutCount());
+    }
+
+    @Test
+    public void sourceSlowerThanItsTimeoutIsLeftOut() {
+        FeedAggregator aggregator = new FeedAggregator(executor);
+        List<NewsSource> sources = Arrays.<NewsSource>asList(new SlowSource("a", 100), new SlowSource("b", 300));
+
+        List<TechNews> merged = aggregator.fetch(sources, new FeedAggregator.SourceFetch() {
+            @Override
+            public List<TechNews> fetch(NewsSource source) throws Exception {
+                Thread.sleep(source.getName().equals("a") ? 400 : 10);
+                return source.fetch(1, null);
+            }
+        });
+
+        assertEquals(1, merged.size());
+        assertEquals("https://www.theguardian.com/b", merged.get(0).getWebUrl());
+        assertEquals(1, aggregator.getTimeoutCount());
+    }
+
+    /**
+     * One article under its own name, against the given timeout.
+     */
+    private static class SlowSource implements NewsSource {
+        private final String name;
+        private final long timeoutMillis;
+
+        SlowSource(String name, long timeoutMillis) {
+            this.name = name;
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        @Override
+        public List<TechNews> fetch(int page, GuardianJsonParser.OnArticleParsedListener listener) {
+            return Collections.singletonList(new TechNews("Title " + name, "Technology", "2019-11-0" + page + "T00:00:00Z",
+                    "https://www.theguardian.com/" + name, null, null));
+        }
+
+        @Override
+        public List<TechNews> fetchNewerThan(String publicationDate) {
+            return fetch(1, null);
+        }
+    }
+}
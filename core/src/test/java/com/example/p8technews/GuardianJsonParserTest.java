@@ -0,0 +1,104 @@
+package com.example.p8technews;
+
+import org.json.JSONException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Parses and merges Guardian search responses on a plain JVM, with the keys of
+ * {@link FeedConfig#GUARDIAN} and no resources involved.
+ */
+public class GuardianJsonParserTest {
+    private static final FeedConfig CONFIG = FeedConfig.GUARDIAN;
+
+    @Test
+    public void streamAndDocumentParsesAgree() throws IOException, JSONException {
+        String body = HttpTransportTest.buildSearchResponse(30);
+
+        List<TechNews> streamed = new ArrayList<>();
+        final List<TechNews> notified = new ArrayList<>();
+        CONFIG.newParser().parseStream(new ByteArrayInputStream(body.getBytes(CONFIG.getCharset())),
+                CONFIG.getCharset(), streamed, new GuardianJsonParser.OnArticleParsedListener() {
+                    @Override
+                    public void onArticleParsed(TechNews techNews) {
+                        notified.add(techNews);
+                    }
+                });
+        List<TechNews> parsed = new ArrayList<>();
+        CONFIG.newParser().parseDocument(body, parsed);
+
+        assertEquals(30, streamed.size());
+        assertEquals(streamed, notified);
+        for (int i = 0; i < streamed.size(); i++) {
+            TechNews expected = parsed.get(i);
+            TechNews actual = streamed.get(i);
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getNewsSection(), actual.getNewsSection());
+            assertEquals(expected.getContentDateAndTime(), actual.getContentDateAndTime());
+            assertEquals(expected.getWebUrl(), actual.getWebUrl());
+            assertEquals(expected.getThumbnail(), actual.getThumbnail());
+            assertEquals(expected.getAuthors(), actual.getAuthors());
+        }
+        assertEquals("Article number 3 about gadgets", streamed.get(3).getTitle());
+        assertEquals(Collections.singletonList("Author 3"), streamed.get(3).getAuthors());
+    }
+
+    @Test
+    public void streamKeepsArticlesParsedBeforeAnError() throws IOException {
+        String body = HttpTransportTest.buildSearchResponse(3);
+        String truncated = body.substring(0, body.lastIndexOf("{\n\"id\""));
+
+        List<TechNews> techNews = new ArrayList<>();
+        try {
+            CONFIG.newParser().parseStream(new ByteArrayInputStream(truncated.getBytes(CONFIG.getCharset())),
+                    CONFIG.getCharset(), techNews, null);
+        } catch (IOException expected) {
+            /**
+             * The body ends in the middle of the results array.
+             */
+        }
+        assertEquals(2, techNews.size());
+    }
+
+    @Test
+    public void bodyTextIsPulledOutOfASingleItemResponse() throws IOException {
+        String body = "{\"response\":{\"status\":\"ok\",\"total\":1,\"content\":{\"id\":\"technology/1\","
+                + "\"type\":\"article\",\"tags\":[],\"fields\":{\"thumbnail\":\"https://i.guim.co.uk/1.jpg\","
+                + "\"bodyText\":\"First paragraph.\\nSecond paragraph \\u2013 with a dash.\"}}}}";
+        String empty = "{\"response\":{\"status\":\"ok\",\"content\":{\"id\":\"technology/2\",\"fields\":{}}}}";
+
+        assertEquals("First paragraph.\nSecond paragraph \u2013 with a dash.", CONFIG.newParser().parseBodyText(
+                new ByteArrayInputStream(body.getBytes(CONFIG.getCharset())), CONFIG.getCharset()));
+        assertNull(CONFIG.newParser().parseBodyText(
+                new ByteArrayInputStream(empty.getBytes(CONFIG.getCharset())), CONFIG.getCharset()));
+    }
+
+    @Test
+    public void mergeOrdersNewestFirstAndDropsDuplicates() {
+        List<TechNews> first = Arrays.asList(article("a", "2019-11-20T10:00:00Z"), article("c", "2019-11-18T10:00:00Z"));
+        List<TechNews> second = Arrays.asList(article("b", "2019-11-19T10:00:00Z"), article("c", "2019-11-18T10:00:00Z"),
+                article("d", null));
+
+        List<TechNews> merged = FeedAggregator.mergeNewestFirst(Arrays.asList(first, second));
+
+        List<String> webUrls = new ArrayList<>();
+        for (TechNews techNews : merged) {
+            webUrls.add(techNews.getWebUrl());
+        }
+        assertEquals(Arrays.asList("a", "b", "c", "d"), webUrls);
+        assertNull(merged.get(3).getContentDateAndTime());
+    }
+
+    private static TechNews article(String webUrl, String date) {
+        return new TechNews("Title " + webUrl, "Technology", date, webUrl, null, null);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.p8technews;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Buckets, quantile estimates and snapshots of {@link Histogram}.
+ */
+public class HistogramTest {
+    @Test
+    public void valuesFallIntoPowerOfTwoBuckets() {
+        Histogram histogram = new Histogram();
+        histogram.record(0);
+        histogram.record(1);
+        assertEquals(1, histogram.getQuantile(1));
+
+        /**
+         * 2 and 3 share a bucket, 4 starts the next one.
+         */
+        histogram = new Histogram();
+        histogram.record(2);
+        histogram.record(3);
+        histogram.record(4);
+        assertEquals(3, histogram.getQuantile(0.66));
+        assertEquals(4, histogram.getQuantile(1));
+
+        histogram = new Histogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(1, histogram.getQuantile(0.5));
+        assertEquals(Long.MAX_VALUE, histogram.getQuantile(1));
+        assertEquals(2, histogram.getCount());
+    }
+
+    @Test
+    public void quantilesAreTheUpperBoundOfTheirBucketCappedAtTheMax() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getQuantile(0.5));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(5050, histogram.getSum());
+        assertEquals(100, histogram.getMax());
+        assertEquals(63, histogram.getQuantile(0.5));
+        assertEquals(100, histogram.getQuantile(0.9));
+        assertEquals(100, histogram.getQuantile(0.99));
+        assertEquals(1, histogram.getQuantile(0));
+    }
+
+    @Test
+    public void snapshotTakesEveryValueAndLeavesTheHistogramEmpty() {
+        Histogram histogram = new Histogram();
+        histogram.record(10);
+        histogram.record(1000);
+        Histogram snapshot = histogram.snapshotAndReset();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(1010, snapshot.getSum());
+        assertEquals(1000, snapshot.getMax());
+        assertEquals(1000, snapshot.getQuantile(1));
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getSum());
+        assertEquals(0, histogram.getMax());
+
+        histogram.record(7);
+        assertEquals(1, histogram.getCount());
+        assertEquals(7, histogram.getQuantile(0.5));
+        assertEquals(2, snapshot.getCount());
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.p8technews;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs {@link HttpTransport} against a local stand-in for the Guardian search endpoint and
+ * compares bytes on the wire and connection reuse with the old fetch path (plain GET,
+ * line-by-line read, disconnect after every request). How fast a body is decoded is measured
+ * by {@code ReadBenchmark} in the benchmark module, not here.
+ */
+public class HttpTransportTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int REQUESTS = 5;
+
+    private HttpServer server;
+    private URL url;
+    private byte[] fixture;
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final Set<Integer> clientPorts = Collections.synchronizedSet(new HashSet<Integer>());
+
+    @Before
+    public void startServer() throws IOException {
+        HttpTransport.configureConnectionPool();
+        fixture = buildSearchResponse(50).getBytes(UTF_8);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/search", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                clientPorts.add(exchange.getRemoteAddress().getPort());
+                byte[] body = fixture;
+                String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                    GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+                    gzip.write(fixture);
+                    gzip.close();
+                    body = compressed.toByteArray();
+                    exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                }
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                /**
+                 * Counted before sending, so the count is complete once the client has read the body.
+                 */
+                bytesSent.addAndGet(body.length);
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.start();
+        url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/search?section=technology");
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void transportNegotiatesGzipReusesConnectionAndKeepsBodyIntact() throws IOException {
+        String legacyBody = null;
+        for (int i = 0; i < REQUESTS; i++) {
+            legacyBody = legacyFetch(url);
+        }
+        long legacyBytes = bytesSent.getAndSet(0);
+        int legacyConnections = clientPorts.size();
+        clientPorts.clear();
+
+        HttpTransport transport = new HttpTransport();
+        String transportBody = null;
+        for (int i = 0; i < REQUESTS; i++) {
+            HttpTransport.Response response = transport.get(url, null);
+            try {
+                transportBody = response.readBody(UTF_8);
+            } finally {
+                response.close();
+            }
+        }
+        long transportBytes = bytesSent.get();
+        int transportConnections = clientPorts.size();
+
+        assertEquals(transportBytes, transport.getWireBytes());
+        assertTrue(transportBytes + " of " + legacyBytes + " bytes", transportBytes * 4 < legacyBytes);
+        assertEquals(REQUESTS, legacyConnections);
+        assertEquals(1, transportConnections);
+
+        /**
+         * The old line-by-line read silently dropped the newlines; the byte-level decode does not.
+         */
+        assertEquals(new String(fixture, UTF_8), transportBody);
+        assertEquals(new String(fixture, UTF_8).replace("\n", ""), legacyBody);
+    }
+
+    @Test
+    public void readFullyGrowsPastTheInitialBuffer() throws IOException {
+        HttpTransport transport = new HttpTransport();
+        InputStream in = new java.io.ByteArrayInputStream(fixture);
+        assertEquals(new String(fixture, UTF_8), transport.readFully(in, UTF_8, 16));
+    }
+
+    /**
+     * The fetch path as it was before {@link HttpTransport}.
+     */
+    private static String legacyFetch(URL url) throws IOException {
+        HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
+        urlConnection.setRequestMethod("GET");
+        urlConnection.connect();
+        StringBuilder output = new StringBuilder();
+        InputStream inputStream = urlConnection.getInputStream();
+        try {
+            BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream, UTF_8));
+            String line = bufferedReader.readLine();
+            while (line != null) {
+                output.append(line);
+                line = bufferedReader.readLine();
+            }
+        } finally {
+            urlConnection.disconnect();
+            inputStream.close();
+        }
+        return output.toString();
+    }
+
+    /**
+     * A pretty-printed response shaped like the Guardian's search results.
+     */
+    static String buildSearchResponse(int articles) {
+        StringBuilder json = new StringBuilder("{\n\"response\": {\n\"status\": \"ok\",\n\"results\": [\n");
+        for (int i = 0; i < articles; i++) {
+            if (i > 0) {
+                json.append(",\n");
+            }
+            json.append("{\n\"id\": \"technology/2019/nov/").append(i).append("/article-").append(i).append("\",\n")
+                    .append("\"sectionId\": \"technology\",\n\"sectionName\": \"Technology\",\n")
+                    .append("\"webPublicationDate\": \"2019-11-").append(10 + i % 20).append("T12:").append(10 + i % 50).append(":00Z\",\n")
+                    .append("\"webTitle\": \"Article number ").append(i).append(" about gadgets\",\n")
+                    .append("\"webUrl\": \"https://www.theguardian.com/technology/2019/nov/").append(i).append("/article-").append(i).append("\",\n")
+                    .append("\"fields\": {\"thumbnail\": \"https://media.guim.co.uk/").append(i).append("/500.jpg\"},\n")
+                    .append("\"tags\": [{\"id\": \"profile/author-").append(i % 7).append("\", \"type\": \"contributor\", \"webTitle\": \"Author ").append(i % 7).append("\"}]\n}");
+        }
+        json.append("\n]\n}\n}\n");
+        return json.toString();
+    }
+}
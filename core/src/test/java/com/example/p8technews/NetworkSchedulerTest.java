@@ -0,0 +1,275 @@
+package com.example.p8technews;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Order, limits, preemption and deadlines of {@link NetworkScheduler}, with fetches that run
+ * until the test lets them finish, and a preemption of a real request to a local server.
+ */
+public class NetworkSchedulerTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final long[] MAX_WAIT_MILLIS = {10000, 10000, 10000};
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final List<String> started = Collections.synchronizedList(new ArrayList<String>());
+    private HttpServer server;
+
+    @After
+    public void stop() {
+        callers.shutdownNow();
+        if (server != null) {
+            server.stop(0);
+        }
+        PipelineMetrics.disable();
+        PipelineMetrics.reset();
+    }
+
+    @Test
+    public void visibleFetchesGoFirstThenPrefetchesThenBackgroundWork() throws Exception {
+        PipelineMetrics.enable(null);
+        NetworkScheduler scheduler = new NetworkScheduler(1, 1, MAX_WAIT_MILLIS);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> running = submit(scheduler, "host", NetworkScheduler.Priority.BACKGROUND, "running", release);
+        awaitStarted(1);
+
+        List<Future<String>> queued = new ArrayList<>();
+        String[] names = {"background", "prefetch", "visible", "later-visible"};
+        NetworkScheduler.Priority[] priorities = {NetworkScheduler.Priority.BACKGROUND,
+                NetworkScheduler.Priority.PREFETCH, NetworkScheduler.Priority.VISIBLE, NetworkScheduler.Priority.VISIBLE};
+        for (int i = 0; i < names.length; i++) {
+            queued.add(submit(scheduler, "host", priorities[i], names[i], null));
+            awaitWaiting(scheduler, i + 1);
+        }
+
+        release.countDown();
+        assertEquals("running", running.get(5, TimeUnit.SECONDS));
+        for (int i = 0; i < names.length; i++) {
+            assertEquals(names[i], queued.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(Arrays.asList("running", "visible", "later-visible", "prefetch", "background"), started);
+        assertEquals(2, scheduler.getStartedCount(NetworkScheduler.Priority.VISIBLE));
+        assertEquals(2, PipelineMetrics.getDurations(PipelineMetrics.Stage.QUEUE_VISIBLE).getCount());
+        assertEquals(2, PipelineMetrics.getDurations(PipelineMetrics.Stage.QUEUE_BACKGROUND).getCount());
+    }
+
+    @Test
+    public void hostLimitHoldsBackOnlyFetchesFromTheSameHost() throws Exception {
+        NetworkScheduler scheduler = new NetworkScheduler(4, 1, MAX_WAIT_MILLIS);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = submit(scheduler, "a", NetworkScheduler.Priority.VISIBLE, "a1", release);
+        awaitStarted(1);
+        Future<String> second = submit(scheduler, "a", NetworkScheduler.Priority.VISIBLE, "a2", release);
+        awaitWaiting(scheduler, 1);
+        Future<String> other = submit(scheduler, "b", NetworkScheduler.Priority.BACKGROUND, "b1", release);
+        awaitStarted(2);
+
+        assertEquals(Arrays.asList("a1", "b1"), started);
+        assertEquals(1, scheduler.getWaitingCount());
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        other.get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("a1", "b1", "a2"), started);
+    }
+
+    @Test
+    public void visibleFetchPreemptsABackgroundOneWhichRunsAgainAfterwards() throws Exception {
+        final NetworkScheduler scheduler = new NetworkScheduler(1, 1, MAX_WAIT_MILLIS);
+        final CountDownLatch aborted = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        Future<String> background = callers.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return scheduler.execute("host", NetworkScheduler.Priority.BACKGROUND,
+                        new NetworkScheduler.Fetch<String>() {
+                            @Override
+                            public String run(NetworkScheduler.Ticket ticket) throws IOException {
+                                started.add("background");
+                                if (runs.incrementAndGet() > 1) {
+                                    return "background";
+                                }
+                                ticket.setAbortAction(new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        aborted.countDown();
+                                    }
+                                });
+                                try {
+                                    aborted.await();
+                                } catch (InterruptedException e) {
+                                    throw new IOException(e);
+                                }
+                                throw new IOException("Socket closed");
+                            }
+                        });
+            }
+        });
+        awaitStarted(1);
+        Future<String> visible = submit(scheduler, "host", NetworkScheduler.Priority.VISIBLE, "visible", null);
+
+        assertEquals("visible", visible.get(5, TimeUnit.SECONDS));
+        assertEquals("background", background.get(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("background", "visible", "background"), started);
+        assertEquals(1, scheduler.getPreemptedCount(NetworkScheduler.Priority.BACKGROUND));
+        assertEquals(2, scheduler.getStartedCount(NetworkScheduler.Priority.BACKGROUND));
+    }
+
+    @Test
+    public void fetchWithoutASlotByItsDeadlineIsDropped() throws Exception {
+        final NetworkScheduler scheduler = new NetworkScheduler(1, 1, MAX_WAIT_MILLIS);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> running = submit(scheduler, "host", NetworkScheduler.Priority.VISIBLE, "running", release);
+        awaitStarted(1);
+
+        long start = System.nanoTime();
+        try {
+            scheduler.execute("host", NetworkScheduler.Priority.PREFETCH, 100, new NetworkScheduler.Fetch<String>() {
+                @Override
+                public String run(NetworkScheduler.Ticket ticket) {
+                    started.add("stale");
+                    return "stale";
+                }
+            });
+            fail("Expected the fetch to be dropped");
+        } catch (FetchDroppedException e) {
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        assertEquals(1, scheduler.getDroppedCount(NetworkScheduler.Priority.PREFETCH));
+        assertEquals(0, scheduler.getWaitingCount());
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        assertEquals(Collections.singletonList("running"), started);
+    }
+
+    @Test
+    public void preemptionAbortsARequestInFlight() throws Exception {
+        final CountDownLatch slowRequestArrived = new CountDownLatch(1);
+        final AtomicInteger requests = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                /**
+                 * The first request stalls until the test is over, as on a bad network.
+                 */
+                if (requests.incrementAndGet() == 1) {
+                    slowRequestArrived.countDown();
+                    try {
+                        Thread.sleep(10000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                byte[] body = exchange.getRequestURI().getPath().getBytes(UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.start();
+        final String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        final NetworkScheduler scheduler = new NetworkScheduler(1, 1, MAX_WAIT_MILLIS);
+
+        Future<String> prefetch = callers.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return get(scheduler, NetworkScheduler.Priority.PREFETCH, new URL(base + "/prefetch"));
+            }
+        });
+        assertTrue(slowRequestArrived.await(5, TimeUnit.SECONDS));
+        long start = System.nanoTime();
+        String visible = get(scheduler, NetworkScheduler.Priority.VISIBLE, new URL(base + "/visible"));
+
+        assertEquals("/visible", visible);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals("/prefetch", prefetch.get(5, TimeUnit.SECONDS));
+        assertEquals(1, scheduler.getPreemptedCount(NetworkScheduler.Priority.PREFETCH));
+    }
+
+    private static String get(NetworkScheduler scheduler, NetworkScheduler.Priority priority, final URL url) throws IOException {
+        return scheduler.execute(url.getHost(), priority, new NetworkScheduler.Fetch<String>() {
+            @Override
+            public String run(NetworkScheduler.Ticket ticket) throws IOException {
+                HttpTransport.Response response = HttpTransport.getInstance().get(url, null, ticket);
+                try {
+                    return response.readBody(UTF_8);
+                } finally {
+                    response.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * Run a fetch on a caller thread which records its start and, if given a latch, holds its
+     * slot until the latch is released.
+     */
+    private Future<String> submit(final NetworkScheduler scheduler, final String host,
+                                  final NetworkScheduler.Priority priority, final String name,
+                                  final CountDownLatch release) {
+        return callers.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return scheduler.execute(host, priority, new NetworkScheduler.Fetch<String>() {
+                    @Override
+                    public String run(NetworkScheduler.Ticket ticket) throws IOException {
+                        started.add(name);
+                        if (release != null) {
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                throw new IOException(e);
+                            }
+                        }
+                        return name;
+                    }
+                });
+            }
+        });
+    }
+
+    private void awaitStarted(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (started.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, started.size());
+    }
+
+    private static void awaitWaiting(NetworkScheduler scheduler, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.getWaitingCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, scheduler.getWaitingCount());
+    }
+}
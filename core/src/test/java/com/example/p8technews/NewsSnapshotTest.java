@@ -0,0 +1,164 @@
+package com.example.p8technews;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Round trip of {@link NewsSnapshot}, and what it makes of truncated, corrupt and other
+ * versions' files.
+ */
+public class NewsSnapshotTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rowsAreReadBackAsWritten() throws IOException {
+        File file = new File(folder.getRoot(), NewsSnapshot.FILE_NAME);
+        NewsRow withAuthors = row(2, Arrays.asList("Alex Hern", "Dan Milmo"), "https://i.guim.co.uk/img/2.jpg");
+        NewsRow withoutAuthors = row(1, null, null);
+
+        NewsSnapshot.write(file, Arrays.asList(withAuthors, withoutAuthors, row(0, null, null)), 2);
+        List<NewsRow> newsRows = NewsSnapshot.read(file);
+
+        assertEquals(2, newsRows.size());
+        assertRowEquals(withAuthors, newsRows.get(0));
+        assertRowEquals(withoutAuthors, newsRows.get(1));
+    }
+
+    @Test
+    public void missingFileAndOtherVersionAreNoSnapshot() throws IOException {
+        File file = new File(folder.getRoot(), NewsSnapshot.FILE_NAME);
+        assertNull(NewsSnapshot.read(file));
+
+        NewsSnapshot.write(file, Arrays.asList(row(1, null, null)), 1);
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        try {
+            out.seek(4);
+            out.writeInt(2);
+        } finally {
+            out.close();
+        }
+        assertNull(NewsSnapshot.read(file));
+    }
+
+    @Test
+    public void truncatedFileIsCorrupt() throws IOException {
+        File file = new File(folder.getRoot(), NewsSnapshot.FILE_NAME);
+        NewsSnapshot.write(file, Arrays.asList(row(2, Arrays.asList("Alex Hern"), null), row(1, null, null)), 2);
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        try {
+            out.setLength(out.length() - 10);
+        } finally {
+            out.close();
+        }
+        assertCorrupt(file);
+    }
+
+    @Test
+    public void bogusCountsAreCorrupt() throws IOException {
+        File file = new File(folder.getRoot(), NewsSnapshot.FILE_NAME);
+        NewsSnapshot.write(file, Arrays.asList(row(1, Arrays.asList("Alex Hern"), null)), 1);
+        byte[] valid = readAll(file);
+
+        /**
+         * Row count, then the author count of the only row: a count that overflows when
+         * multiplied by the size of a length prefix must not pass the bounds check.
+         */
+        int authorCountOffset = authorCountOffset(row(1, Arrays.asList("Alex Hern"), null));
+        int[][] corruptions = {{8, Integer.MAX_VALUE}, {8, -3}, {authorCountOffset, 0x40000001},
+                {authorCountOffset, Integer.MAX_VALUE}, {authorCountOffset, -1}};
+        for (int[] corruption : corruptions) {
+            byte[] bytes = valid.clone();
+            putInt(bytes, corruption[0], corruption[1]);
+            writeAll(file, bytes);
+            assertCorrupt(file);
+        }
+    }
+
+    private static void assertCorrupt(File file) {
+        try {
+            NewsSnapshot.read(file);
+            fail("Expected " + file + " to be reported as corrupt");
+        } catch (IOException expected) {
+        }
+    }
+
+    private static NewsRow row(int index, List<String> authors, String thumbnail) {
+        TechNews techNews = new TechNews("Title " + index, "Technology", "2018-06-0" + (index + 1) + "T10:00:00Z",
+                "https://www.theguardian.com/technology/" + index, thumbnail, authors);
+        return new NewsRow(techNews, 1527847200000L + index * 86400000L, "Jun " + (index + 1) + ", 2018", "10:00",
+                authors == null ? null : authors.get(0));
+    }
+
+    /**
+     * Offset of the author count in a file holding only the given row: the header, the
+     * record length, the publication time and the five strings before it.
+     */
+    private static int authorCountOffset(NewsRow newsRow) {
+        TechNews techNews = newsRow.getTechNews();
+        int offset = 12 + 4 + 8;
+        String[] strings = {techNews.getTitle(), techNews.getNewsSection(), techNews.getContentDateAndTime(),
+                techNews.getWebUrl(), techNews.getThumbnail()};
+        for (String string : strings) {
+            offset += 4 + (string == null ? 0 : string.getBytes(UTF_8).length);
+        }
+        return offset;
+    }
+
+    private static void assertRowEquals(NewsRow expected, NewsRow actual) {
+        TechNews expectedNews = expected.getTechNews();
+        TechNews actualNews = actual.getTechNews();
+        assertEquals(expectedNews.getTitle(), actualNews.getTitle());
+        assertEquals(expectedNews.getNewsSection(), actualNews.getNewsSection());
+        assertEquals(expectedNews.getContentDateAndTime(), actualNews.getContentDateAndTime());
+        assertEquals(expectedNews.getWebUrl(), actualNews.getWebUrl());
+        assertEquals(expectedNews.getThumbnail(), actualNews.getThumbnail());
+        assertEquals(expectedNews.getAuthors(), actualNews.getAuthors());
+        assertEquals(expected.getPublishedAtMillis(), actual.getPublishedAtMillis());
+        assertEquals(expected.getDate(), actual.getDate());
+        assertEquals(expected.getTime(), actual.getTime());
+        assertEquals(expected.getAuthors(), actual.getAuthors());
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static byte[] readAll(File file) throws IOException {
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            byte[] bytes = new byte[(int) in.length()];
+            in.readFully(bytes);
+            return bytes;
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void writeAll(File file, byte[] bytes) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.p8technews;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Ordering, deduplication and reported positions of {@link NewsTimeline}, the cost of
+ * merging a page into a long timeline, and paging rows out to disk within a heap budget.
+ */
+public class NewsTimelineTest {
+    private static final long HOUR = 3600000L;
+
+    /**
+     * Runs page reads and writes, and their results, on the calling thread.
+     */
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void mergeKeepsNewestFirstDropsDuplicatesAndReportsRanges() {
+        NewsTimeline timeline = new NewsTimeline();
+        RecordingListener listener = new RecordingListener();
+        timeline.merge(Arrays.asList(row("c", 30), row("a", 50), row("e", 10)), listener);
+        assertEquals(Collections.singletonList("insert 0+3"), listener.events);
+        assertEquals(Arrays.asList("a", "c", "e"), webUrls(timeline));
+
+        listener.events.clear();
+        int inserted = timeline.merge(Arrays.asList(row("b", 40), row("a", 50), row("d", 20), row("f", 0),
+                row("b", 40), row("g", 60)), listener);
+        assertEquals(4, inserted);
+        assertEquals(Arrays.asList("g", "a", "b", "c", "d", "e", "f"), webUrls(timeline));
+        assertEquals(Arrays.asList("insert 0+1", "insert 2+1", "insert 4+1", "insert 6+1"), listener.events);
+    }
+
+    @Test
+    public void changedRowReplacesTheOldOneInPlace() {
+        NewsTimeline timeline = new NewsTimeline();
+        timeline.merge(Arrays.asList(row("a", 50), row("b", 40), row("c", 40)), null);
+        RecordingListener listener = new RecordingListener();
+        NewsRow retitled = new NewsRow(new TechNews("New title", "Technology", null, "c", null, null),
+                40 * HOUR, "date", "time", "Author N/A");
+
+        timeline.merge(Arrays.asList(row("a", 50), retitled), listener);
+
+        assertEquals(Collections.singletonList("change 2"), listener.events);
+        assertSame(retitled, timeline.get(2));
+        assertEquals(3, timeline.size());
+    }
+
+    @Test
+    public void rowWithAChangedPublicationTimeMovesToItsNewPlace() {
+        NewsTimeline timeline = new NewsTimeline();
+        timeline.merge(Arrays.asList(row("a", 50), row("b", 40), row("c", 30), row("d", 20)), null);
+        RecordingListener listener = new RecordingListener();
+
+        int inserted = timeline.merge(Arrays.asList(row("d", 45), row("a", 35)), listener);
+
+        assertEquals(0, inserted);
+        assertEquals(Arrays.asList("d", "b", "a", "c"), webUrls(timeline));
+        assertEquals(Arrays.asList("remove 3+1", "remove 0+1", "insert 0+1", "insert 2+1"), listener.events);
+        assertEquals(2, timeline.indexOf(35 * HOUR, NewsTimeline.hash("a")));
+    }
+
+    @Test
+    public void rowsWithoutAWebAddressAreLeftOut() {
+        NewsTimeline timeline = new NewsTimeline();
+        for (int i = 0; i < 3; i++) {
+            timeline.merge(Arrays.asList(row("a", 50), row(null, 40)), null);
+        }
+        assertEquals(Collections.singletonList("a"), webUrls(timeline));
+    }
+
+    @Test
+    public void reloadRemovesTheMissingRowsOfItsSectionsWithinItsRange() {
+        NewsTimeline timeline = new NewsTimeline();
+        timeline.merge(Arrays.asList(row("g", 70), row("a", 50), row("b", 40), row("c", 30), row("d", 20),
+                row("e", 10), row("science", "s", 35)), null);
+        List<NewsRow> reload = Arrays.asList(row("f", 60), row("a", 50), row("c", 30));
+        timeline.merge(reload, null);
+        RecordingListener listener = new RecordingListener();
+
+        /**
+         * b was deleted; g is newer than the reload, which may be stale, d and e are older than
+         * it, and s is of another section.
+         */
+        assertEquals(1, timeline.removeMissing(reload, listener));
+
+        assertEquals(Arrays.asList("g", "f", "a", "s", "c", "d", "e"), webUrls(timeline));
+        assertEquals(Collections.singletonList("remove 3+1"), listener.events);
+        assertFalse(timeline.contains("b"));
+        assertEquals(1, timeline.merge(Collections.singletonList(row("b", 40)), null));
+    }
+
+    @Test
+    public void mergingAPageIntoTenThousandRowsTakesWellUnderAMillisecond() {
+        Random random = new Random(7);
+        List<NewsRow> history = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            history.add(row("https://www.theguardian.com/technology/" + i, random.nextInt(100000)));
+        }
+
+        long totalNanos = 0;
+        int runs = 200;
+        for (int run = 0; run < runs + 50; run++) {
+            NewsTimeline timeline = new NewsTimeline();
+            timeline.merge(history, null);
+            List<NewsRow> page = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                page.add(row("https://www.theguardian.com/technology/new-" + run + "-" + i, random.nextInt(110000)));
+            }
+            long start = System.nanoTime();
+            timeline.merge(page, null);
+            if (run >= 50) {
+                totalNanos += System.nanoTime() - start;
+            }
+            assertEquals(10050, timeline.size());
+        }
+        long averageMicros = totalNanos / runs / 1000;
+        System.out.println("timeline: merging 50 rows into 10000 takes " + averageMicros + " us");
+        assertTrue(averageMicros < 1000);
+    }
+
+    @Test
+    public void scrollingTenThousandRowsStaysWithinTheHeapBudget() throws IOException {
+        long budget = 64 * 1024;
+        RowPageStore pageStore = new RowPageStore(folder.newFolder("pages"));
+        NewsTimeline timeline = new NewsTimeline(pageStore, DIRECT, DIRECT, budget);
+        final List<Integer> loaded = new ArrayList<>();
+        timeline.setOnRowLoadedListener(new NewsTimeline.OnRowLoadedListener() {
+            @Override
+            public void onRowLoaded(int position) {
+                loaded.add(position);
+            }
+        });
+        for (int page = 0; page < 200; page++) {
+            List<NewsRow> newsRows = new ArrayList<>();
+            for (int i = page * 50; i < (page + 1) * 50; i++) {
+                newsRows.add(row("https://www.theguardian.com/technology/" + i, 20000 - i));
+            }
+            timeline.merge(newsRows, null);
+            assertTrue(timeline.getLoadedBytes() <= budget);
+        }
+        assertEquals(10000, timeline.size());
+
+        int[] window = new int[60];
+        for (int first = 0; first < 10000; first += 15) {
+            int count = setWindow(timeline, window, first, 10, 25);
+            assertTrue(timeline.getLoadedBytes() <= budget);
+            for (int i = 0; i < Math.min(10, count); i++) {
+                assertEquals("https://www.theguardian.com/technology/" + window[i],
+                        timeline.get(window[i]).getTechNews().getWebUrl());
+            }
+        }
+        assertNull(timeline.get(0));
+
+        loaded.clear();
+        setWindow(timeline, window, 0, 10, 25);
+        NewsRow first = timeline.get(0);
+        assertEquals("Title https://www.theguardian.com/technology/0", first.getTechNews().getTitle());
+        assertEquals(20000 * HOUR, first.getPublishedAtMillis());
+        assertEquals("Author N/A", first.getAuthors());
+        assertTrue(loaded.contains(0));
+        assertTrue(pageStore.getReadCount() > 0);
+        assertEquals(0, timeline.getPageFailureCount());
+        System.out.println("timeline: " + timeline.getLoadedCount() + " of 10000 rows in memory, "
+                + timeline.getLoadedBytes() / 1024 + " KB, " + pageStore.getWriteCount() + " pages written, "
+                + pageStore.getReadCount() + " read back");
+
+        timeline.clear();
+        assertEquals(0, pageStore.getStoredBytes());
+    }
+
+    @Test
+    public void changedRowReplacesAPagedOutOne() throws IOException {
+        NewsTimeline timeline = new NewsTimeline(new RowPageStore(folder.newFolder("pages")), DIRECT, DIRECT, 1024 * 1024);
+        timeline.merge(Arrays.asList(row("a", 50), row("b", 40), row("c", 30)), null);
+        timeline.setWindow(new int[]{0}, 1);
+        assertNull(timeline.get(2));
+
+        RecordingListener listener = new RecordingListener();
+        NewsRow retitled = new NewsRow(new TechNews("New title", "Technology", null, "c", null, null),
+                30 * HOUR, "date", "time", "Author N/A");
+        timeline.merge(Collections.singletonList(retitled), listener);
+        assertEquals(Collections.singletonList("change 2"), listener.events);
+        assertSame(retitled, timeline.get(2));
+
+        timeline.load(1);
+        assertEquals("b", timeline.get(1).getTechNews().getWebUrl());
+    }
+
+    /**
+     * Window the rows from first on, count of them on screen and up to around more on either
+     * side, as the adapter does.
+     */
+    private static int setWindow(NewsTimeline timeline, int[] window, int first, int count, int around) {
+        int last = Math.min(first + count, timeline.size()) - 1;
+        int size = 0;
+        for (int position = first; position <= last; position++) {
+            window[size++] = position;
+        }
+        for (int distance = 1; distance <= around; distance++) {
+            if (last + distance < timeline.size()) {
+                window[size++] = last + distance;
+            }
+            if (first - distance >= 0) {
+                window[size++] = first - distance;
+            }
+        }
+        timeline.setWindow(window, size);
+        return last - first + 1;
+    }
+
+    private static NewsRow row(String webUrl, long hours) {
+        return row("Technology", webUrl, hours);
+    }
+
+    private static NewsRow row(String section, String webUrl, long hours) {
+        return new NewsRow(new TechNews("Title " + webUrl, section, null, webUrl, null, null),
+                hours * HOUR, "date", "time", "Author N/A");
+    }
+
+    private static List<String> webUrls(NewsTimeline timeline) {
+        List<String> webUrls = new ArrayList<>();
+        for (NewsRow newsRow : timeline.asList()) {
+            webUrls.add(newsRow.getTechNews().getWebUrl());
+        }
+        return webUrls;
+    }
+
+    private static class RecordingListener implements NewsTimeline.OnMergedListener {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onRemoved(int position, int count) {
+            events.add("remove " + position + "+" + count);
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            events.add("insert " + position + "+" + count);
+        }
+
+        @Override
+        public void onChanged(int position) {
+            events.add("change " + position);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.p8technews;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Freshness, revalidation and size bound of {@link ParsedListCache}, on a clock the test moves.
+ */
+public class ParsedListCacheTest {
+    private static final String URL = "https://content.guardianapis.com/search?section=technology";
+
+    private final ManualClock clock = new ManualClock();
+
+    @Test
+    public void entryIsFreshThenStaleThenDropped() {
+        ParsedListCache cache = new ParsedListCache(4, 100, 200, clock);
+        cache.put(URL, articles("a", "b"));
+
+        clock.advance(99);
+        assertTrue(cache.get(URL).isFresh());
+        clock.advance(1);
+        ParsedListCache.Entry stale = cache.get(URL);
+        assertFalse(stale.isFresh());
+        assertEquals(2, stale.getTechNews().size());
+        clock.advance(200);
+        assertNull(cache.get(URL));
+
+        assertEquals(1, cache.getFreshHitCount());
+        assertEquals(1, cache.getStaleHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void onlyOneRevalidationRunsAndListenersHearOfChangesOnly() {
+        ParsedListCache cache = new ParsedListCache(4, 50, 10000, clock);
+        final List<String> revalidated = new ArrayList<>();
+        cache.addOnRevalidatedListener(new ParsedListCache.OnRevalidatedListener() {
+            @Override
+            public void onRevalidated(String requestUrl) {
+                revalidated.add(requestUrl);
+            }
+        });
+        cache.put(URL, articles("a", "b"));
+        clock.advance(80);
+
+        assertTrue(cache.startRevalidation(URL));
+        assertFalse(cache.startRevalidation(URL));
+        cache.finishRevalidation(URL, articles("a", "b"));
+        assertTrue(cache.get(URL).isFresh());
+        assertEquals(Collections.<String>emptyList(), revalidated);
+
+        clock.advance(80);
+        assertTrue(cache.startRevalidation(URL));
+        cache.finishRevalidation(URL, articles("c", "a", "b"));
+        assertEquals(Collections.singletonList(URL), revalidated);
+        assertEquals(3, cache.get(URL).getTechNews().size());
+
+        /**
+         * A failed revalidation keeps the stale entry and lets the next request try again.
+         */
+        clock.advance(80);
+        assertTrue(cache.startRevalidation(URL));
+        cache.finishRevalidation(URL, null);
+        assertFalse(cache.get(URL).isFresh());
+        assertTrue(cache.startRevalidation(URL));
+    }
+
+    @Test
+    public void leastRecentlyUsedUrlIsDroppedWhenFull() {
+        ParsedListCache cache = new ParsedListCache(2, 10000, 10000, clock);
+        cache.put("1", articles("a"));
+        cache.put("2", articles("b"));
+        cache.get("1");
+        cache.put("3", articles("c"));
+
+        assertNull(cache.get("2"));
+        assertEquals("a", cache.get("1").getTechNews().get(0).getWebUrl());
+        assertEquals("c", cache.get("3").getTechNews().get(0).getWebUrl());
+    }
+
+    private static class ManualClock implements ParsedListCache.Clock {
+        private long nanos;
+
+        void advance(long millis) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        @Override
+        public long nanoTime() {
+            return nanos;
+        }
+    }
+
+    private static List<TechNews> articles(String... webUrls) {
+        List<TechNews> techNews = new ArrayList<>();
+        for (String webUrl : Arrays.asList(webUrls)) {
+            techNews.add(new TechNews("Title " + webUrl, "Technology", "2019-11-20T10:00:00Z", webUrl, null, null));
+        }
+        return techNews;
+    }
+}
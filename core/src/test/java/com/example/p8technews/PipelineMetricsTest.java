@@ -0,0 +1,104 @@
+package com.example.p8technews;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Recording of {@link PipelineMetrics} when enabled and disabled, and what
+ * {@link FileMetricsExporter} writes of it.
+ */
+public class PipelineMetricsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void disable() {
+        PipelineMetrics.disable();
+        PipelineMetrics.reset();
+    }
+
+    @Test
+    public void nothingIsRecordedWhileDisabled() {
+        PipelineMetrics.disable();
+        long start = PipelineMetrics.start();
+        assertEquals(0, start);
+        PipelineMetrics.record(PipelineMetrics.Stage.PARSE, start, 100, 10);
+        assertEquals(0, PipelineMetrics.getDurations(PipelineMetrics.Stage.PARSE).getCount());
+
+        /**
+         * A stage started while disabled is not recorded once enabled either.
+         */
+        PipelineMetrics.enable(null);
+        PipelineMetrics.record(PipelineMetrics.Stage.PARSE, start, 100, 10);
+        assertEquals(0, PipelineMetrics.getDurations(PipelineMetrics.Stage.PARSE).getCount());
+    }
+
+    @Test
+    public void recordsDurationBytesAndItemsPerStage() {
+        PipelineMetrics.enable(null);
+        long start = PipelineMetrics.start();
+        assertTrue(start != 0);
+        PipelineMetrics.record(PipelineMetrics.Stage.PARSE, start, 2048, 50);
+        PipelineMetrics.record(PipelineMetrics.Stage.PARSE, PipelineMetrics.start(), 1024, 10);
+
+        assertEquals(2, PipelineMetrics.getDurations(PipelineMetrics.Stage.PARSE).getCount());
+        assertEquals(3072, PipelineMetrics.getBytes(PipelineMetrics.Stage.PARSE).getSum());
+        assertEquals(50, PipelineMetrics.getItems(PipelineMetrics.Stage.PARSE).getMax());
+        assertEquals(0, PipelineMetrics.getDurations(PipelineMetrics.Stage.FETCH).getCount());
+
+        PipelineMetrics.Snapshot snapshot = PipelineMetrics.snapshotAndReset();
+        assertEquals(2, snapshot.getDurations(PipelineMetrics.Stage.PARSE).getCount());
+        assertEquals(60, snapshot.getItems(PipelineMetrics.Stage.PARSE).getSum());
+        assertEquals(0, PipelineMetrics.getDurations(PipelineMetrics.Stage.PARSE).getCount());
+    }
+
+    @Test
+    public void exporterWritesTheStagesThatRanSinceTheLastExport() throws IOException {
+        File file = new File(folder.getRoot(), "metrics/load-metrics.tsv");
+        PipelineMetrics.enable(new FileMetricsExporter(file));
+        PipelineMetrics.record(PipelineMetrics.Stage.CONNECT, PipelineMetrics.start(), 0, 0);
+        PipelineMetrics.record(PipelineMetrics.Stage.PARSE, PipelineMetrics.start(), 4096, 20);
+        PipelineMetrics.export();
+        PipelineMetrics.record(PipelineMetrics.Stage.CONNECT_FAILED, PipelineMetrics.start(), 0, 0);
+        PipelineMetrics.export();
+
+        List<String> lines = readLines(file);
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(0).startsWith("timestamp\tstage\tcount"));
+        String[] parse = lines.get(2).split("\t");
+        assertEquals("PARSE", parse[1]);
+        assertEquals("1", parse[2]);
+        assertEquals("4096", parse[7]);
+        assertEquals("20", parse[10]);
+        assertEquals("CONNECT_FAILED", lines.get(3).split("\t")[1]);
+        assertEquals(0, PipelineMetrics.getDurations(PipelineMetrics.Stage.CONNECT_FAILED).getCount());
+    }
+
+    private static List<String> readLines(File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                Charset.forName("UTF-8")));
+        try {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lines.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.p8technews;
+
+import com.google.gson.stream.MalformedJsonException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs {@link ResilientFetcher} against a local stand-in server which answers each request
+ * according to a script of delays and status codes, and with a fast 200 once the script is used up.
+ */
+public class ResilientFetcherTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String HOST = "127.0.0.1";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ExecutorService fetchExecutor;
+    private URL url;
+    private final ConcurrentLinkedQueue<int[]> script = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private final ResilientFetcher.Attempt<String> get = new ResilientFetcher.Attempt<String>() {
+        @Override
+        public String run(int attemptNumber) throws IOException {
+            HttpTransport.Response response = HttpTransport.getInstance().get(url, Collections.<String, String>emptyMap());
+            try {
+                int responseCode = response.getResponseCode();
+                if (responseCode != HttpURLConnection.HTTP_OK) {
+                    throw new HttpStatusException(responseCode, "Error response code: " + responseCode);
+                }
+                return response.readBody(UTF_8);
+            } finally {
+                response.close();
+            }
+        }
+    };
+
+    private final ResilientFetcher.Fallback<String> cached = new ResilientFetcher.Fallback<String>() {
+        @Override
+        public String get() {
+            return "cached";
+        }
+    };
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(HOST, 0), 0);
+        server.createContext("/search", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int request = requestCount.incrementAndGet();
+                int[] step = script.poll();
+                int delayMillis = step == null ? 0 : step[0];
+                int responseCode = step == null ? HttpURLConnection.HTTP_OK : step[1];
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = ("response " + request).getBytes(UTF_8);
+                exchange.sendResponseHeaders(responseCode, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        /**
+         * A delayed response must not hold up the others, e.g. the hedged request.
+         */
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        url = new URL("http://" + HOST + ":" + server.getAddress().getPort() + "/search");
+        fetchExecutor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        fetchExecutor.shutdownNow();
+    }
+
+    private ResilientFetcher newFetcher(int failureThreshold, long openMillis, long hedgeDelayMillis) {
+        return new ResilientFetcher(fetchExecutor, 3, 20, 100, failureThreshold, openMillis, hedgeDelayMillis, 10);
+    }
+
+    @Test
+    public void slowResponseIsHedged() {
+        script.add(new int[]{3000, HttpURLConnection.HTTP_OK});
+        ResilientFetcher fetcher = newFetcher(5, 30000, 100);
+
+        long start = System.nanoTime();
+        String body = fetcher.execute(HOST, get, cached);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+        assertEquals("response 2", body);
+        assertEquals(1, fetcher.getHedgeCount());
+        assertTrue("took " + elapsedMillis + " ms", elapsedMillis < 2000);
+    }
+
+    @Test
+    public void serverErrorsAreRetried() {
+        script.add(new int[]{0, HttpURLConnection.HTTP_UNAVAILABLE});
+        script.add(new int[]{0, HttpURLConnection.HTTP_INTERNAL_ERROR});
+        ResilientFetcher fetcher = newFetcher(5, 30000, 5000);
+
+        assertEquals("response 3", fetcher.execute(HOST, get, cached));
+        assertEquals(3, requestCount.get());
+        assertEquals(2, fetcher.getRetryCount());
+        assertEquals(0, fetcher.getFallbackCount());
+    }
+
+    @Test
+    public void clientErrorIsNotRetried() {
+        script.add(new int[]{0, HttpURLConnection.HTTP_NOT_FOUND});
+        ResilientFetcher fetcher = newFetcher(1, 30000, 5000);
+
+        assertEquals("cached", fetcher.execute(HOST, get, cached));
+        assertEquals(1, requestCount.get());
+        assertFalse(fetcher.isCircuitOpen(HOST));
+    }
+
+    @Test
+    public void repeatedFailuresOpenTheCircuitUntilATrialSucceeds() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            script.add(new int[]{0, HttpURLConnection.HTTP_INTERNAL_ERROR});
+        }
+        ResilientFetcher fetcher = newFetcher(3, 300, 5000);
+
+        assertEquals("cached", fetcher.execute(HOST, get, cached));
+        assertEquals(3, requestCount.get());
+        assertTrue(fetcher.isCircuitOpen(HOST));
+
+        /**
+         * While open, the fallback is served without reaching the server.
+         */
+        assertEquals("cached", fetcher.execute(HOST, get, cached));
+        assertEquals(3, requestCount.get());
+
+        Thread.sleep(400);
+        assertEquals("response 4", fetcher.execute(HOST, get, cached));
+        assertFalse(fetcher.isCircuitOpen(HOST));
+        assertEquals(2, fetcher.getFallbackCount());
+    }
+
+    @Test
+    public void trialEndingInAClientErrorLetsTheNextRequestThrough() throws InterruptedException {
+        script.add(new int[]{0, HttpURLConnection.HTTP_INTERNAL_ERROR});
+        script.add(new int[]{0, HttpURLConnection.HTTP_NOT_FOUND});
+        ResilientFetcher fetcher = newFetcher(1, 200, 5000);
+
+        assertEquals("cached", fetcher.execute(HOST, get, cached));
+        assertTrue(fetcher.isCircuitOpen(HOST));
+        Thread.sleep(300);
+        assertEquals("cached", fetcher.execute(HOST, get, cached));
+        assertEquals(2, requestCount.get());
+
+        /**
+         * The 404 trial neither closed nor re-opened the circuit, so the next request is a trial too.
+         */
+        assertEquals("response 3", fetcher.execute(HOST, get, cached));
+        assertFalse(fetcher.isCircuitOpen(HOST));
+    }
+
+    @Test
+    public void droppedTrialLetsTheNextRequestThrough() throws InterruptedException {
+        script.add(new int[]{0, HttpURLConnection.HTTP_INTERNAL_ERROR});
+        ResilientFetcher fetcher = newFetcher(1, 200, 5000);
+
+        assertEquals("cached", fetcher.execute(HOST, get, cached));
+        Thread.sleep(300);
+        String body = fetcher.execute(HOST, new ResilientFetcher.Attempt<String>() {
+            @Override
+            public String run(int attemptNumber) throws IOException {
+                throw new FetchDroppedException("No slot in time");
+            }
+        }, cached);
+
+        assertEquals("cached", body);
+        assertEquals("response 2", fetcher.execute(HOST, get, cached));
+        assertFalse(fetcher.isCircuitOpen(HOST));
+    }
+
+    @Test
+    public void malformedBodyIsNotRetriedNorCountedAgainstTheHost() {
+        final AtomicInteger attempts = new AtomicInteger();
+        ResilientFetcher fetcher = newFetcher(1, 30000, 5000);
+
+        String body = fetcher.execute(HOST, new ResilientFetcher.Attempt<String>() {
+            @Override
+            public String run(int attemptNumber) throws IOException {
+                attempts.incrementAndGet();
+                throw new MalformedJsonException("Unterminated object");
+            }
+        }, cached);
+
+        assertEquals("cached", body);
+        assertEquals(1, attempts.get());
+        assertFalse(fetcher.isCircuitOpen(HOST));
+        assertEquals("response 1", fetcher.execute(HOST, get, cached));
+    }
+}
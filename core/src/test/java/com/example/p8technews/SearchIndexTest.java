@@ -0,0 +1,97 @@
+package com.example.p8technews;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Prefix and multi-word queries of {@link SearchIndex}, articles indexed again when their
+ * text changes, and the timeline positions it maps the matches to.
+ */
+public class SearchIndexTest {
+    private static final long HOUR = 3600000L;
+
+    @Test
+    public void everyWordOfTheQueryMustPrefixAWordOfTheArticle() {
+        NewsTimeline timeline = new NewsTimeline();
+        SearchIndex searchIndex = new SearchIndex();
+        List<NewsRow> newsRows = Arrays.asList(
+                row("a", "Apple sues Samsung over phone patents", "Technology", 50),
+                row("b", "Quantum computer beats phone chip", "Science", 40),
+                row("c", "Phone makers face privacy regulators", "Technology", 30,
+                        Collections.singletonList("Alex Hern")));
+        timeline.merge(newsRows, null);
+        searchIndex.addAll(newsRows);
+
+        assertArrayEquals(new int[]{0, 1, 2}, searchIndex.filter(timeline, "pho"));
+        assertArrayEquals(new int[]{0, 2}, searchIndex.filter(timeline, "PHONE tech"));
+        assertArrayEquals(new int[]{2}, searchIndex.filter(timeline, "ph  her"));
+        assertArrayEquals(new int[]{1}, searchIndex.filter(timeline, "sci, chip"));
+        assertArrayEquals(new int[0], searchIndex.filter(timeline, "phone tesla"));
+        assertArrayEquals(new int[0], searchIndex.filter(timeline, "hone"));
+        assertNull(searchIndex.filter(timeline, " -- "));
+    }
+
+    @Test
+    public void changedTextIsIndexedAgainAndTheOldVersionMasked() {
+        NewsTimeline timeline = new NewsTimeline();
+        SearchIndex searchIndex = new SearchIndex();
+        NewsRow original = row("a", "Drone delivery trial begins", "Technology", 50);
+        timeline.merge(Collections.singletonList(original), null);
+        searchIndex.add(original);
+        int termCount = searchIndex.getTermCount();
+
+        /**
+         * The same text again is not indexed a second time.
+         */
+        searchIndex.add(row("a", "Drone delivery trial begins", "Technology", 50));
+        assertEquals(termCount, searchIndex.getTermCount());
+
+        NewsRow corrected = row("a", "Drone delivery trial halted", "Technology", 50);
+        timeline.merge(Collections.singletonList(corrected), null);
+        searchIndex.add(corrected);
+        assertArrayEquals(new int[]{0}, searchIndex.filter(timeline, "halt"));
+        assertArrayEquals(new int[0], searchIndex.filter(timeline, "begins"));
+        assertArrayEquals(new int[]{0}, searchIndex.filter(timeline, "drone"));
+        assertEquals(1, searchIndex.search("drone").cardinality());
+    }
+
+    @Test
+    public void matchesFollowTheirRowsAcrossMovesAndRemovals() {
+        NewsTimeline timeline = new NewsTimeline();
+        SearchIndex searchIndex = new SearchIndex();
+        List<NewsRow> newsRows = Arrays.asList(row("a", "Battery fire", "Technology", 50),
+                row("b", "Cloud outage", "Technology", 40), row("c", "Battery recall", "Technology", 30));
+        timeline.merge(newsRows, null);
+        searchIndex.addAll(newsRows);
+        assertArrayEquals(new int[]{0, 2}, searchIndex.filter(timeline, "battery"));
+
+        /**
+         * A newer publication time moves the row to the top.
+         */
+        List<NewsRow> update = Arrays.asList(row("c", "Battery recall", "Technology", 60),
+                row("d", "Battery prices", "Technology", 45));
+        timeline.merge(update, null);
+        searchIndex.addAll(update);
+        assertArrayEquals(new int[]{0, 1, 2}, searchIndex.filter(timeline, "battery"));
+
+        timeline.removeMissing(Arrays.asList(row("c", "Battery recall", "Technology", 60),
+                row("b", "Cloud outage", "Technology", 40)), null);
+        assertArrayEquals(new int[]{0}, searchIndex.filter(timeline, "battery"));
+    }
+
+    private static NewsRow row(String webUrl, String title, String section, long hours) {
+        return row(webUrl, title, section, hours, null);
+    }
+
+    private static NewsRow row(String webUrl, String title, String section, long hours, List<String> authors) {
+        return new NewsRow(new TechNews(title, section, null, "https://www.theguardian.com/" + webUrl, null, authors),
+                hours * HOUR, "date", "time", "Author N/A");
+    }
+}
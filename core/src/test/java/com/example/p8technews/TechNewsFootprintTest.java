@@ -0,0 +1,206 @@
+package com.example.p8technews;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the retained heap of 10,000 {@link TechNews} with the same articles held by the
+ * model as it was before it was made compact. Every string is a fresh copy, the way a parser
+ * hands them over.
+ * <p>
+ * The heap is not measured but computed from the objects each model retains, so the result
+ * does not depend on the collector: objects are laid out as on a 64-bit VM with compressed
+ * references, strings at two bytes a character, and an object shared by several articles, such
+ * as a pooled name, counts once. The articles are measured after going through what the app
+ * does with each of them, saving it to a snapshot, estimating its size and reading its thumbnail,
+ * so nothing those keep on the article is missed.
+ */
+public class TechNewsFootprintTest {
+    private static final int ARTICLES = 10000;
+    private static final String[] SECTIONS = {"Technology", "Science", "Environment"};
+
+    @Test
+    public void compactModelRetainsLessHeapAndKeepsTheData() throws IOException {
+        Random random = new Random(42);
+        String[] contributors = new String[60];
+        for (int i = 0; i < contributors.length; i++) {
+            contributors[i] = "Contributor Name" + i;
+        }
+
+        List<LegacyTechNews> legacy = new ArrayList<>(ARTICLES);
+        for (int i = 0; i < ARTICLES; i++) {
+            random.setSeed(i);
+            legacy.add(new LegacyTechNews(copy(title(i)), copy(SECTIONS[i % SECTIONS.length]), copy(date(i)),
+                    copy(webUrl(i)), copy(thumbnail(random)), authors(random, contributors)));
+        }
+        List<TechNews> compact = new ArrayList<>(ARTICLES);
+        for (int i = 0; i < ARTICLES; i++) {
+            random.setSeed(i);
+            compact.add(new TechNews(copy(title(i)), copy(SECTIONS[i % SECTIONS.length]), copy(date(i)),
+                    copy(webUrl(i)), copy(thumbnail(random)), authors(random, contributors)));
+        }
+        DataOutputStream snapshot = new DataOutputStream(new ByteArrayOutputStream());
+        for (TechNews techNews : compact) {
+            NewsRow newsRow = new NewsRow(techNews, 0L, "date", "time", "Author N/A");
+            NewsSnapshot.writeRow(snapshot, newsRow);
+            NewsTimeline.estimateBytes(newsRow);
+            techNews.getThumbnail();
+        }
+        long legacyBytes = retainedBytes(legacy);
+        long compactBytes = retainedBytes(compact);
+
+        for (int i = 0; i < ARTICLES; i++) {
+            LegacyTechNews expected = legacy.get(i);
+            TechNews actual = compact.get(i);
+            assertEquals(expected.mTitle, actual.getTitle());
+            assertEquals(expected.mNewsSection, actual.getNewsSection());
+            assertEquals(expected.mContentDateAndTime, actual.getContentDateAndTime());
+            assertEquals(expected.mWebUrl, actual.getWebUrl());
+            assertEquals(expected.mThumbnail, actual.getThumbnail());
+            assertEquals(expected.mAuthors, actual.getAuthors());
+        }
+        assertTrue(compactBytes + " of " + legacyBytes + " bytes", compactBytes * 100 < legacyBytes * 85);
+    }
+
+    private static String title(int i) {
+        return "Article number " + i + " about phones, privacy and the regulators chasing them";
+    }
+
+    private static String date(int i) {
+        return String.format("2019-11-%02dT%02d:%02d:00Z", 1 + i % 28, i % 24, i % 60);
+    }
+
+    private static String webUrl(int i) {
+        return "https://www.theguardian.com/technology/2019/nov/" + (1 + i % 28) + "/article-number-" + i + "-about-phones";
+    }
+
+    private static String thumbnail(Random random) {
+        return "https://media.guim.co.uk/" + Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong())
+                + "/0_0_5000_3000/500.jpg";
+    }
+
+    /**
+     * No, one, or a few contributors, in a fresh list as a parser builds it.
+     */
+    private static ArrayList<String> authors(Random random, String[] contributors) {
+        int count = random.nextInt(4);
+        if (count == 0) {
+            return null;
+        }
+        ArrayList<String> authors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            authors.add(copy(contributors[random.nextInt(contributors.length)]));
+        }
+        return authors;
+    }
+
+    private static String copy(String string) {
+        return new String(string.toCharArray());
+    }
+
+    /**
+     * Bytes retained by the elements of the list, not counting the list itself.
+     */
+    private static long retainedBytes(List<?> objects) {
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        long bytes = 0;
+        for (Object object : objects) {
+            bytes += retainedBytes(object, seen);
+        }
+        return bytes;
+    }
+
+    private static long retainedBytes(Object object, Set<Object> seen) {
+        if (object == null || !seen.add(object)) {
+            return 0;
+        }
+        if (object instanceof String) {
+            return align(24) + align(16 + 2L * ((String) object).length());
+        }
+        if (object instanceof ArrayList) {
+            /**
+             * A list grown by add() has room for at least ten elements.
+             */
+            List<?> list = (List<?>) object;
+            long bytes = align(24) + align(16 + 4L * Math.max(10, list.size()));
+            for (Object element : list) {
+                bytes += retainedBytes(element, seen);
+            }
+            return bytes;
+        }
+        if (object instanceof Object[]) {
+            Object[] array = (Object[]) object;
+            long bytes = align(16 + 4L * array.length);
+            for (Object element : array) {
+                bytes += retainedBytes(element, seen);
+            }
+            return bytes;
+        }
+        long bytes = 12;
+        long referenced = 0;
+        for (Field field : object.getClass().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            Class<?> type = field.getType();
+            if (!type.isPrimitive()) {
+                bytes += 4;
+                field.setAccessible(true);
+                try {
+                    referenced += retainedBytes(field.get(object), seen);
+                } catch (IllegalAccessException e) {
+                    throw new AssertionError(e);
+                }
+            } else if (type == long.class || type == double.class) {
+                bytes += 8;
+            } else if (type == int.class || type == float.class) {
+                bytes += 4;
+            } else if (type == short.class || type == char.class) {
+                bytes += 2;
+            } else {
+                bytes += 1;
+            }
+        }
+        return align(bytes) + referenced;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * The article model before it was made compact.
+     */
+    private static class LegacyTechNews {
+        final String mTitle;
+        final String mNewsSection;
+        final String mContentDateAndTime;
+        final String mWebUrl;
+        final String mThumbnail;
+        final ArrayList<String> mAuthors;
+
+        LegacyTechNews(String title, String newsSection, String contentDateAndTime, String webUrl,
+                       String thumbnail, ArrayList<String> authors) {
+            mTitle = title;
+            mNewsSection = newsSection;
+            mContentDateAndTime = contentDateAndTime;
+            mWebUrl = webUrl;
+            mThumbnail = thumbnail;
+            mAuthors = authors;
+        }
+    }
+}
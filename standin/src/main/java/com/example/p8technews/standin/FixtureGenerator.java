@@ -0,0 +1,174 @@
+package com.example.p8technews.standin;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Generates the synthetic search responses in {@code fixtures/}: Guardian search responses of
+ * 10, 50 and 200 articles in the shape of the real endpoint's, newest first, with made-up
+ * titles, contributors and thumbnails. The same seed is used for every size, so a smaller
+ * fixture is the first page of a larger one, and regenerating them gives the same bytes:
+ *
+ *     ./gradlew :standin:generateFixtures
+ */
+public final class FixtureGenerator {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int[] SIZES = {10, 50, 200};
+    private static final long SEED = 2019;
+
+    /**
+     * Publication time of the newest article, 2019-11-20T23:00:00Z; the others follow it at
+     * gaps of up to an hour.
+     */
+    private static final long NEWEST_MILLIS = 1574290800000L;
+    private static final int MAX_GAP_SECONDS = 3600;
+
+    private static final String[] SECTION_IDS = {"technology", "science"};
+    private static final String[] SECTION_NAMES = {"Technology", "Science"};
+    private static final String[] WORDS = {"amazon", "android", "apple", "artificial", "battery", "car", "carbon",
+            "chip", "climate", "cloud", "computer", "data", "drone", "electric", "encryption", "facebook", "genome",
+            "google", "hackers", "intelligence", "nasa", "ocean", "phone", "privacy", "quantum", "regulators",
+            "robot", "satellite", "security", "space", "startup", "tesla", "vaccine"};
+    private static final String[] FIRST_NAMES = {"Alex", "Arwa", "Hannah", "Ian", "Jonathan", "Julia", "Kari",
+            "Natasha", "Olivia", "Rob", "Samuel", "Zoe"};
+    private static final String[] LAST_NAMES = {"Corbyn", "Davis", "Devlin", "Gibbs", "Hern", "Kuchler", "Lomas",
+            "Mahdawi", "Paul", "Sample", "Solon", "Wong"};
+
+    private FixtureGenerator() {
+    }
+
+    /**
+     * Write the fixtures into the given directory, by default the stand-in's resources.
+     */
+    public static void main(String[] args) throws IOException {
+        File directory = new File(args.length > 0 ? args[0] : "src/main/resources/fixtures");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        for (int size : SIZES) {
+            File file = new File(directory, "search-" + size + ".json");
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file), UTF_8);
+            try {
+                write(writer, size);
+            } finally {
+                writer.close();
+            }
+            System.out.println("Wrote " + file);
+        }
+    }
+
+    /**
+     * Write a search response of the given number of articles.
+     */
+    static void write(Writer writer, int articles) throws IOException {
+        Random random = new Random(SEED);
+        SimpleDateFormat timestamp = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+        SimpleDateFormat path = new SimpleDateFormat("yyyy/MMM/dd", Locale.US);
+        timestamp.setTimeZone(TimeZone.getTimeZone("UTC"));
+        path.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject().name("response").beginObject();
+        json.name("status").value("ok");
+        json.name("userTier").value("developer");
+        json.name("total").value(24871);
+        json.name("startIndex").value(1);
+        json.name("pageSize").value(articles);
+        json.name("currentPage").value(1);
+        json.name("pages").value((24871 + articles - 1) / articles);
+        json.name("orderBy").value("newest");
+        json.name("results").beginArray();
+        long publishedMillis = NEWEST_MILLIS;
+        for (int i = 0; i < articles; i++) {
+            if (i > 0) {
+                publishedMillis -= (1 + random.nextInt(MAX_GAP_SECONDS)) * 1000L;
+            }
+            int section = random.nextInt(SECTION_IDS.length);
+            String title = title(random);
+            String slug = title.toLowerCase(Locale.US).replace(' ', '-');
+            if (slug.length() > 60) {
+                slug = slug.substring(0, 60);
+            }
+            String id = SECTION_IDS[section] + "/" + path.format(new Date(publishedMillis)).toLowerCase(Locale.US)
+                    + "/" + slug;
+
+            json.beginObject();
+            json.name("id").value(id);
+            json.name("type").value("article");
+            json.name("sectionId").value(SECTION_IDS[section]);
+            json.name("sectionName").value(SECTION_NAMES[section]);
+            json.name("webPublicationDate").value(timestamp.format(new Date(publishedMillis)));
+            json.name("webTitle").value(title);
+            json.name("webUrl").value("https://www.theguardian.com/" + id);
+            json.name("apiUrl").value("https://content.guardianapis.com/" + id);
+            json.name("fields").beginObject();
+            json.name("thumbnail").value("https://media.guim.co.uk/" + hex(random, 40) + "/0_0_5000_3000/500.jpg");
+            json.endObject();
+            json.name("tags").beginArray();
+            int contributors = random.nextInt(4);
+            for (int j = 0; j < contributors; j++) {
+                writeContributor(json, random, SECTION_IDS[section]);
+            }
+            json.endArray();
+            json.name("isHosted").value(false);
+            json.name("pillarId").value("pillar/news");
+            json.name("pillarName").value("News");
+            json.endObject();
+        }
+        json.endArray().endObject().endObject();
+        json.flush();
+    }
+
+    private static String title(Random random) {
+        int words = 6 + random.nextInt(7);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (i == 0) {
+                title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else {
+                title.append(' ').append(word);
+            }
+        }
+        return title.toString();
+    }
+
+    private static void writeContributor(JsonWriter json, Random random, String section) throws IOException {
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String handle = (firstName + lastName).toLowerCase(Locale.US);
+        json.beginObject();
+        json.name("id").value("profile/" + handle);
+        json.name("type").value("contributor");
+        json.name("webTitle").value(firstName + " " + lastName);
+        json.name("webUrl").value("https://www.theguardian.com/profile/" + handle);
+        json.name("apiUrl").value("https://content.guardianapis.com/profile/" + handle);
+        json.name("references").beginArray().endArray();
+        json.name("bio").value("<p>" + firstName + " " + lastName + " is a " + section + " reporter for the Guardian</p>");
+        json.name("bylineImageUrl").value("https://uploads.guim.co.uk/2017/10/06/" + lastName + ",-L.jpg");
+        json.name("bylineLargeImageUrl").value("https://uploads.guim.co.uk/2017/10/06/" + lastName + ",-L.png");
+        json.name("firstName").value(firstName.toLowerCase(Locale.US));
+        json.name("lastName").value(lastName.toLowerCase(Locale.US));
+        json.name("twitterHandle").value(handle);
+        json.endObject();
+    }
+
+    private static String hex(Random random, int digits) {
+        StringBuilder hex = new StringBuilder(digits);
+        for (int i = 0; i < digits; i++) {
+            hex.append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,599 @@
+package com.example.p8technews.standin;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the Guardian content API, replaying the articles of a search response,
+ * by default the synthetic ones in {@code fixtures/search-200.json}. The articles are repeated
+ * with distinct ids, web addresses and publication dates, each round older than the one before,
+ * to make up as many articles as configured. Each response is held back, throttled and failed
+ * as configured, so the app's fetch path can be measured against a slow, narrow or flaky
+ * network without depending on the real one:
+ *
+ *     ./gradlew :standin:serve -Pstandin.args="--port 8080 --latency 150 400 --bandwidth 50000"
+ *
+ * It serves what the app asks for:
+ * <ul>
+ * <li>{@code /search}, paged by {@code page} and {@code page-size}, filtered by {@code section}
+ * (ids separated by {@code |}) and {@code from-date}, and ordered by {@code order-by}, newest
+ * first unless {@code oldest};</li>
+ * <li>single items under the path of their id, e.g. {@code /technology/2019/nov/20/some-article},
+ * with a made-up plain-text body as {@code fields.bodyText}.</li>
+ * </ul>
+ * Other parameters, such as {@code show-fields}, {@code show-tags} or {@code q}, are ignored:
+ * search results always have their thumbnail and contributor tags, and nothing else.
+ * <p>
+ * An emulator reaches it at http://10.0.2.2:8080/search?api-key=test, which debug builds take
+ * as their base URL with -PguardianRequestUrl. The settings may be changed while it runs.
+ */
+public class GuardianStandIn {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * The search response replayed by default, and the page size limits of the real endpoint.
+     */
+    private static final String DEFAULT_ARTICLES = "/fixtures/search-200.json";
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Throttled responses are written in chunks of this many bytes.
+     */
+    private static final int CHUNK_BYTES = 4096;
+
+    private final List<JsonObject> replayed;
+
+    /**
+     * Publication times of the replayed articles, the time a round of them spans, and their
+     * positions by id.
+     */
+    private final long[] replayedMillis;
+    private final long roundMillis;
+    private final Map<String, Integer> replayedIds = new HashMap<>();
+    private final Random random = new Random();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private volatile int totalArticles;
+    private volatile long minLatencyMillis;
+    private volatile long maxLatencyMillis;
+    private volatile long bytesPerSecond;
+    private volatile double errorRate;
+    private volatile int paddingChars;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    /**
+     * Replay the 200 synthetic articles in {@code fixtures/search-200.json}.
+     */
+    public GuardianStandIn() throws IOException {
+        this(GuardianStandIn.class.getResourceAsStream(DEFAULT_ARTICLES));
+    }
+
+    /**
+     * Replay the articles of the given search response, newest first, which is closed.
+     */
+    public GuardianStandIn(InputStream articles) throws IOException {
+        if (articles == null) {
+            throw new IOException("No search response to replay");
+        }
+        replayed = new ArrayList<>();
+        Reader reader = new InputStreamReader(articles, UTF_8);
+        try {
+            JsonObject response = JsonParser.parseReader(reader).getAsJsonObject().getAsJsonObject("response");
+            for (JsonElement result : response.getAsJsonArray("results")) {
+                replayed.add(result.getAsJsonObject());
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed search response to replay", e);
+        } finally {
+            reader.close();
+        }
+        if (replayed.isEmpty()) {
+            throw new IOException("No articles to replay");
+        }
+        replayedMillis = new long[replayed.size()];
+        SimpleDateFormat format = newDateFormat();
+        for (int i = 0; i < replayed.size(); i++) {
+            JsonObject article = replayed.get(i);
+            try {
+                replayedMillis[i] = format.parse(article.get("webPublicationDate").getAsString()).getTime();
+            } catch (ParseException | RuntimeException e) {
+                throw new IOException("No publication date in article " + i, e);
+            }
+            if (i > 0 && replayedMillis[i] > replayedMillis[i - 1]) {
+                throw new IOException("Articles to replay are not newest first at article " + i);
+            }
+            replayedIds.put(article.get("id").getAsString(), i);
+        }
+        /**
+         * A round starts a minute before the oldest article of the one before.
+         */
+        roundMillis = replayedMillis[0] - replayedMillis[replayedMillis.length - 1] + 60000;
+        totalArticles = replayed.size();
+    }
+
+    /**
+     * Number of articles the endpoint pages through, repeating the replayed ones as needed.
+     */
+    public void setTotalArticles(int totalArticles) {
+        this.totalArticles = totalArticles;
+    }
+
+    /**
+     * Time every response is held back before its headers are sent, picked evenly between the
+     * two bounds for every request.
+     */
+    public void setLatencyMillis(long minLatencyMillis, long maxLatencyMillis) {
+        this.minLatencyMillis = minLatencyMillis;
+        this.maxLatencyMillis = Math.max(minLatencyMillis, maxLatencyMillis);
+    }
+
+    /**
+     * Rate the response bodies are written at, as bytes on the wire per second; 0 does not throttle.
+     */
+    public void setBytesPerSecond(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Share of the requests, between 0 and 1, answered with a 503 instead of the page.
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Number of characters of filler added to every article as a trailText field, to make
+     * the responses larger than the replayed ones.
+     */
+    public void setPaddingChars(int paddingChars) {
+        this.paddingChars = paddingChars;
+    }
+
+    /**
+     * Start serving on the loopback address.
+     *
+     * @param port to listen on, or 0 for any free port
+     */
+    public void start(int port) throws IOException {
+        start(new InetSocketAddress("127.0.0.1", port));
+    }
+
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    serve(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        /**
+         * A thread per request, so held back and throttled responses overlap as they would
+         * on the real endpoint.
+         */
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    /**
+     * Return the base URL of the endpoint, as the app's search requests start.
+     */
+    public synchronized String getSearchUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/search?api-key=test";
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String path = exchange.getRequestURI().getPath();
+        sleep(pickLatency());
+
+        int status = 200;
+        JsonObject response;
+        if (nextDouble() < errorRate) {
+            errorCount.incrementAndGet();
+            status = 503;
+            response = errorResponse("The service is temporarily unavailable");
+        } else if ("/search".equals(path)) {
+            response = searchResponse(query);
+            if (response.has("message")) {
+                status = 400;
+            }
+        } else {
+            int n = findArticle(path.substring(1));
+            if (n < 0) {
+                status = 404;
+                response = errorResponse("The requested resource could not be found.");
+            } else {
+                response = itemResponse(n);
+            }
+        }
+
+        byte[] body = wrap(response).toString().getBytes(UTF_8);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            body = gzip(body);
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        write(exchange.getResponseBody(), body);
+    }
+
+    /**
+     * Build the requested page of the search results, or an error response with a message.
+     */
+    private JsonObject searchResponse(Map<String, String> query) {
+        int pageSize = Math.min(MAX_PAGE_SIZE, parseInt(query.get("page-size"), DEFAULT_PAGE_SIZE));
+        int page = parseInt(query.get("page"), 1);
+        long fromMillis = Long.MIN_VALUE;
+        String fromDate = query.get("from-date");
+        if (fromDate != null) {
+            try {
+                fromMillis = parseFromDate(fromDate);
+            } catch (ParseException e) {
+                return errorResponse("Invalid from-date: " + fromDate);
+            }
+        }
+        String sections = query.get("section");
+        Set<String> sectionIds = sections == null ? null : new HashSet<>(Arrays.asList(sections.split("\\|")));
+        boolean oldestFirst = "oldest".equals(query.get("order-by"));
+
+        /**
+         * Articles are numbered newest first, so the ones matching are collected in that order.
+         */
+        List<Integer> matching = new ArrayList<>();
+        int total = totalArticles;
+        for (int n = 0; n < total; n++) {
+            if (publishedMillis(n) < fromMillis) {
+                break;
+            }
+            if (sectionIds == null || sectionIds.contains(replayed.get(n % replayed.size()).get("sectionId").getAsString())) {
+                matching.add(n);
+            }
+        }
+        if (oldestFirst) {
+            Collections.reverse(matching);
+        }
+
+        int pages = (matching.size() + pageSize - 1) / Math.max(1, pageSize);
+        if (pageSize < 1 || page < 1 || page > Math.max(1, pages)) {
+            return errorResponse("requested page is beyond the number of available pages");
+        }
+        JsonObject response = new JsonObject();
+        response.addProperty("status", "ok");
+        response.addProperty("userTier", "developer");
+        response.addProperty("total", matching.size());
+        int startIndex = (page - 1) * pageSize;
+        response.addProperty("startIndex", startIndex + 1);
+        response.addProperty("pageSize", pageSize);
+        response.addProperty("currentPage", page);
+        response.addProperty("pages", pages);
+        response.addProperty("orderBy", oldestFirst ? "oldest" : "newest");
+        JsonArray results = new JsonArray();
+        SimpleDateFormat format = newDateFormat();
+        int end = Math.min(matching.size(), startIndex + pageSize);
+        for (int i = startIndex; i < end; i++) {
+            results.add(article(matching.get(i), format));
+        }
+        response.add("results", results);
+        return response;
+    }
+
+    /**
+     * Build the single-item response of article n, with its body.
+     */
+    private JsonObject itemResponse(int n) {
+        JsonObject content = article(n, newDateFormat());
+        if (!content.has("fields")) {
+            content.add("fields", new JsonObject());
+        }
+        content.getAsJsonObject("fields").addProperty("bodyText", bodyText(content.get("webTitle").getAsString()));
+        JsonObject response = new JsonObject();
+        response.addProperty("status", "ok");
+        response.addProperty("userTier", "developer");
+        response.addProperty("total", 1);
+        response.add("content", content);
+        return response;
+    }
+
+    /**
+     * Return the number of the article with the given id, or -1 if there is none: replayed
+     * article ids in the first round, with "-round" appended in later ones.
+     */
+    private int findArticle(String id) {
+        int round = 0;
+        Integer index = replayedIds.get(id);
+        if (index == null) {
+            int separator = id.lastIndexOf('-');
+            if (separator < 0) {
+                return -1;
+            }
+            round = parseInt(id.substring(separator + 1), 0);
+            index = round > 0 ? replayedIds.get(id.substring(0, separator)) : null;
+            if (index == null) {
+                return -1;
+            }
+        }
+        long n = (long) round * replayed.size() + index;
+        return n < totalArticles ? (int) n : -1;
+    }
+
+    /**
+     * Article n is replayed article n modulo the number replayed, renamed and moved back in
+     * time by a round after its first round.
+     */
+    private long publishedMillis(int n) {
+        return replayedMillis[n % replayed.size()] - (n / replayed.size()) * roundMillis;
+    }
+
+    private JsonObject article(int n, SimpleDateFormat format) {
+        JsonObject article = replayed.get(n % replayed.size()).deepCopy();
+        int round = n / replayed.size();
+        if (round > 0) {
+            for (String key : new String[]{"id", "webUrl", "apiUrl"}) {
+                if (article.has(key)) {
+                    article.addProperty(key, article.get(key).getAsString() + "-" + round);
+                }
+            }
+            article.addProperty("webPublicationDate", format.format(new Date(publishedMillis(n))));
+        }
+        int padding = paddingChars;
+        if (padding > 0) {
+            if (!article.has("fields")) {
+                article.add("fields", new JsonObject());
+            }
+            StringBuilder trailText = new StringBuilder(padding);
+            while (trailText.length() < padding) {
+                trailText.append("Lorem ipsum dolor sit amet ");
+            }
+            trailText.setLength(padding);
+            article.getAsJsonObject("fields").addProperty("trailText", trailText.toString());
+        }
+        return article;
+    }
+
+    /**
+     * A plain-text body of a few paragraphs made up from the words of the title, about as long
+     * as a short article.
+     */
+    private static String bodyText(String title) {
+        String[] words = title.toLowerCase(Locale.US).split(" ");
+        StringBuilder body = new StringBuilder(3200);
+        for (int sentence = 0; body.length() < 3000; sentence++) {
+            for (int i = 0; i < words.length; i++) {
+                String word = words[(i + sentence) % words.length];
+                if (i == 0) {
+                    body.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+                } else {
+                    body.append(' ').append(word);
+                }
+            }
+            body.append(sentence % 5 == 4 ? ".\n\n" : ". ");
+        }
+        return body.toString().trim();
+    }
+
+    private static SimpleDateFormat newDateFormat() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+
+    /**
+     * Parse a from-date as the real endpoint takes it: a day, or a full date and time.
+     */
+    private static long parseFromDate(String fromDate) throws ParseException {
+        if (fromDate.length() <= 10) {
+            SimpleDateFormat day = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+            day.setTimeZone(TimeZone.getTimeZone("UTC"));
+            return day.parse(fromDate).getTime();
+        }
+        return newDateFormat().parse(fromDate).getTime();
+    }
+
+    private static JsonObject errorResponse(String message) {
+        JsonObject response = new JsonObject();
+        response.addProperty("status", "error");
+        response.addProperty("message", message);
+        return response;
+    }
+
+    private static JsonObject wrap(JsonObject response) {
+        JsonObject document = new JsonObject();
+        document.add("response", response);
+        return document;
+    }
+
+    /**
+     * Write the body, at most bytesPerSecond per second when throttled.
+     */
+    private void write(OutputStream out, byte[] body) throws IOException {
+        long start = System.nanoTime();
+        int written = 0;
+        while (written < body.length) {
+            int chunk = Math.min(CHUNK_BYTES, body.length - written);
+            out.write(body, written, chunk);
+            out.flush();
+            written += chunk;
+            bytesSent.addAndGet(chunk);
+            long rate = bytesPerSecond;
+            if (rate > 0) {
+                long dueMillis = written * 1000L / rate;
+                sleep(dueMillis - (System.nanoTime() - start) / 1000000);
+            }
+        }
+        out.close();
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+        gzip.write(body);
+        gzip.close();
+        return compressed.toByteArray();
+    }
+
+    private long pickLatency() {
+        long min = minLatencyMillis;
+        long max = maxLatencyMillis;
+        if (max <= min) {
+            return min;
+        }
+        return min + (long) (nextDouble() * (max - min + 1));
+    }
+
+    private double nextDouble() {
+        synchronized (random) {
+            return random.nextDouble();
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Stopped while serving", e);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                query.put(URLDecoder.decode(parameter.substring(0, separator), "UTF-8"),
+                        URLDecoder.decode(parameter.substring(separator + 1), "UTF-8"));
+            }
+        }
+        return query;
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Number of requests received, searches and single items.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Number of requests deliberately failed.
+     */
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    /**
+     * Number of response body bytes written, as sent on the wire.
+     */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * Serve until the process is stopped. Arguments, all optional:
+     * {@code --port n --host address --articles n --latency min max --bandwidth bytesPerSecond
+     * --error-rate r --padding chars}
+     */
+    public static void main(String[] args) throws IOException {
+        GuardianStandIn standIn = new GuardianStandIn();
+        int port = 8080;
+        String host = "127.0.0.1";
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if ("--port".equals(option)) {
+                port = Integer.parseInt(args[++i]);
+            } else if ("--host".equals(option)) {
+                host = args[++i];
+            } else if ("--articles".equals(option)) {
+                standIn.setTotalArticles(Integer.parseInt(args[++i]));
+            } else if ("--latency".equals(option)) {
+                long min = Long.parseLong(args[++i]);
+                standIn.setLatencyMillis(min, Long.parseLong(args[++i]));
+            } else if ("--bandwidth".equals(option)) {
+                standIn.setBytesPerSecond(Long.parseLong(args[++i]));
+            } else if ("--error-rate".equals(option)) {
+                standIn.setErrorRate(Double.parseDouble(args[++i]));
+            } else if ("--padding".equals(option)) {
+                standIn.setPaddingChars(Integer.parseInt(args[++i]));
+            } else {
+                throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+        /**
+         * Listening on the loopback address by default, which an emulator reaches as 10.0.2.2;
+         * a device on the network needs --host 0.0.0.0, which exposes it to that network.
+         */
+        standIn.start(new InetSocketAddress(host, port));
+        System.out.println("Serving " + standIn.totalArticles + " articles at http://" + host + ":" + port
+                + "/search?api-key=test");
+    }
+}
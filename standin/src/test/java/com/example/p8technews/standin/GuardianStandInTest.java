@@ -0,0 +1,167 @@
+package com.example.p8technews.standin;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GuardianStandInTest {
+    private GuardianStandIn standIn;
+
+    @Before
+    public void startStandIn() throws IOException {
+        standIn = new GuardianStandIn();
+        standIn.start(0);
+    }
+
+    @After
+    public void stopStandIn() {
+        standIn.stop();
+    }
+
+    @Test
+    public void pagesThroughRecordedArticlesRepeatedToTheConfiguredTotal() throws IOException {
+        standIn.setTotalArticles(450);
+        Set<String> webUrls = new HashSet<>();
+        int pages = 0;
+        for (int page = 1; ; page++) {
+            JsonObject response = get("&page-size=100&page=" + page).getAsJsonObject("response");
+            assertEquals(450, response.get("total").getAsInt());
+            pages = response.get("pages").getAsInt();
+            JsonArray results = response.getAsJsonArray("results");
+            assertEquals(page < 5 ? 100 : 50, results.size());
+            for (int i = 0; i < results.size(); i++) {
+                webUrls.add(results.get(i).getAsJsonObject().get("webUrl").getAsString());
+            }
+            if (page == pages) {
+                break;
+            }
+        }
+        assertEquals(5, pages);
+        assertEquals(450, webUrls.size());
+        assertEquals(400, status("&page-size=100&page=6"));
+    }
+
+    @Test
+    public void laterRoundsAreOlderSoEveryPageIsNewestFirst() throws IOException {
+        standIn.setTotalArticles(450);
+        JsonArray results = get("&page-size=200&page=2").getAsJsonObject("response").getAsJsonArray("results");
+        String previous = null;
+        for (int i = 0; i < results.size(); i++) {
+            String date = results.get(i).getAsJsonObject().get("webPublicationDate").getAsString();
+            assertTrue(previous == null || date.compareTo(previous) < 0);
+            previous = date;
+        }
+    }
+
+    @Test
+    public void filtersBySectionAndFromDateAndOrdersAsAsked() throws IOException {
+        standIn.setTotalArticles(450);
+        JsonObject all = get("&page-size=200").getAsJsonObject("response");
+        JsonObject technology = get("&section=technology&page-size=200").getAsJsonObject("response");
+        JsonObject both = get("&section=technology%7Cscience&page-size=1").getAsJsonObject("response");
+        assertEquals(450, all.get("total").getAsInt());
+        assertEquals(450, both.get("total").getAsInt());
+        assertTrue(technology.get("total").getAsInt() < 450);
+        JsonArray results = technology.getAsJsonArray("results");
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals("technology", results.get(i).getAsJsonObject().get("sectionId").getAsString());
+        }
+
+        String newest = all.getAsJsonArray("results").get(0).getAsJsonObject().get("webPublicationDate").getAsString();
+        JsonObject sinceNewestDay = get("&from-date=" + newest.substring(0, 10) + "&page-size=200").getAsJsonObject("response");
+        int sameDay = sinceNewestDay.get("total").getAsInt();
+        assertTrue(sameDay > 0 && sameDay < 450);
+
+        JsonArray oldest = get("&order-by=oldest&page-size=1").getAsJsonObject("response").getAsJsonArray("results");
+        JsonArray last = get("&page-size=50&page=9").getAsJsonObject("response").getAsJsonArray("results");
+        assertEquals(last.get(last.size() - 1).getAsJsonObject().get("id").getAsString(),
+                oldest.get(0).getAsJsonObject().get("id").getAsString());
+    }
+
+    @Test
+    public void servesSingleItemsWithTheirBody() throws IOException {
+        standIn.setTotalArticles(450);
+        JsonObject article = get("&page-size=1&page=250").getAsJsonObject("response").getAsJsonArray("results")
+                .get(0).getAsJsonObject();
+        String id = article.get("id").getAsString();
+        URL itemUrl = new URL(standIn.getSearchUrl().replace("/search", "/" + id) + "&show-fields=bodyText");
+
+        JsonObject content = read((HttpURLConnection) itemUrl.openConnection()).getAsJsonObject("response")
+                .getAsJsonObject("content");
+        assertEquals(article.get("webUrl").getAsString(), content.get("webUrl").getAsString());
+        assertTrue(content.getAsJsonObject("fields").get("bodyText").getAsString().length() > 1000);
+        HttpURLConnection missing = (HttpURLConnection) new URL(standIn.getSearchUrl()
+                .replace("/search", "/technology/no-such-article")).openConnection();
+        assertEquals(404, missing.getResponseCode());
+        missing.disconnect();
+    }
+
+    @Test
+    public void failsHoldsBackThrottlesAndPadsAsConfigured() throws IOException {
+        standIn.setErrorRate(1);
+        assertEquals(503, status("&page=1"));
+        assertEquals(1, standIn.getErrorCount());
+
+        standIn.setErrorRate(0);
+        standIn.setPaddingChars(1000);
+        JsonObject article = get("&page-size=1").getAsJsonObject("response").getAsJsonArray("results")
+                .get(0).getAsJsonObject();
+        assertEquals(1000, article.getAsJsonObject("fields").get("trailText").getAsString().length());
+
+        /**
+         * 50 articles of about 2.4 KB at 100 KB/s take about a second, after the latency.
+         */
+        standIn.setLatencyMillis(200, 200);
+        standIn.setBytesPerSecond(100000);
+        long start = System.nanoTime();
+        get("&page-size=50");
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        assertTrue("took " + elapsedMillis + " ms", elapsedMillis >= 1000);
+        assertEquals(3, standIn.getRequestCount());
+    }
+
+    private JsonObject get(String parameters) throws IOException {
+        return read(open(parameters));
+    }
+
+    private static JsonObject read(HttpURLConnection connection) throws IOException {
+        try {
+            InputStream body = connection.getInputStream();
+            try {
+                return JsonParser.parseReader(new InputStreamReader(body, "UTF-8")).getAsJsonObject();
+            } finally {
+                body.close();
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private int status(String parameters) throws IOException {
+        HttpURLConnection connection = open(parameters);
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private HttpURLConnection open(String parameters) throws IOException {
+        return (HttpURLConnection) new URL(standIn.getSearchUrl() + parameters).openConnection();
+    }
+}